@@ -0,0 +1,25 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.SecurityDataRestApplication;
+import java.util.Arrays;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application for benchmarks which need its beans, on a random port.
+ */
+final class Applications {
+
+    private Applications() {}
+
+    /**
+     * @param properties settings in {@code name=value} form. They are passed as command line arguments, as only those
+     * take precedence over {@code application.yml}.
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+
+        return new SpringApplicationBuilder(SecurityDataRestApplication.class).
+            properties("server.port=0", "logging.level.root=WARN").
+            run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+}
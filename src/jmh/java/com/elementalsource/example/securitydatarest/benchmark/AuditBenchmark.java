@@ -0,0 +1,83 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.audit.AuditLog;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Throughput of {@link ItemRepository#save(Item)} on four threads, without the {@link AuditLog} and with each of its
+ * fsync policies. Every save is recorded, while the file is written on the writer thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 10)
+@Measurement(iterations = 5)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AuditBenchmark {
+
+    @Param({"off", "never", "interval", "batch"})
+    public String audit;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        this.file = File.createTempFile("audit", ".ndjson");
+        this.context = "off".equals(audit) ? Applications.start()
+            : Applications.start("app.audit.enabled=true", "app.audit.fsync=" + audit,
+                "app.audit.file=" + file.getAbsolutePath());
+        this.itemRepository = context.getBean(ItemRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public Item saveItem(Caller caller) {
+        return itemRepository.save(new Item("Audited item"));
+    }
+
+    /**
+     * The admin saving items, set up on each benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+
+        @Setup
+        public void setUp() {
+            SecurityUtils.runAs("ollie", "gierke", "ROLE_USER", "ROLE_ADMIN");
+        }
+
+        @TearDown
+        public void tearDown() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
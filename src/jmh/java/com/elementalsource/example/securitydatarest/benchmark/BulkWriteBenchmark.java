@@ -0,0 +1,119 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * Writes 100,000 employees over HTTP, one {@code POST /employees} each, or {@code POST /employees/bulk} arrays of
+ * {@code app.bulk.max-entities}. Each iteration writes all of them.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+public class BulkWriteBenchmark {
+
+    private static final int EMPLOYEES = 100_000;
+    private static final int BULK_SIZE = 10_000;
+    private static final String EMPLOYEE = "{\"firstName\": \"Hobbit\", \"lastName\": \"No. %d\", \"title\": \"resident\"}";
+
+    @Param({"single", "bulk"})
+    public String requests;
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start("app.bulk.max-entities=" + BULK_SIZE);
+
+        int port = ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+
+        this.baseUrl = "http://localhost:" + port;
+        this.authorization = "Basic " + Base64.getEncoder().
+            encodeToString("ollie:gierke".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+
+        int bytes = 0;
+
+        if ("single".equals(requests)) {
+            for (int i = 0; i < EMPLOYEES; i++) {
+                bytes += post("/employees", String.format(EMPLOYEE, i));
+            }
+        } else {
+            for (int from = 0; from < EMPLOYEES; from += BULK_SIZE) {
+
+                StringBuilder body = new StringBuilder("[");
+                for (int i = from; i < from + BULK_SIZE; i++) {
+                    body.append(i == from ? "" : ",").append(String.format(EMPLOYEE, i));
+                }
+                bytes += post("/employees/bulk", body.append(']').toString());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of bytes of the response, which is read to the end so the connection is kept alive.
+     */
+    private int post(String path, String body) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(HttpHeaders.AUTHORIZATION, authorization);
+        connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        if (connection.getResponseCode() >= 300) {
+            throw new IllegalStateException("POST " + path + " answered " + connection.getResponseCode());
+        }
+
+        int bytes = 0;
+        byte[] buffer = new byte[8192];
+
+        try (InputStream in = connection.getInputStream()) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                bytes += read;
+            }
+        }
+        return bytes;
+    }
+}
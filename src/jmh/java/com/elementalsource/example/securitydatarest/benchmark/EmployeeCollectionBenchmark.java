@@ -0,0 +1,99 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * One page of 10,000 employees fetched over HTTP, in full, as the {@code lastName} projection and with
+ * {@code fields=lastName}, each uncompressed and with gzip, and each with and without the authentication cache for its
+ * HTTP Basic credentials. Each call returns the number of bytes on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class EmployeeCollectionBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+
+    /**
+     * Query string selecting the properties: all of them, a projection or sparse fields.
+     */
+    @Param({"all", "projection=lastName", "fields=lastName"})
+    public String view;
+
+    @Param({"identity", "gzip"})
+    public String encoding;
+
+    @Param({"true", "false"})
+    public boolean authenticationCache;
+
+    private ConfigurableApplicationContext context;
+    private URL url;
+    private String authorization;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        this.context = Applications.start("spring.data.rest.max-page-size=" + EMPLOYEES,
+            "app.security.authentication-cache.enabled=" + authenticationCache);
+
+        context.getBean(JdbcTemplate.class).update("insert into employee (id, first_name, last_name, title, version) "
+            + "select 1000000000 + x, 'Hobbit', 'No. ' || x, 'resident of the Shire', 0 from system_range(1, ?)",
+            EMPLOYEES);
+
+        int port = ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+        this.url = new URL("http://localhost:" + port + "/employees?size=" + EMPLOYEES
+            + ("all".equals(view) ? "" : "&" + view));
+        this.authorization = "Basic " + Base64.getEncoder().
+            encodeToString("greg:turnquist".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long fetch() throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT, MediaTypes.HAL_JSON_VALUE);
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, encoding);
+        connection.setRequestProperty(HttpHeaders.AUTHORIZATION, authorization);
+
+        long bytes = 0;
+        byte[] buffer = new byte[8192];
+
+        try (InputStream body = connection.getInputStream()) {
+            for (int read; (read = body.read(buffer)) != -1; ) {
+                bytes += read;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,110 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * {@code GET /employees/export} of 5,000,000 employees in a heap of 128 MB, far too small to hold them. The employees
+ * are stored in the file database of the persistent profile, as the in-memory one would hold them in the heap as well.
+ * Each call returns the number of bytes exported, and fails unless every employee was.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx128m")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    private static final int EMPLOYEES = 5_000_000;
+    private static final int INSERT_SIZE = 100_000;
+
+    private File directory;
+    private ConfigurableApplicationContext context;
+    private URL url;
+    private String authorization;
+    private long expected;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        this.directory = Files.createTempDirectory("export").toFile();
+
+        // H2 runs in the same heap, its cache is cut to 4 MB to leave the heap to the application
+        this.context = Applications.start("spring.profiles.active=persistent",
+            "spring.datasource.url=jdbc:h2:file:" + directory.getAbsolutePath() + "/export;CACHE_SIZE=4096");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        // one transaction per insert, as the database holds uncommitted rows in the heap
+        for (int from = 1; from <= EMPLOYEES; from += INSERT_SIZE) {
+            jdbcTemplate.update("insert into employee (id, first_name, last_name, title, version) "
+                + "select 1000000000 + x, 'Hobbit', 'No. ' || x, 'resident of the Shire', 0 from system_range(?, ?)",
+                from, from + INSERT_SIZE - 1);
+        }
+        this.expected = jdbcTemplate.queryForObject("select count(*) from employee", Long.class);
+
+        int port = ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+
+        this.url = new URL("http://localhost:" + port + "/employees/export");
+        this.authorization = "Basic " + Base64.getEncoder().
+            encodeToString("ollie:gierke".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestProperty(HttpHeaders.AUTHORIZATION, authorization);
+
+        long bytes = 0;
+        long lines = 0;
+        byte[] buffer = new byte[8192];
+
+        try (InputStream body = connection.getInputStream()) {
+            for (int read; (read = body.read(buffer)) != -1; ) {
+
+                bytes += read;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+        }
+
+        if (lines != expected) {
+            throw new IllegalStateException("Exported " + lines + " of " + expected + " employees");
+        }
+        return bytes;
+    }
+}
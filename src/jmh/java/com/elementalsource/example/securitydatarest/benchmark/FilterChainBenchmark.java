@@ -0,0 +1,72 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+
+/**
+ * One pass of an HTTP Basic authenticated request through the Spring Security filter chain, with and without the
+ * authentication cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class FilterChainBenchmark {
+
+    @Param({"true", "false"})
+    public boolean authenticationCache;
+
+    private ConfigurableApplicationContext context;
+    private FilterChainProxy filterChain;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start("app.security.authentication-cache.enabled=" + authenticationCache);
+        this.filterChain = context.getBean(FilterChainProxy.class);
+        this.authorization = "Basic "
+            + Base64.getEncoder().encodeToString("greg:turnquist".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int basicAuthentication() throws IOException, ServletException {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.setServletPath("/items/1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChain.doFilter(request, response, new MockFilterChain());
+
+        return response.getStatus();
+    }
+}
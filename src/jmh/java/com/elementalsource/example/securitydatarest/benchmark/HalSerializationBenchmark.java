@@ -0,0 +1,121 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.data.rest.core.support.SelfLinkProvider;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.hateoas.Resources;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Renders a HAL collection of employees the way Spring Data REST does, with the links it puts on every employee, either
+ * directly or with the serializer of Spring Data REST. Run with {@code -prof gc} to compare the bytes allocated per
+ * operation ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class HalSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean direct;
+
+    private ConfigurableApplicationContext context;
+    private ObjectWriter writer;
+    private Resources<PersistentEntityResource> employees;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start("app.hal.direct-serialization=" + direct);
+
+        // links are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        PersistentEntity<?, ?> entity = context.getBean(PersistentEntities.class).getPersistentEntity(Employee.class);
+        RepositoryEntityLinks links = context.getBean(RepositoryEntityLinks.class);
+        SelfLinkProvider selfLinks = context.getBean(SelfLinkProvider.class);
+
+        List<PersistentEntityResource> content = new ArrayList<>(size);
+
+        for (long id = 1; id <= size; id++) {
+
+            Employee employee = new Employee("Dwarf", "No. " + id, "miner");
+            employee.setId(id);
+            employee.setVersion(0L);
+
+            // like PersistentEntityResourceAssembler, the self link and the templated one to the projections
+            content.add(PersistentEntityResource.build(employee, entity).
+                withLink(links.linkToSingleResource(Employee.class, id).withSelfRel()).
+                withLink(selfLinks.createSelfLinkFor(employee)).
+                build());
+        }
+
+        this.employees = new Resources<>(content, links.linkToCollectionResource(Employee.class));
+        this.writer = context.getBean("halObjectMapper", ObjectMapper.class).writer();
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        RequestContextHolder.resetRequestAttributes();
+        context.close();
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+
+        CountingOutputStream out = new CountingOutputStream();
+        writer.writeValue(out, employees);
+
+        return out.count;
+    }
+
+    /**
+     * Discards the output, only counting its bytes so the work cannot be optimized away.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * {@link ItemRepository#findOne(java.io.Serializable)} through the method-security proxy, with and without the
+ * memoized decisions of the {@code @PreAuthorize} expressions. The item itself comes from the second-level cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ItemRepositoryBenchmark {
+
+    @Param({"true", "false"})
+    public boolean decisionCache;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository repository;
+    private Long id;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start("app.security.method.decision-cache-enabled=" + decisionCache);
+        this.repository = context.getBean(ItemRepository.class);
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        this.id = repository.save(new Item("Benchmark")).getId();
+        SecurityContextHolder.clearContext();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Item findOne(Caller caller) {
+        return repository.findOne(id);
+    }
+
+    /**
+     * The user calling the repository, set up on each benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+
+        @Setup
+        public void setUp() {
+            SecurityUtils.runAs("greg", "turnquist", "ROLE_USER");
+        }
+
+        @TearDown
+        public void tearDown() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Pages of 20 among 1,000,000 employees: the first and the 10,000th page of {@link EmployeeRepository#findAll}, which
+ * skips the rows before it and counts all of them, and the slice of
+ * {@link EmployeeRepository#findByIdGreaterThanOrderByIdAsc} at the same depth. The query cache is off, and so is H2's
+ * reuse of the last result of a query, which would otherwise serve the same page again without reading it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PagingBenchmark {
+
+    private static final int EMPLOYEES = 1_000_000;
+    private static final int SIZE = 20;
+    private static final int DEEP_PAGE = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start("spring.jpa.properties.hibernate.cache.use_query_cache=false",
+            "spring.datasource.url=jdbc:h2:mem:paging;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=0");
+        this.employeeRepository = context.getBean(EmployeeRepository.class);
+
+        context.getBean(JdbcTemplate.class).update("insert into employee (id, first_name, last_name, title, version) "
+            + "select 1000000000 + x, 'Hobbit', 'No. ' || x, 'resident', 0 from system_range(1, ?)", EMPLOYEES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Employee> offsetFirstPage() {
+        return employeeRepository.findAll(new PageRequest(0, SIZE));
+    }
+
+    @Benchmark
+    public Page<Employee> offsetDeepPage() {
+        return employeeRepository.findAll(new PageRequest(DEEP_PAGE, SIZE));
+    }
+
+    @Benchmark
+    public Slice<Employee> seekDeepPage() {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(1_000_000_000L + DEEP_PAGE * SIZE,
+            new PageRequest(0, SIZE));
+    }
+}
@@ -0,0 +1,113 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.ratelimit.RateLimitFilter;
+import com.elementalsource.example.securitydatarest.ratelimit.RateLimitProperties;
+import com.elementalsource.example.securitydatarest.ratelimit.RateLimiter;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+/**
+ * {@link RateLimitFilter} on 64 threads, compared to the same request without it. The threads either share one
+ * principal, which is the worst case for contention on its buckets, or each have one of their own. The limits are high
+ * enough that every request is admitted.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(64)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    @Param({"1", "64"})
+    public int principals;
+
+    private final AtomicInteger threads = new AtomicInteger();
+    private RateLimitFilter filter;
+
+    @Setup
+    public void setUp() {
+
+        // as Applications.start does, the matchers log every request otherwise
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRoles().put("USER", new RateLimitProperties.Limit(1e9, 1_000_000));
+        properties.setMaxConcurrentRequests(Integer.MAX_VALUE);
+
+        this.filter = new RateLimitFilter(new RateLimiter(properties, new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public int unlimited(Caller caller) throws IOException, ServletException {
+
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain().doFilter(request, response);
+
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int rateLimited(Caller caller) throws IOException, ServletException {
+
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request() {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.setServletPath("/items/1");
+        // as WebAsyncManagerIntegrationFilter does at the start of the security filter chain
+        WebAsyncUtils.getAsyncManager(request);
+
+        return request;
+    }
+
+    /**
+     * The principal of a benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+
+        @Setup
+        public void setUp(RateLimitBenchmark benchmark) {
+            SecurityUtils.runAs("user-" + benchmark.threads.getAndIncrement() % benchmark.principals, "password",
+                "ROLE_USER");
+        }
+
+        @TearDown
+        public void tearDown() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PostFilter;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * The first page of the items a user may see, and their total, among 1,000,000 items assigned to 1,000 users. Pushed
+ * down, the row-level security restricts the queries, which read the user's rows through the index on the owner. Not
+ * pushed down, all items are loaded and filtered by a {@code @PostFilter} expression, the way method security
+ * restricts results. The query cache is turned off, so every call reads from the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class RowLevelSecurityBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int OWNERS = 1_000;
+    private static final Pageable PAGE = new PageRequest(0, 20);
+
+    @Param({"true", "false"})
+    public boolean pushedDown;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private AllItems allItems;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start("app.security.row-level.enabled=" + pushedDown,
+            "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        this.itemRepository = context.getBean(ItemRepository.class);
+
+        context.getBean(JdbcTemplate.class).update("insert into item (id, description, owner, version) "
+            + "select 1000000000 + x, 'Item ' || x, 'user' || mod(x, ?), 0 from system_range(1, ?)", OWNERS, ROWS);
+
+        ProxyFactory proxyFactory = new ProxyFactory(AllItems.class,
+            context.getBean("methodSecurityInterceptor", MethodInterceptor.class));
+        proxyFactory.setTarget((AllItems) () -> (List<Item>) itemRepository.findAll());
+
+        this.allItems = (AllItems) proxyFactory.getProxy();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Item> firstPage(Caller caller) {
+
+        if (pushedDown) {
+            return itemRepository.findAll(PAGE);
+        }
+
+        List<Item> visible = allItems.findAll();
+
+        return new PageImpl<>(visible.subList(0, Math.min(PAGE.getPageSize(), visible.size())), PAGE, visible.size());
+    }
+
+    /**
+     * All items, filtered by method security after they were loaded.
+     */
+    public interface AllItems {
+
+        @PostFilter("filterObject.owner == null or filterObject.owner == authentication.name")
+        List<Item> findAll();
+    }
+
+    /**
+     * The user calling the item repository, set up on each benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+
+        @Setup
+        public void setUp() {
+            SecurityUtils.runAs("user7", "user7", "ROLE_USER");
+        }
+
+        @TearDown
+        public void tearDown() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
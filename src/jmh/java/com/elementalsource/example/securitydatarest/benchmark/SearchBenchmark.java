@@ -0,0 +1,126 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * The search methods of {@link EmployeeRepository} and {@link ItemRepository} among 1,000,000 employees and 1,000,000
+ * items, with random keys. Each last name is shared by 10 employees, which fit on the first page and need no count,
+ * while each title is shared by 1,000, which the title search counts for the page metadata. Without the indexes every
+ * search scans its table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int LAST_NAMES = 100_000;
+    private static final int TITLES = 1_000;
+    private static final Pageable PAGE = new PageRequest(0, 20);
+
+    @Param({"true", "false"})
+    public boolean indexes;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private ItemRepository itemRepository;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start();
+        this.employeeRepository = context.getBean(EmployeeRepository.class);
+        this.itemRepository = context.getBean(ItemRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        jdbcTemplate.update("insert into employee (id, first_name, last_name, title, version) "
+            + "select 1000000000 + x, 'Hobbit', 'Name ' || mod(x, ?), 'Title ' || mod(x, ?), 0 "
+            + "from system_range(1, ?)", LAST_NAMES, TITLES, ROWS);
+        jdbcTemplate.update("insert into item (id, description, version) "
+            + "select 1000000000 + x, 'Item ' || x, 0 from system_range(1, ?)", ROWS);
+
+        if (!indexes) {
+            jdbcTemplate.execute("drop index ix_employee_last_name");
+            jdbcTemplate.execute("drop index ix_employee_title");
+            jdbcTemplate.execute("drop index ix_item_description");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Employee> employeesByLastName() {
+        return employeeRepository.findByLastName("Name " + ThreadLocalRandom.current().nextInt(LAST_NAMES), PAGE);
+    }
+
+    @Benchmark
+    public Slice<Employee> employeesByLastNamePrefix() {
+        return employeeRepository.findByLastNameStartingWith(
+            "Name " + ThreadLocalRandom.current().nextInt(LAST_NAMES), PAGE);
+    }
+
+    @Benchmark
+    public Page<Employee> employeesByTitle() {
+        return employeeRepository.findByTitle("Title " + ThreadLocalRandom.current().nextInt(TITLES), PAGE);
+    }
+
+    @Benchmark
+    public Page<Item> itemsByDescription(Caller caller) {
+        return itemRepository.findByDescription("Item " + (1 + ThreadLocalRandom.current().nextInt(ROWS)), PAGE);
+    }
+
+    @Benchmark
+    public Slice<Item> itemsByDescriptionPrefix(Caller caller) {
+        return itemRepository.findByDescriptionStartingWith(
+            "Item " + (1 + ThreadLocalRandom.current().nextInt(ROWS)), PAGE);
+    }
+
+    /**
+     * The user calling the item repository, set up on each benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+
+        @Setup
+        public void setUp() {
+            SecurityUtils.runAs("greg", "turnquist", "ROLE_USER");
+        }
+
+        @TearDown
+        public void tearDown() {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.seeding.FixtureType;
+import com.elementalsource.example.securitydatarest.seeding.SeedingPipeline;
+import com.elementalsource.example.securitydatarest.seeding.SeedingProperties;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * {@link SeedingPipeline} writing a CSV fixture of 100,000 employees with one and four threads. Every iteration seeds
+ * a fixture of its own, as seeded fixtures are skipped.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SeedingBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private ConfigurableApplicationContext context;
+    private SeedingPipeline seedingPipeline;
+    private File csv;
+    private File copy;
+    private List<SeedingProperties.Fixture> fixtures;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        this.context = Applications.start("app.seeding.threads=" + threads);
+        this.seedingPipeline = context.getBean(SeedingPipeline.class);
+
+        this.csv = File.createTempFile("employees", ".csv");
+        try (PrintWriter out = new PrintWriter(csv, StandardCharsets.UTF_8.name())) {
+
+            out.println("firstName,lastName,title");
+            for (int i = 0; i < ROWS; i++) {
+                out.println("Hobbit,No. " + i + ",resident of the Shire");
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void copyFixture() throws IOException {
+
+        this.copy = File.createTempFile("employees", ".csv");
+        Files.copy(csv.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        SeedingProperties.Fixture fixture = new SeedingProperties.Fixture();
+        fixture.setType(FixtureType.EMPLOYEE);
+        fixture.setLocation(copy.toURI().toString());
+
+        this.fixtures = Collections.singletonList(fixture);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCopy() {
+        copy.delete();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        csv.delete();
+    }
+
+    @Benchmark
+    public void seed() {
+        seedingPipeline.seed(fixtures);
+    }
+}
@@ -0,0 +1,97 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.security.TokenService;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.FilterChainProxy;
+
+/**
+ * Authentication cost per request through the Spring Security filter chain: HTTP Basic, which verifies the credentials
+ * every time with the authentication cache disabled, against a bearer token of the {@link TokenService}.
+ * {@link #bcryptVerification()} is the cost a BCrypt password hash adds to every Basic verification.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class TokenAuthenticationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private FilterChainProxy filterChain;
+    private String basic;
+    private String bearer;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String passwordHash;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start("app.security.authentication-cache.enabled=false");
+        this.filterChain = context.getBean(FilterChainProxy.class);
+
+        this.basic = "Basic " + Base64.getEncoder().encodeToString("greg:turnquist".getBytes(StandardCharsets.UTF_8));
+        this.bearer = "Bearer " + context.getBean(TokenService.class).issue(new UsernamePasswordAuthenticationToken(
+            "greg", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHash = passwordEncoder.encode("turnquist");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int basicAuthentication() throws IOException, ServletException {
+        return authenticate(basic);
+    }
+
+    @Benchmark
+    public int bearerToken() throws IOException, ServletException {
+        return authenticate(bearer);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean bcryptVerification() {
+        return passwordEncoder.matches("turnquist", passwordHash);
+    }
+
+    private int authenticate(String authorization) throws IOException, ServletException {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.setServletPath("/items/1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChain.doFilter(request, response, new MockFilterChain());
+
+        return response.getStatus();
+    }
+}
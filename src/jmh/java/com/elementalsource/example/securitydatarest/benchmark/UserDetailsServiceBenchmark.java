@@ -0,0 +1,73 @@
+package com.elementalsource.example.securitydatarest.benchmark;
+
+import com.elementalsource.example.securitydatarest.security.JpaUserDetailsService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * {@link JpaUserDetailsService#loadUserByUsername(String)} with 1,000 and 1,000,000 stored users. {@code hotUser} asks
+ * for the same user over and over, which is answered by the natural id and entity caches; {@code anyUser} picks users
+ * at random, which mostly misses the caches and goes through the unique index on the username.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class UserDetailsServiceBenchmark {
+
+    // well above the ids handed out by user_account_seq
+    private static final long FIRST_ID = 1_000_000_000L;
+
+    @Param({"1000", "1000000"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private JpaUserDetailsService userDetailsService;
+
+    @Setup
+    public void setUp() {
+
+        this.context = Applications.start();
+        this.userDetailsService = context.getBean(JpaUserDetailsService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String password = userDetailsService.loadUserByUsername("greg").getPassword();
+
+        jdbcTemplate.update("insert into user_account (id, username, password, enabled, version) "
+            + "select ? + x, 'user' || x, ?, true, 0 from system_range(0, ?)", FIRST_ID, password, users - 1);
+        jdbcTemplate.update("insert into user_account_role (user_account_id, role) "
+            + "select ? + x, 'USER' from system_range(0, ?)", FIRST_ID, users - 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails hotUser() {
+        return userDetailsService.loadUserByUsername("user0");
+    }
+
+    @Benchmark
+    public UserDetails anyUser() {
+        return userDetailsService.loadUserByUsername("user" + ThreadLocalRandom.current().nextInt(users));
+    }
+}
@@ -0,0 +1,22 @@
+package com.elementalsource.example.securitydatarest.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sets up the {@link ConcurrencyLimiter}, only if {@code app.admission.enabled} is set. Its filter is added to the
+ * security filter chain by {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.admission", name = "enabled")
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfiguration {
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,130 @@
+package com.elementalsource.example.securitydatarest.admission;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admits requests to the repositories through the {@link ConcurrencyLimiter}, in the priority lane if the principal has
+ * the priority role. Requests beyond the limit are answered with 503 Service Unavailable and a {@code Retry-After}
+ * header right away, instead of waiting for a thread of the servlet container.
+ * <p>
+ * Runs in the Spring Security filter chain once the request is authenticated and passed the rate limits, and before
+ * the URL rules are checked. Asynchronous requests count as in progress until they complete.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    // in seconds, the least the header can express: ten windows by default, so the limit has adapted by then
+    private static final String RETRY_AFTER = "1";
+
+    private final ConcurrencyLimiter limiter;
+    private final RequestMatcher limited;
+    private final String priorityAuthority;
+
+    public AdmissionFilter(ConcurrencyLimiter limiter, AdmissionProperties properties) {
+
+        List<RequestMatcher> paths = properties.getPaths().stream().
+            map(AntPathRequestMatcher::new).
+            collect(Collectors.toList());
+
+        this.limiter = limiter;
+        this.limited = new OrRequestMatcher(paths);
+        this.priorityAuthority = "ROLE_" + properties.getPriorityRole();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.filter.OncePerRequestFilter#shouldNotFilter(javax.servlet.http.HttpServletRequest)
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limited.matches(request);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire(isPriority());
+
+        if (permit == null) {
+
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(permit));
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private boolean isPriority() {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null) {
+            return false;
+        }
+
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (priorityAuthority.equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases the permit once an asynchronous request completes, which it also does after an error or timeout.
+     */
+    private static class ReleasingListener implements AsyncListener {
+
+        private final ConcurrencyLimiter.Permit permit;
+
+        ReleasingListener(ConcurrencyLimiter.Permit permit) {
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {}
+
+        @Override
+        public void onError(AsyncEvent event) {}
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+}
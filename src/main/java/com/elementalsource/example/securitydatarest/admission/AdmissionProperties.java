@@ -0,0 +1,65 @@
+package com.elementalsource.example.securitydatarest.admission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the adaptive concurrency limit, see {@link ConcurrencyLimiter}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    /**
+     * Whether requests beyond the concurrency limit are shed.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Ant patterns of the requests that are limited, the resources of the repositories by default.
+     */
+    private List<String> paths = new ArrayList<>(Arrays.asList("/employees/**", "/items/**", "/users/**"));
+
+    /**
+     * Role, without the {@code ROLE_} prefix, whose requests may take the share of the limit reserved for them.
+     */
+    private String priorityRole = "ADMIN";
+
+    /**
+     * Share of the limit only requests of the priority role may take.
+     */
+    private double priorityShare = 0.2;
+
+    /**
+     * Number of requests in progress before the limiter has seen any latency.
+     */
+    private int initialLimit = 20;
+
+    /**
+     * Lowest limit, however much the latency grows.
+     */
+    private int minLimit = 4;
+
+    /**
+     * Highest limit, no more than the threads of the servlet container.
+     */
+    private int maxLimit = 200;
+
+    /**
+     * Milliseconds of latency samples the limit is adjusted to at once.
+     */
+    private long window = 100;
+
+    /**
+     * How many times the usual latency a window may take before the limit is lowered.
+     */
+    private double latencyTolerance = 1.5;
+
+    /**
+     * Weight of each window when the limit is raised, so it grows gradually.
+     */
+    private double smoothing = 0.2;
+}
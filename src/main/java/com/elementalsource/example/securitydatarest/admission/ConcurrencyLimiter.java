@@ -0,0 +1,190 @@
+package com.elementalsource.example.securitydatarest.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.util.Assert;
+
+/**
+ * Limits the number of requests in progress to what the application serves without queueing, learned from their
+ * latency.
+ * <p>
+ * The latency of the admitted requests is averaged per window and compared to the usual latency, which falls to any
+ * faster window and otherwise rises slowly. Once a window takes longer than the tolerance allows, the limit is cut by
+ * the ratio of the two, at most by half. Otherwise it grows by its square root, smoothed, as long as the requests in
+ * progress came near the limit. This is the gradient algorithm of Netflix' concurrency limits. Requests of the
+ * priority lane may take the whole limit, all others leave a share of it to them. Admitting a request is a single
+ * increment, and the thread completing the first request of a new window adjusts the limit.
+ * <p>
+ * The limit is published as {@value #LIMIT_METRIC}, the requests in progress as {@value #IN_FLIGHT_METRIC}, and
+ * rejections are counted as {@value #METRIC}, tagged with the {@code lane}.
+ */
+public class ConcurrencyLimiter {
+
+    static final String METRIC = "admission.rejected";
+    static final String LIMIT_METRIC = "admission.limit";
+    static final String IN_FLIGHT_METRIC = "admission.in.flight";
+
+    // fewer say little about the latency
+    private static final int MIN_SAMPLES = 10;
+    // the usual latency rises by this fraction of the difference per slower window
+    private static final int BASELINE_WINDOWS = 100;
+    private static final double MAX_DECREASE = 0.5;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder latencies = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final AtomicLong nextUpdate;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long window;
+    private final double latencyTolerance;
+    private final double smoothing;
+    private final double priorityShare;
+    private final Counter rejected;
+    private final Counter priorityRejected;
+
+    private volatile double estimate;
+    private volatile double usualLatency;
+    private volatile int limit;
+
+    public ConcurrencyLimiter(AdmissionProperties properties, MeterRegistry registry) {
+
+        Assert.isTrue(properties.getMinLimit() > 0, "Minimum limit must be positive!");
+        Assert.isTrue(properties.getMinLimit() <= properties.getInitialLimit()
+            && properties.getInitialLimit() <= properties.getMaxLimit(),
+            "Initial limit must be between the minimum and maximum limit!");
+        Assert.isTrue(properties.getLatencyTolerance() >= 1, "Latency tolerance must be at least 1!");
+        Assert.isTrue(properties.getPriorityShare() >= 0 && properties.getPriorityShare() < 1,
+            "Priority share must be at least 0 and less than 1!");
+
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.window = TimeUnit.MILLISECONDS.toNanos(properties.getWindow());
+        this.latencyTolerance = properties.getLatencyTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.priorityShare = properties.getPriorityShare();
+        this.estimate = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+        this.nextUpdate = new AtomicLong(System.nanoTime() + window);
+
+        this.rejected = registry.counter(METRIC, "lane", "standard");
+        this.priorityRejected = registry.counter(METRIC, "lane", "priority");
+
+        registry.gauge(LIMIT_METRIC, this, ConcurrencyLimiter::getLimit);
+        registry.gauge(IN_FLIGHT_METRIC, this, ConcurrencyLimiter::getInFlight);
+    }
+
+    /**
+     * Admits a request if the requests in progress stay within the limit of its lane. An admitted request must be
+     * {@link Permit#release() released} once it completes.
+     *
+     * @param priority whether the request is in the priority lane.
+     * @return the permit of the admitted request, or {@literal null} if it is to be shed.
+     */
+    public Permit tryAcquire(boolean priority) {
+
+        int current = this.limit;
+        int allowed = priority ? current : current - (int) Math.round(current * priorityShare);
+        int requests = inFlight.incrementAndGet();
+
+        if (requests > allowed) {
+
+            inFlight.decrementAndGet();
+            (priority ? priorityRejected : rejected).increment();
+            return null;
+        }
+
+        if (requests > peakInFlight.get()) {
+            peakInFlight.accumulateAndGet(requests, Math::max);
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    /**
+     * @return the number of requests which may be in progress at once.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of requests in progress.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void completed(long start) {
+
+        long now = System.nanoTime();
+
+        inFlight.decrementAndGet();
+        latencies.add(now - start);
+        samples.increment();
+
+        long next = nextUpdate.get();
+
+        if (now - next >= 0 && nextUpdate.compareAndSet(next, now + window)) {
+            update();
+        }
+    }
+
+    /**
+     * Adjusts the limit to the latency of the window that just ended, unless it has too few samples, which are then
+     * left for the next one.
+     */
+    private void update() {
+
+        if (samples.sum() < MIN_SAMPLES) {
+            return;
+        }
+
+        long count = samples.sumThenReset();
+        double latency = (double) latencies.sumThenReset() / count;
+        int peak = peakInFlight.getAndSet(inFlight.get());
+
+        double usual = usualLatency;
+        usual = usual == 0 || latency < usual ? latency : usual + (latency - usual) / BASELINE_WINDOWS;
+        this.usualLatency = usual;
+
+        double current = estimate;
+        double gradient = Math.max(MAX_DECREASE, Math.min(1.0, latencyTolerance * usual / latency));
+        double next = gradient < 1 ? current * gradient : current + Math.sqrt(current);
+
+        if (next > current) {
+
+            if (peak < current / 2) {
+                // too few requests to tell whether more would still be served without queueing
+                return;
+            }
+            next = current + (next - current) * smoothing;
+        }
+
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, next));
+        this.limit = (int) this.estimate;
+    }
+
+    /**
+     * An admitted request, which is timed until it is released.
+     */
+    public final class Permit {
+
+        private final long start;
+
+        private Permit(long start) {
+            this.start = start;
+        }
+
+        /**
+         * Ends the request, exactly once.
+         */
+        public void release() {
+            completed(start);
+        }
+    }
+}
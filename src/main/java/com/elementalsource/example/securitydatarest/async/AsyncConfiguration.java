@@ -0,0 +1,55 @@
+package com.elementalsource.example.securitydatarest.async;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Sets up the executor of {@link AsyncRepositoryController}, only if {@code app.async.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.async", name = "enabled")
+@EnableConfigurationProperties(AsyncProperties.class)
+public class AsyncConfiguration {
+
+    /**
+     * A bounded pool by default. Once its queue is full, the servlet threads run the repository calls themselves, so
+     * overload degrades to the synchronous behaviour instead of failing requests.
+     */
+    @Bean
+    public AsyncTaskExecutor repositoryExecutor(AsyncProperties properties) {
+
+        if (properties.isVirtualThreads()) {
+            return new TaskExecutorAdapter(virtualThreadPerTaskExecutor());
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("repository-");
+
+        return executor;
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()} reflectively, as the code is compiled for Java 8.
+     */
+    private static ExecutorService virtualThreadPerTaskExecutor() {
+
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("app.async.virtual-threads requires JDK 21 or newer, running on "
+                + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.elementalsource.example.securitydatarest.async;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the asynchronous execution of repository calls, see {@link AsyncRepositoryController}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.async")
+public class AsyncProperties {
+
+    /**
+     * Whether reads of employees and items run on the repository executor instead of the servlet threads.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of threads of the repository executor. More than the maximum of the connection pool only adds waiting.
+     */
+    private int poolSize = 20;
+
+    /**
+     * Number of repository calls waiting for a thread before the servlet threads run them themselves.
+     */
+    private int queueCapacity = 1_000;
+
+    /**
+     * How long a request may take in milliseconds before it is answered with 503 Service Unavailable.
+     */
+    private long timeout = 30_000;
+
+    /**
+     * Whether to run every repository call on its own virtual thread instead of the pool, which requires JDK 21 or
+     * newer. The connection pool then is the only bound.
+     */
+    private boolean virtualThreads = false;
+}
@@ -0,0 +1,174 @@
+package com.elementalsource.example.securitydatarest.async;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import java.util.concurrent.Callable;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.core.mapping.ResourceMetadata;
+import org.springframework.data.rest.core.mapping.SearchResourceMappings;
+import org.springframework.data.rest.webmvc.HttpHeadersPreparer;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.ProfileController;
+import org.springframework.data.rest.webmvc.ProfileResourceProcessor;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.data.rest.webmvc.support.DefaultedPageable;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+/**
+ * Takes over the collection and item resources of employees and items from Spring Data REST, only if
+ * {@code app.async.enabled} is set, and reads them on the repository executor of {@link AsyncConfiguration}. The
+ * servlet thread is returned to the container while the repository waits for the database, and a container thread
+ * renders the response once the entities are there.
+ * <p>
+ * The {@link org.springframework.security.core.context.SecurityContext} of the caller is carried over to the executor
+ * by the {@link org.springframework.security.web.context.request.async.WebAsyncManagerIntegrationFilter} of Spring
+ * Security, so the method-level security of {@link ItemRepository} applies as before. The responses are the same as
+ * those of Spring Data REST, including links, ETag and Last-Modified headers.
+ */
+@RepositoryRestController
+@ConditionalOnProperty(prefix = "app.async", name = "enabled")
+public class AsyncRepositoryController {
+
+    private final EmployeeRepository employeeRepository;
+    private final ItemRepository itemRepository;
+    private final AsyncTaskExecutor executor;
+    private final AsyncProperties properties;
+    private final RepositoryRestConfiguration config;
+    private final ResourceMappings mappings;
+    private final PersistentEntities entities;
+    private final RepositoryEntityLinks entityLinks;
+    private final PagedResourcesAssembler<Object> pagedResourcesAssembler;
+    private final HttpHeadersPreparer headersPreparer;
+
+    @Autowired
+    public AsyncRepositoryController(EmployeeRepository employeeRepository, ItemRepository itemRepository,
+        AsyncTaskExecutor repositoryExecutor, AsyncProperties properties, RepositoryRestConfiguration config,
+        ResourceMappings mappings, PersistentEntities entities, RepositoryEntityLinks entityLinks,
+        PagedResourcesAssembler<Object> pagedResourcesAssembler, HttpHeadersPreparer headersPreparer) {
+
+        this.employeeRepository = employeeRepository;
+        this.itemRepository = itemRepository;
+        this.executor = repositoryExecutor;
+        this.properties = properties;
+        this.config = config;
+        this.mappings = mappings;
+        this.entities = entities;
+        this.entityLinks = entityLinks;
+        this.pagedResourcesAssembler = pagedResourcesAssembler;
+        this.headersPreparer = headersPreparer;
+    }
+
+    @GetMapping("/employees")
+    public WebAsyncTask<ResponseEntity<Resources<?>>> employees(DefaultedPageable pageable,
+        PersistentEntityResourceAssembler assembler, HttpServletRequest request) {
+
+        return submit(request,
+            () -> collection(Employee.class, employeeRepository.findAll(pageable.getPageable()), pageable, assembler));
+    }
+
+    @GetMapping("/employees/{id}")
+    public WebAsyncTask<ResponseEntity<Resource<?>>> employee(@PathVariable Long id,
+        PersistentEntityResourceAssembler assembler, @RequestHeader HttpHeaders headers, HttpServletRequest request) {
+
+        return submit(request, () -> item(Employee.class, employeeRepository.findOne(id), assembler, headers));
+    }
+
+    @GetMapping("/items")
+    public WebAsyncTask<ResponseEntity<Resources<?>>> items(DefaultedPageable pageable,
+        PersistentEntityResourceAssembler assembler, HttpServletRequest request) {
+
+        return submit(request,
+            () -> collection(Item.class, itemRepository.findAll(pageable.getPageable()), pageable, assembler));
+    }
+
+    @GetMapping("/items/{id}")
+    public WebAsyncTask<ResponseEntity<Resource<?>>> item(@PathVariable Long id,
+        PersistentEntityResourceAssembler assembler, @RequestHeader HttpHeaders headers, HttpServletRequest request) {
+
+        return submit(request, () -> item(Item.class, itemRepository.findOne(id), assembler, headers));
+    }
+
+    /**
+     * Runs the given task on the repository executor. Links are built from the current request, so it is made
+     * available to the executor thread as well.
+     */
+    private <T> WebAsyncTask<T> submit(HttpServletRequest request, Callable<T> task) {
+
+        return new WebAsyncTask<>(properties.getTimeout(), executor, () -> {
+
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+            try {
+                return task.call();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+    }
+
+    /**
+     * Renders a page like {@code RepositoryEntityController#getCollectionResource} of Spring Data REST.
+     */
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<Resources<?>> collection(Class<?> type, Page<?> page, DefaultedPageable pageable,
+        PersistentEntityResourceAssembler assembler) {
+
+        Link baseLink = entityLinks.linkToPagedResource(type, pageable.isDefault() ? null : pageable.getPageable());
+
+        Resources<?> resources = page.getContent().isEmpty()
+            ? pagedResourcesAssembler.toEmptyResource((Page<Object>) page, type, baseLink)
+            : pagedResourcesAssembler.toResource((Page<Object>) page, assembler, baseLink);
+
+        ResourceMetadata metadata = mappings.getMetadataFor(type);
+        SearchResourceMappings searchMappings = metadata.getSearchResourceMappings();
+
+        resources.add(new Link(ProfileController.getPath(config, metadata), ProfileResourceProcessor.PROFILE_REL));
+
+        if (searchMappings.isExported()) {
+            resources.add(entityLinks.linkFor(type).slash(searchMappings.getPath()).withRel(searchMappings.getRel()));
+        }
+
+        return ResponseEntity.ok(resources);
+    }
+
+    /**
+     * Renders an entity like {@code RepositoryEntityController#getItemResource} of Spring Data REST.
+     */
+    private ResponseEntity<Resource<?>> item(Class<?> type, Object entity, PersistentEntityResourceAssembler assembler,
+        HttpHeaders requestHeaders) {
+
+        if (entity == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        HttpHeaders headers = headersPreparer.prepareHeaders(entities.getPersistentEntity(type), entity);
+
+        if (headersPreparer.isObjectStillValid(entity, requestHeaders)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        return new ResponseEntity<>(assembler.toFullResource(entity), headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,36 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import javax.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Sets up the {@link AuditLog} and what records into it, only if {@code app.audit.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.audit", name = "enabled")
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfiguration {
+
+    @Bean
+    public AuditLog auditLog(AuditProperties properties, Jackson2ObjectMapperBuilder objectMapperBuilder,
+        MeterRegistry meterRegistry) throws IOException {
+
+        return new AuditLog(properties, objectMapperBuilder.build().writerFor(AuditEvent.class), meterRegistry);
+    }
+
+    @Bean
+    public AuditEventListener auditEventListener(AuditLog auditLog, EntityManagerFactory entityManagerFactory) {
+        return new AuditEventListener(auditLog, entityManagerFactory.getPersistenceUnitUtil());
+    }
+
+    @Bean
+    public ItemRepositoryAuditAspect itemRepositoryAuditAspect(AuditLog auditLog) {
+        return new ItemRepositoryAuditAspect(auditLog);
+    }
+}
@@ -0,0 +1,31 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import lombok.Value;
+
+/**
+ * One line of the audit log: who did what to which target, and when.
+ */
+@Value
+public class AuditEvent {
+
+    /**
+     * Milliseconds since the epoch.
+     */
+    long timestamp;
+
+    /**
+     * Name of the authenticated principal, {@literal null} if there is none.
+     */
+    String principal;
+
+    Action action;
+
+    /**
+     * The entity as {@code Type#id}, the request as {@code METHOD /path} or the method as {@code Type.method}.
+     */
+    String target;
+
+    public enum Action {
+        CREATE, SAVE, DELETE, DENIED
+    }
+}
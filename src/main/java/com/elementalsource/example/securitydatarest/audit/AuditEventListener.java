@@ -0,0 +1,79 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import com.elementalsource.example.securitydatarest.model.Item;
+import javax.persistence.PersistenceUnitUtil;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.event.AfterCreateEvent;
+import org.springframework.data.rest.core.event.AfterDeleteEvent;
+import org.springframework.data.rest.core.event.AfterSaveEvent;
+import org.springframework.security.access.event.AuthorizationFailureEvent;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records the entities created, updated and deleted through Spring Data REST, and the access denied by the URL rules
+ * and the method-level security.
+ * <p>
+ * Items are left to the {@link ItemRepositoryAuditAspect}, which records every change made through their repository,
+ * over HTTP or not.
+ */
+public class AuditEventListener {
+
+    private final AuditLog auditLog;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    public AuditEventListener(AuditLog auditLog, PersistenceUnitUtil persistenceUnitUtil) {
+
+        this.auditLog = auditLog;
+        this.persistenceUnitUtil = persistenceUnitUtil;
+    }
+
+    @EventListener
+    public void created(AfterCreateEvent event) {
+        record(AuditEvent.Action.CREATE, event.getSource());
+    }
+
+    @EventListener
+    public void saved(AfterSaveEvent event) {
+        record(AuditEvent.Action.SAVE, event.getSource());
+    }
+
+    @EventListener
+    public void deleted(AfterDeleteEvent event) {
+        record(AuditEvent.Action.DELETE, event.getSource());
+    }
+
+    @EventListener
+    public void denied(AuthorizationFailureEvent event) {
+
+        Object secured = event.getSource();
+        String target;
+
+        if (secured instanceof FilterInvocation) {
+
+            FilterInvocation invocation = (FilterInvocation) secured;
+            target = invocation.getRequest().getMethod() + " " + invocation.getRequestUrl();
+
+        } else if (secured instanceof MethodInvocation) {
+
+            MethodInvocation invocation = (MethodInvocation) secured;
+            target = invocation.getMethod().getDeclaringClass().getSimpleName() + "."
+                + invocation.getMethod().getName();
+
+        } else {
+            target = String.valueOf(secured);
+        }
+
+        auditLog.record(new AuditEvent(event.getTimestamp(), event.getAuthentication().getName(),
+            AuditEvent.Action.DENIED, target));
+    }
+
+    private void record(AuditEvent.Action action, Object entity) {
+
+        if (!(entity instanceof Item)) {
+            auditLog.record(action,
+                ClassUtils.getUserClass(entity).getSimpleName() + "#" + persistenceUnitUtil.getIdentifier(entity));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Drains the {@link RingBuffer} of the {@link AuditLog} on a thread of its own, and appends the events to the file in
+ * batches of one write each. Waits a millisecond whenever the buffer is empty. Batches which cannot be written are
+ * logged and counted, so a full disk stops the audit log but not the requests.
+ */
+class AuditFileWriter implements Runnable {
+
+    private static final Log log = LogFactory.getLog(AuditFileWriter.class);
+
+    private static final long IDLE = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final RingBuffer<AuditEvent> buffer;
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final ObjectWriter writer;
+    private final int batchSize;
+    private final AuditProperties.Fsync fsync;
+    private final long fsyncInterval;
+    private final Counter written;
+    private final Counter failed;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+
+    private volatile boolean stopping;
+    private long lastForce = System.nanoTime();
+    private boolean unforced;
+
+    AuditFileWriter(RingBuffer<AuditEvent> buffer, FileChannel channel, ObjectWriter writer,
+        AuditProperties properties, Counter written, Counter failed) {
+
+        this.buffer = buffer;
+        this.channel = channel;
+        this.out = Channels.newOutputStream(channel);
+        this.writer = writer;
+        this.batchSize = properties.getBatchSize();
+        this.fsync = properties.getFsync();
+        this.fsyncInterval = TimeUnit.MILLISECONDS.toNanos(properties.getFsyncInterval());
+        this.written = written;
+        this.failed = failed;
+    }
+
+    /**
+     * Makes the writer write what is buffered, then close the file and return.
+     */
+    void stop() {
+        stopping = true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run() {
+
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+
+        try {
+            while (true) {
+
+                // read before draining, so everything buffered before stop() is written
+                boolean stop = stopping;
+
+                if (buffer.drainTo(batch, batchSize) > 0) {
+
+                    write(batch);
+                    batch.clear();
+
+                } else if (stop) {
+                    break;
+                } else {
+
+                    forceIfDue();
+                    LockSupport.parkNanos(this, IDLE);
+                }
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+
+        try {
+            bytes.reset();
+
+            for (AuditEvent event : batch) {
+                bytes.write(writer.writeValueAsBytes(event));
+                bytes.write('\n');
+            }
+
+            bytes.writeTo(out);
+            written.increment(batch.size());
+
+            unforced = true;
+            if (fsync == AuditProperties.Fsync.BATCH) {
+                force();
+            } else {
+                forceIfDue();
+            }
+        } catch (IOException e) {
+
+            failed.increment(batch.size());
+            log.error("Cannot write " + batch.size() + " audit events", e);
+        }
+    }
+
+    private void forceIfDue() {
+
+        if (unforced && fsync == AuditProperties.Fsync.INTERVAL && System.nanoTime() - lastForce >= fsyncInterval) {
+            try {
+                force();
+            } catch (IOException e) {
+                log.error("Cannot force audit events to the disk", e);
+            }
+        }
+    }
+
+    private void force() throws IOException {
+
+        channel.force(false);
+
+        lastForce = System.nanoTime();
+        unforced = false;
+    }
+
+    private void close() {
+
+        try {
+            if (unforced && fsync != AuditProperties.Fsync.NEVER) {
+                force();
+            }
+            channel.close();
+        } catch (IOException e) {
+            log.error("Cannot close the audit log", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Append-only audit log, written in the background.
+ * <p>
+ * Recording an event only puts it into a bounded, lock-free {@link RingBuffer}, from which an
+ * {@link AuditFileWriter} appends batches to the file, so requests never wait for the disk. What happens while the
+ * buffer is full is up to {@link AuditProperties#getBackpressure()}. Events are counted as {@value #METRIC}, tagged
+ * with whether they were {@literal written}, {@literal dropped} or {@literal failed} to be written.
+ */
+public class AuditLog implements DisposableBean {
+
+    static final String METRIC = "audit.events";
+
+    private static final long BLOCKED = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final RingBuffer<AuditEvent> buffer;
+    private final AuditProperties.Backpressure backpressure;
+    private final AuditFileWriter writer;
+    private final Thread thread;
+    private final Counter dropped;
+
+    private volatile boolean closed;
+
+    public AuditLog(AuditProperties properties, ObjectWriter writer, MeterRegistry registry) throws IOException {
+
+        Path file = Paths.get(properties.getFile()).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+
+        this.buffer = new RingBuffer<>(properties.getBufferSize());
+        this.backpressure = properties.getBackpressure();
+        this.dropped = registry.counter(METRIC, "result", "dropped");
+        this.writer = new AuditFileWriter(buffer,
+            FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND),
+            writer, properties, registry.counter(METRIC, "result", "written"),
+            registry.counter(METRIC, "result", "failed"));
+
+        this.thread = new Thread(this.writer, "audit-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Records an event of the current principal.
+     */
+    public void record(AuditEvent.Action action, String target) {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        record(new AuditEvent(System.currentTimeMillis(), authentication == null ? null : authentication.getName(),
+            action, target));
+    }
+
+    public void record(AuditEvent event) {
+
+        while (!closed) {
+
+            if (buffer.offer(event)) {
+                return;
+            }
+            if (backpressure == AuditProperties.Backpressure.DROP) {
+                break;
+            }
+            LockSupport.parkNanos(BLOCKED);
+        }
+
+        dropped.increment();
+    }
+
+    /**
+     * Writes the buffered events and closes the file. Events recorded afterwards are dropped.
+     *
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+
+        closed = true;
+        writer.stop();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
@@ -0,0 +1,79 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the audit log, see {@link AuditLog}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+    /**
+     * Whether data changes and denied access are recorded.
+     */
+    private boolean enabled = false;
+
+    /**
+     * File the events are appended to as newline-delimited JSON, created with its directory if missing.
+     */
+    private String file = "audit/audit.ndjson";
+
+    /**
+     * Number of events waiting to be written, rounded up to a power of two.
+     */
+    private int bufferSize = 8_192;
+
+    /**
+     * Maximum number of events written at once.
+     */
+    private int batchSize = 512;
+
+    /**
+     * What a request does while the buffer is full.
+     */
+    private Backpressure backpressure = Backpressure.DROP;
+
+    /**
+     * When written events are forced to the disk.
+     */
+    private Fsync fsync = Fsync.INTERVAL;
+
+    /**
+     * Milliseconds between forcing written events to the disk with {@link Fsync#INTERVAL}.
+     */
+    private long fsyncInterval = 1_000;
+
+    public enum Backpressure {
+
+        /**
+         * Drops the event and counts it, so requests never wait for the disk.
+         */
+        DROP,
+
+        /**
+         * Waits for the writer to make room, so no event is lost unless the file cannot be written.
+         */
+        BLOCK
+    }
+
+    public enum Fsync {
+
+        /**
+         * Leaves it to the operating system. Events are lost if the machine goes down.
+         */
+        NEVER,
+
+        /**
+         * After every batch. Nothing that was written is lost, at the cost of one flush to the disk per batch.
+         */
+        BATCH,
+
+        /**
+         * At most once per {@code fsync-interval}. Up to that many milliseconds of events are lost if the machine goes
+         * down.
+         */
+        INTERVAL
+    }
+}
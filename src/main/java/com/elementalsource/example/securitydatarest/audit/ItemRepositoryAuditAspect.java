@@ -0,0 +1,50 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import com.elementalsource.example.securitydatarest.model.Item;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Records the items saved and deleted through
+ * {@link com.elementalsource.example.securitydatarest.repository.ItemRepository}, by whoever calls it. Calls denied by
+ * the method-level security never return, and are recorded by the {@link AuditEventListener} instead.
+ */
+@Aspect
+public class ItemRepositoryAuditAspect {
+
+    private final AuditLog auditLog;
+
+    public ItemRepositoryAuditAspect(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @AfterReturning(pointcut = "this(com.elementalsource.example.securitydatarest.repository.ItemRepository) "
+        + "&& execution(* save(..))", returning = "saved")
+    public void saved(Object saved) {
+        record(AuditEvent.Action.SAVE, saved);
+    }
+
+    @AfterReturning("this(com.elementalsource.example.securitydatarest.repository.ItemRepository) "
+        + "&& execution(* delete(..)) && args(deleted)")
+    public void deleted(Object deleted) {
+        record(AuditEvent.Action.DELETE, deleted);
+    }
+
+    @AfterReturning("this(com.elementalsource.example.securitydatarest.repository.ItemRepository) "
+        + "&& execution(* deleteAll())")
+    public void deletedAll() {
+        auditLog.record(AuditEvent.Action.DELETE, "Item#*");
+    }
+
+    /**
+     * @param items an item, its id, or several of them.
+     */
+    private void record(AuditEvent.Action action, Object items) {
+
+        if (items instanceof Iterable) {
+            ((Iterable<?>) items).forEach(item -> record(action, item));
+        } else {
+            auditLog.record(action, "Item#" + (items instanceof Item ? ((Item) items).getId() : items));
+        }
+    }
+}
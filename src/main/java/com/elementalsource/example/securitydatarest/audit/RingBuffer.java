@@ -0,0 +1,98 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free queue for many producers and a single consumer.
+ * <p>
+ * Every slot carries a sequence number telling whose turn it is: a producer claims the slot at the tail with one
+ * compare-and-set once the consumer has freed it, and publishes its element by advancing the sequence. The consumer
+ * takes elements in order and frees their slots for the next round, without any atomic read-modify-write.
+ */
+class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // only read and written by the consumer
+    private long head;
+
+    /**
+     * @param capacity rounded up to the next power of two.
+     */
+    RingBuffer(int capacity) {
+
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds the element at the tail, by any thread.
+     *
+     * @return whether it was added, {@literal false} if the buffer is full.
+     */
+    boolean offer(E element) {
+
+        while (true) {
+
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+
+            if (sequence == position) {
+
+                if (tail.compareAndSet(position, position + 1)) {
+
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // the consumer has not freed the slot of the previous round yet
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code maximum} elements from the head to the given collection, by the consumer thread only.
+     *
+     * @return the number of elements moved.
+     */
+    int drainTo(Collection<? super E> target, int maximum) {
+
+        int drained = 0;
+
+        while (drained < maximum) {
+
+            int index = (int) head & mask;
+
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+
+            target.add(elements.get(index));
+            elements.lazySet(index, null);
+            sequences.lazySet(index, head + mask + 1);
+
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,65 @@
+package com.elementalsource.example.securitydatarest.bulk;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+/**
+ * Accepts arrays of employees or items and writes them in one transaction, instead of one request and one transaction
+ * per entity.
+ * <p>
+ * Posting employees requires ROLE_ADMIN through the URL rules of
+ * {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration}, posting items the method-level
+ * security of {@link com.elementalsource.example.securitydatarest.repository.ItemRepository}.
+ * <p>
+ * The entities are written through the repositories, not through Spring Data REST, so neither its repository events
+ * nor the validators and handlers listening to them see these writes; {@link BulkService} records them in the audit
+ * log instead. Arrays longer than {@link BulkProperties#getMaxEntities()} are answered with 413 Payload Too Large
+ * without writing anything, arrays naming an id that is not stored with 400 Bad Request.
+ */
+@RepositoryRestController
+public class BulkController {
+
+    private final BulkService bulkService;
+    private final int maxEntities;
+
+    @Autowired
+    public BulkController(BulkService bulkService, BulkProperties properties) {
+
+        this.bulkService = bulkService;
+        this.maxEntities = properties.getMaxEntities();
+    }
+
+    @PostMapping("/employees/bulk")
+    public ResponseEntity<Map<String, Integer>> saveEmployees(@RequestBody List<Employee> employees) {
+        return employees.size() > maxEntities ? tooLarge() : saved(bulkService.saveEmployees(employees));
+    }
+
+    @PostMapping("/items/bulk")
+    public ResponseEntity<Map<String, Integer>> saveItems(@RequestBody List<Item> items) {
+        return items.size() > maxEntities ? tooLarge() : saved(bulkService.saveItems(items));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Map<String, Object>> unknownId(UnknownIdException e) {
+        return ResponseEntity.badRequest().body(Collections.singletonMap("unknownId", e.getId()));
+    }
+
+    private static ResponseEntity<Map<String, Integer>> saved(int count) {
+        return ResponseEntity.ok(Collections.singletonMap("saved", count));
+    }
+
+    private ResponseEntity<Map<String, Integer>> tooLarge() {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).
+            body(Collections.singletonMap("maxEntities", maxEntities));
+    }
+}
@@ -0,0 +1,24 @@
+package com.elementalsource.example.securitydatarest.bulk;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the bulk endpoints, see {@link BulkController}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.bulk")
+public class BulkProperties {
+
+    /**
+     * Number of entities written per JDBC batch and flushed from the persistence context at once. Should match
+     * {@code hibernate.jdbc.batch_size}.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Number of entities one request may send, so a single request cannot hold a transaction open for arbitrarily
+     * long. Larger arrays are answered with 413 Payload Too Large.
+     */
+    private int maxEntities = 10_000;
+}
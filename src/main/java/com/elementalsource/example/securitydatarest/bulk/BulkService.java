@@ -0,0 +1,208 @@
+package com.elementalsource.example.securitydatarest.bulk;
+
+import com.elementalsource.example.securitydatarest.audit.AuditEvent;
+import com.elementalsource.example.securitydatarest.audit.AuditLog;
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.model.UserAccount;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.repository.UserAccountRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Inserts or updates many entities in a single transaction.
+ * <p>
+ * Entities are handed to the repositories in chunks of {@link BulkProperties#getBatchSize()}, each chunk is flushed as
+ * one JDBC batch and then evicted from the persistence context, so the cost per entity stays flat however many are
+ * sent at once.
+ * <p>
+ * Entities with an id update the stored ones. Those without a version get the version they are stored with first, so
+ * they overwrite the stored entity instead of being inserted as new ones, which is what Spring Data JPA does with an
+ * entity whose version is {@literal null}. An id that is not stored fails the whole request with an
+ * {@link UnknownIdException}.
+ * <p>
+ * As the writes bypass the events of Spring Data REST, the employees and user accounts written are recorded in the
+ * {@link AuditLog} here, one event per entity, if it is enabled. Items are recorded by the
+ * {@link com.elementalsource.example.securitydatarest.audit.ItemRepositoryAuditAspect}.
+ */
+@Service
+@EnableConfigurationProperties(BulkProperties.class)
+public class BulkService {
+
+    private final EmployeeRepository employeeRepository;
+    private final ItemRepository itemRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final BulkProperties properties;
+    private final AuditLog auditLog;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public BulkService(EmployeeRepository employeeRepository, ItemRepository itemRepository,
+        UserAccountRepository userAccountRepository, BulkProperties properties, ObjectProvider<AuditLog> auditLog) {
+
+        this.employeeRepository = employeeRepository;
+        this.itemRepository = itemRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.properties = properties;
+        this.auditLog = auditLog.getIfAvailable();
+    }
+
+    /**
+     * Inserts employees without id and updates the ones with an id.
+     *
+     * @return the number of employees written.
+     */
+    @Transactional
+    public int saveEmployees(List<Employee> employees) {
+        return saveInChunks(employees, employeeRepository::save, auditLog != null);
+    }
+
+    /**
+     * Inserts items without id and updates the ones with an id. Requires the privileges of
+     * {@link ItemRepository#save(Iterable)}, which are checked once per chunk rather than once per item.
+     *
+     * @return the number of items written.
+     */
+    @Transactional
+    public int saveItems(List<Item> items) {
+        return saveInChunks(items, itemRepository::save, false);
+    }
+
+    /**
+     * Inserts user accounts without id and updates the ones with an id. Passwords are stored as they are, so they must
+     * already be hashed.
+     *
+     * @return the number of user accounts written.
+     */
+    @Transactional
+    public int saveUserAccounts(List<UserAccount> userAccounts) {
+        return saveInChunks(userAccounts, userAccountRepository::save, auditLog != null);
+    }
+
+    private <T> int saveInChunks(List<T> entities, Function<List<T>, Iterable<T>> save, boolean audited) {
+
+        int batchSize = properties.getBatchSize();
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+        for (int from = 0; from < entities.size(); from += batchSize) {
+
+            List<T> chunk = entities.subList(from, Math.min(from + batchSize, entities.size()));
+            completeVersions(chunk, persistenceUnitUtil);
+
+            List<AuditEvent.Action> actions = audited ? actions(chunk, persistenceUnitUtil) : null;
+
+            Iterable<T> saved = save.apply(chunk);
+
+            entityManager.flush();
+
+            if (audited) {
+                record(actions, saved, persistenceUnitUtil);
+            }
+            entityManager.clear();
+        }
+
+        return entities.size();
+    }
+
+    /**
+     * Gives the entities with an id but no version the version they are stored with, reading those of a chunk in a
+     * single query.
+     *
+     * @throws UnknownIdException if an id is not stored.
+     */
+    private void completeVersions(List<?> chunk, PersistenceUnitUtil persistenceUnitUtil) {
+
+        Map<Object, BeanWrapper> identified = new HashMap<>();
+        EntityType<?> type = null;
+
+        for (Object entity : chunk) {
+
+            Object id = persistenceUnitUtil.getIdentifier(entity);
+
+            if (id != null) {
+                identified.put(id, PropertyAccessorFactory.forBeanPropertyAccess(entity));
+                type = entityManager.getMetamodel().entity(ClassUtils.getUserClass(entity));
+            }
+        }
+
+        if (type == null) {
+            return;
+        }
+
+        String id = type.getId(type.getIdType().getJavaType()).getName();
+        String version = type.getSingularAttributes().stream().
+            filter(SingularAttribute::isVersion).
+            findFirst().
+            map(SingularAttribute::getName).
+            orElse(null);
+
+        List<?> stored = entityManager.createQuery("select e." + id + (version == null ? "" : ", e." + version)
+            + " from " + type.getName() + " e where e." + id + " in :ids").
+            setParameter("ids", identified.keySet()).
+            getResultList();
+
+        Map<Object, Object> versions = new HashMap<>();
+        for (Object row : stored) {
+            if (version == null) {
+                versions.put(row, null);
+            } else {
+                versions.put(((Object[]) row)[0], ((Object[]) row)[1]);
+            }
+        }
+
+        for (Map.Entry<Object, BeanWrapper> entity : identified.entrySet()) {
+
+            if (!versions.containsKey(entity.getKey())) {
+                throw new UnknownIdException(type.getName(), entity.getKey());
+            }
+            if (version != null && entity.getValue().getPropertyValue(version) == null) {
+                entity.getValue().setPropertyValue(version, versions.get(entity.getKey()));
+            }
+        }
+    }
+
+    /**
+     * @return whether each of the entities is created or updated, which their ids no longer tell once they are saved.
+     */
+    private static List<AuditEvent.Action> actions(List<?> entities, PersistenceUnitUtil persistenceUnitUtil) {
+
+        List<AuditEvent.Action> actions = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            actions.add(persistenceUnitUtil.getIdentifier(entity) == null
+                ? AuditEvent.Action.CREATE
+                : AuditEvent.Action.SAVE);
+        }
+        return actions;
+    }
+
+    private void record(List<AuditEvent.Action> actions, Iterable<?> saved, PersistenceUnitUtil persistenceUnitUtil) {
+
+        Iterator<AuditEvent.Action> action = actions.iterator();
+
+        for (Object entity : saved) {
+            auditLog.record(action.next(),
+                ClassUtils.getUserClass(entity).getSimpleName() + "#" + persistenceUnitUtil.getIdentifier(entity));
+        }
+    }
+}
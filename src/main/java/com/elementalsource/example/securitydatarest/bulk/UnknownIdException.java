@@ -0,0 +1,23 @@
+package com.elementalsource.example.securitydatarest.bulk;
+
+/**
+ * Thrown when a bulk write names an entity by an id that is not stored, rolling back the whole request.
+ */
+@SuppressWarnings("serial")
+public class UnknownIdException extends RuntimeException {
+
+    private final Object id;
+
+    public UnknownIdException(String entityName, Object id) {
+
+        super("No " + entityName + " with id " + id);
+        this.id = id;
+    }
+
+    /**
+     * @return the id that is not stored.
+     */
+    public Object getId() {
+        return id;
+    }
+}
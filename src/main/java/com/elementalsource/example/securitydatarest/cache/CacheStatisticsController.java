@@ -0,0 +1,63 @@
+package com.elementalsource.example.securitydatarest.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposes the hit, miss and put counts of the Hibernate second-level and query caches.
+ * <p>
+ * Restricted to ROLE_ADMIN by the URL rules of
+ * {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration}.
+ */
+@RestController
+public class CacheStatisticsController {
+
+    private final Statistics statistics;
+
+    @Autowired
+    public CacheStatisticsController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> statistics() {
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+
+            SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(name);
+
+            regions.put(name, counts(region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                region.getElementCountInMemory()));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("regions", regions);
+        result.put("queries", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+            statistics.getQueryCachePutCount(), -1));
+
+        return result;
+    }
+
+    private static Map<String, Long> counts(long hits, long misses, long puts, long elements) {
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+
+        if (elements >= 0) {
+            counts.put("elementsInMemory", elements);
+        }
+
+        return counts;
+    }
+}
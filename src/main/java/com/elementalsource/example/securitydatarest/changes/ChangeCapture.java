@@ -0,0 +1,126 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import com.elementalsource.example.securitydatarest.model.Owned;
+import java.util.HashMap;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Publishes the changes of the given entities to the {@link ChangeFeed} once their transaction committed, however they
+ * were made. Changes rolled back are never published, neither are bulk updates and deletes of JPQL queries, which
+ * bypass the entities.
+ * <p>
+ * Registers itself with Hibernate as soon as the {@link EntityManagerFactory} is created, which is on first use with
+ * lazy initialization. The feed is only looked up with the first change, so with lazy initialization it is not created
+ * before it is needed either.
+ */
+public class ChangeCapture implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+    PostCommitDeleteEventListener, BeanPostProcessor {
+
+    private final transient ObjectFactory<ChangeFeed> changeFeedFactory;
+    private final Map<Class<?>, String> types = new HashMap<>();
+
+    private transient volatile ChangeFeed changeFeed;
+
+    public ChangeCapture(ObjectFactory<ChangeFeed> changeFeedFactory, Class<?>... types) {
+
+        this.changeFeedFactory = changeFeedFactory;
+
+        for (Class<?> type : types) {
+            this.types.put(type, type.getSimpleName());
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessBeforeInitialization(java.lang.Object, java.lang.String)
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessAfterInitialization(java.lang.Object, java.lang.String)
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (bean instanceof EntityManagerFactory) {
+
+            EventListenerRegistry registry = ((EntityManagerFactory) bean).unwrap(SessionFactoryImplementor.class).
+                getServiceRegistry().getService(EventListenerRegistry.class);
+
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        }
+        return bean;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.hibernate.event.spi.PostInsertEventListener#requiresPostCommitHanding(org.hibernate.persister.entity.EntityPersister)
+     */
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return types.containsKey(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity(), ChangeEvent.Action.CREATED);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity(), ChangeEvent.Action.UPDATED);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity(), ChangeEvent.Action.DELETED);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+    private void publish(EntityPersister persister, Object id, Object entity, ChangeEvent.Action action) {
+
+        String type = types.get(persister.getMappedClass());
+
+        if (type != null) {
+            changeFeed().publish(type, id, entity instanceof Owned ? ((Owned) entity).getOwner() : null, action);
+        }
+    }
+
+    private ChangeFeed changeFeed() {
+
+        ChangeFeed changeFeed = this.changeFeed;
+
+        if (changeFeed == null) {
+            changeFeed = changeFeedFactory.getObject();
+            this.changeFeed = changeFeed;
+        }
+        return changeFeed;
+    }
+}
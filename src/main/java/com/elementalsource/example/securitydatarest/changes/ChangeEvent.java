@@ -0,0 +1,41 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Value;
+
+/**
+ * A committed change of an entity, as streamed by the {@link ChangeFeed}.
+ */
+@Value
+public class ChangeEvent {
+
+    /**
+     * Increases with every change, and is the id of the event in the stream.
+     */
+    long sequence;
+
+    /**
+     * Milliseconds since the epoch.
+     */
+    long timestamp;
+
+    /**
+     * Simple name of the entity class, e.g. {@literal Employee}.
+     */
+    String type;
+
+    Object id;
+
+    /**
+     * The user the entity is assigned to, {@literal null} if it is assigned to no one. Only decides who sees the
+     * change, and is not streamed.
+     */
+    @JsonIgnore
+    String owner;
+
+    Action action;
+
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,362 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Streams committed changes to any number of subscribers.
+ * <p>
+ * Changes are appended to a {@link ChangeJournal}, and rendered as an {@link SseFrame} only once. A single dispatcher
+ * thread hands them to the subscribers, which are asynchronous requests holding no thread while they wait, so
+ * thousands of idle subscribers cost their connections and little else. Every subscriber has a queue of its own, which
+ * a small pool of writer threads drains, one writer per subscriber at a time, so a subscriber which stops reading only
+ * holds up a writer, never the dispatcher or the other subscribers. Once its queue is full, a subscriber gets no more
+ * changes from the dispatcher, and catches up from the journal as its queue drains, or is told to reset if the journal
+ * no longer has the changes it missed. New subscribers catch up the same way from their cursor. Subscribers are counted
+ * as {@value #METRIC}, and subscribers falling behind their queue as {@value #OVERFLOW_METRIC}.
+ */
+public class ChangeFeed implements DisposableBean {
+
+    static final String METRIC = "change.feed.subscribers";
+    static final String OVERFLOW_METRIC = "change.feed.overflows";
+
+    private static final int BATCH = 256;
+
+    private final ChangeJournal journal;
+    private final ObjectWriter writer;
+    private final long heartbeatInterval;
+    private final int queueSize;
+    private final Queue<Subscriber> subscriptions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger subscribers;
+    private final Counter overflows;
+    private final ExecutorService writers;
+    private final Thread dispatcher;
+
+    private volatile boolean closed;
+
+    public ChangeFeed(ChangeFeedProperties properties, ObjectWriter writer, MeterRegistry registry) {
+
+        Assert.isTrue(properties.getQueueSize() > 0, "Queue size must be positive!");
+
+        this.journal = new ChangeJournal(properties.getJournalSize());
+        this.writer = writer;
+        this.heartbeatInterval = TimeUnit.MILLISECONDS.toNanos(properties.getHeartbeatInterval());
+        this.queueSize = properties.getQueueSize();
+        this.subscribers = registry.gauge(METRIC, new AtomicInteger());
+        this.overflows = registry.counter(OVERFLOW_METRIC);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("change-feed-writer-");
+        threadFactory.setDaemon(true);
+        this.writers = Executors.newFixedThreadPool(properties.getWriters(), threadFactory);
+
+        this.dispatcher = new Thread(this::dispatch, "change-feed");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Publishes a committed change.
+     *
+     * @param owner the user the entity is assigned to, {@literal null} if it is assigned to no one.
+     */
+    public void publish(String type, Object id, String owner, ChangeEvent.Action action) {
+
+        journal.append(sequence -> {
+
+            ChangeEvent event = new ChangeEvent(sequence, System.currentTimeMillis(), type, id, owner, action);
+
+            try {
+                return SseFrame.change(event, writer.writeValueAsString(event));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not render " + event, e);
+            }
+        });
+
+        LockSupport.unpark(dispatcher);
+    }
+
+    /**
+     * Streams the changes the subscriber may see to the emitter, as server-sent events.
+     *
+     * @param after the sequence of the last change the subscriber has seen, {@literal null} to start with the next
+     * one.
+     * @param visible whether the subscriber may see a change, tested on the dispatcher thread.
+     */
+    public void subscribe(ResponseBodyEmitter emitter, Long after, Predicate<ChangeEvent> visible) {
+
+        Subscriber subscriber = new Subscriber(emitter, after == null ? journal.last() : after, visible);
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+
+        subscribers.incrementAndGet();
+        subscriptions.add(subscriber);
+        LockSupport.unpark(dispatcher);
+    }
+
+    /**
+     * Completes all subscriptions, so their clients reconnect to another instance.
+     *
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+
+        closed = true;
+        LockSupport.unpark(dispatcher);
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+
+        writers.shutdown();
+        writers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void dispatch() {
+
+        List<Subscriber> live = new ArrayList<>();
+        List<SseFrame> frames = new ArrayList<>(BATCH);
+        List<SseFrame> missed = new ArrayList<>(BATCH);
+        long dispatched = journal.last();
+        long heartbeat = System.nanoTime() + heartbeatInterval;
+
+        while (!closed) {
+
+            for (Subscriber subscriber; (subscriber = subscriptions.poll()) != null; ) {
+                live.add(subscriber);
+            }
+
+            frames.clear();
+
+            long previous = dispatched;
+            boolean known = journal.after(previous, BATCH, frames);
+
+            // if more changes were published since the last pass than the journal holds, all subscribers reset
+            dispatched = !known ? journal.last()
+                : frames.isEmpty() ? previous
+                : frames.get(frames.size() - 1).getEvent().getSequence();
+
+            boolean idle = System.nanoTime() - heartbeat >= 0;
+
+            for (Subscriber subscriber : live) {
+
+                if (known && subscriber.cursor == previous) {
+                    subscriber.offer(frames);
+                } else {
+                    subscriber.catchUp(missed);
+                }
+
+                if (idle) {
+                    subscriber.heartbeat();
+                }
+            }
+
+            if (idle) {
+                heartbeat = System.nanoTime() + heartbeatInterval;
+            }
+
+            live.removeIf(Subscriber::isClosed);
+
+            // subscribers catching up wake the dispatcher once their writer made room
+            if (frames.size() < BATCH && subscriptions.isEmpty()) {
+                LockSupport.parkNanos(this, heartbeat - System.nanoTime());
+            }
+        }
+
+        live.addAll(subscriptions);
+
+        for (Subscriber subscriber : live) {
+            subscriber.close();
+            writers.execute(subscriber::complete);
+        }
+    }
+
+    /**
+     * A subscription. Its cursor and the offers to its queue are confined to the dispatcher thread, its emitter to the
+     * writer draining its queue.
+     */
+    private final class Subscriber {
+
+        private final ResponseBodyEmitter emitter;
+        private final Predicate<ChangeEvent> visible;
+        private final BlockingQueue<SseFrame> queue = new ArrayBlockingQueue<>(queueSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * The sequence of the last change queued, or skipped as it is not visible to the subscriber.
+         */
+        private long cursor;
+
+        /**
+         * Whether the subscriber has changes to catch up on once its writer made room.
+         */
+        private volatile boolean behind;
+
+        Subscriber(ResponseBodyEmitter emitter, long cursor, Predicate<ChangeEvent> visible) {
+
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.visible = visible;
+        }
+
+        /**
+         * Queues the frames the subscriber has not seen and may see, until its queue is full.
+         *
+         * @return whether all frames were queued or skipped.
+         */
+        boolean offer(List<SseFrame> frames) {
+
+            for (SseFrame frame : frames) {
+
+                ChangeEvent event = frame.getEvent();
+
+                if (event.getSequence() <= cursor) {
+                    continue;
+                }
+
+                if (visible.test(event) && !enqueue(frame)) {
+
+                    overflows.increment();
+                    behind = true;
+                    return false;
+                }
+                cursor = event.getSequence();
+            }
+            return true;
+        }
+
+        /**
+         * Queues the changes after the cursor from the journal, as far as the queue has room, or tells the subscriber
+         * to reset if the journal no longer has them.
+         */
+        void catchUp(List<SseFrame> missed) {
+
+            behind = true;
+
+            while (!isClosed()) {
+
+                int room = Math.min(BATCH, queue.remainingCapacity());
+
+                if (room == 0) {
+                    return;
+                }
+
+                missed.clear();
+
+                if (!journal.after(cursor, room, missed)) {
+                    reset(journal.last());
+                    return;
+                }
+
+                if (!offer(missed)) {
+                    return;
+                }
+                if (missed.size() < room) {
+                    behind = false;
+                    return;
+                }
+            }
+        }
+
+        void heartbeat() {
+            if (queue.isEmpty()) {
+                enqueue(SseFrame.HEARTBEAT);
+            }
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.decrementAndGet();
+            }
+        }
+
+        void complete() {
+
+            close();
+            emitter.complete();
+        }
+
+        private void reset(long sequence) {
+
+            if (enqueue(SseFrame.reset(sequence))) {
+                cursor = sequence;
+                behind = false;
+            }
+        }
+
+        private boolean enqueue(SseFrame frame) {
+
+            if (isClosed() || !queue.offer(frame)) {
+                return false;
+            }
+
+            if (scheduled.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+            return true;
+        }
+
+        /**
+         * Writes the queued frames, on a writer thread, and gives the writer back to the others after a batch.
+         */
+        private void drain() {
+
+            for (int i = 0; i < BATCH; i++) {
+
+                SseFrame frame = queue.poll();
+
+                if (frame == null) {
+                    break;
+                }
+                write(frame);
+            }
+
+            scheduled.set(false);
+
+            if (behind) {
+                LockSupport.unpark(dispatcher);
+            }
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void write(SseFrame frame) {
+
+            if (isClosed()) {
+                queue.clear();
+                return;
+            }
+
+            try {
+                frame.sendTo(emitter);
+            } catch (IOException | IllegalStateException e) {
+                // the client went away, or the subscription completed meanwhile
+                complete();
+            }
+        }
+    }
+}
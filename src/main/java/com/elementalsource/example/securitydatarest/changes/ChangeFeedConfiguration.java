@@ -0,0 +1,42 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Sets up the {@link ChangeFeed} of employees and items, unless {@code app.change-feed.enabled} is turned off.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.change-feed", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeedConfiguration {
+
+    /**
+     * Renders the changes without indentation, as every event has to fit on a single line of the stream.
+     */
+    @Bean
+    public ChangeFeed changeFeed(ChangeFeedProperties properties, Jackson2ObjectMapperBuilder objectMapperBuilder,
+        MeterRegistry meterRegistry) {
+
+        return new ChangeFeed(properties,
+            objectMapperBuilder.build().writerFor(ChangeEvent.class).without(SerializationFeature.INDENT_OUTPUT),
+            meterRegistry);
+    }
+
+    /**
+     * Static, as it post-processes the {@link javax.persistence.EntityManagerFactory}. The feed is looked up when the
+     * first change is published.
+     */
+    @Bean
+    public static ChangeCapture changeCapture(ObjectFactory<ChangeFeed> changeFeed) {
+        return new ChangeCapture(changeFeed, Employee.class, Item.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import com.elementalsource.example.securitydatarest.security.OwnerRestriction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Streams the changes of the {@link ChangeFeed} as server-sent events, so clients no longer have to poll the
+ * collections to find out what changed.
+ * <p>
+ * Every event is a {@link ChangeEvent} as JSON, with its sequence as the event id. Clients resume after the last event
+ * they have seen with the {@code Last-Event-ID} header, which browsers send when they reconnect, or the {@code after}
+ * parameter. An event named {@literal reset} tells them the changes since are no longer known, so they have to read the
+ * collections again. Items are only streamed to users with {@literal ROLE_USER}, like their repository only serves
+ * them, and with the row-level security of {@link OwnerRestriction}, changes of entities assigned to another user are
+ * not streamed either.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "app.change-feed", name = "enabled", matchIfMissing = true)
+public class ChangeFeedController {
+
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private static final MediaType TEXT_EVENT_STREAM = new MediaType("text", "event-stream", StandardCharsets.UTF_8);
+    private static final Set<String> EMPLOYEES = Collections.singleton("Employee");
+    private static final Set<String> EMPLOYEES_AND_ITEMS = new HashSet<>(Arrays.asList("Employee", "Item"));
+
+    private final ChangeFeed changeFeed;
+    private final ChangeFeedProperties properties;
+    private final OwnerRestriction ownerRestriction;
+
+    @Autowired
+    public ChangeFeedController(ChangeFeed changeFeed, ChangeFeedProperties properties,
+        ObjectProvider<OwnerRestriction> ownerRestriction) {
+
+        this.changeFeed = changeFeed;
+        this.properties = properties;
+        this.ownerRestriction = ownerRestriction.getIfAvailable();
+    }
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> changes(@RequestHeader(name = LAST_EVENT_ID, required = false) Long lastEventId,
+        @RequestParam(name = "after", required = false) Long after) {
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(properties.getTimeout());
+        changeFeed.subscribe(emitter, lastEventId != null ? lastEventId : after, visible());
+
+        return ResponseEntity.ok().contentType(TEXT_EVENT_STREAM).body(emitter);
+    }
+
+    /**
+     * @return whether the caller may see a change, decided once as it subscribes.
+     */
+    private Predicate<ChangeEvent> visible() {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Set<String> types = visibleTypes(authentication);
+        String owner = ownerRestriction == null ? null : ownerRestriction.owner(authentication);
+
+        return event -> types.contains(event.getType())
+            && (owner == null || event.getOwner() == null || owner.equals(event.getOwner()));
+    }
+
+    private static Set<String> visibleTypes(Authentication authentication) {
+
+        if (authentication != null) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if ("ROLE_USER".equals(authority.getAuthority())) {
+                    return EMPLOYEES_AND_ITEMS;
+                }
+            }
+        }
+        return EMPLOYEES;
+    }
+}
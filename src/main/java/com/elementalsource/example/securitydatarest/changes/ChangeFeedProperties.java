@@ -0,0 +1,46 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the change feed, see {@link ChangeFeed}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.change-feed")
+public class ChangeFeedProperties {
+
+    /**
+     * Whether committed changes of employees and items are streamed at /changes.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of the latest changes kept for subscribers resuming from an earlier event. Subscribers further behind are
+     * told to reset instead.
+     */
+    private int journalSize = 10_000;
+
+    /**
+     * How long a subscription lasts in milliseconds before the client has to reconnect, resuming where it left off.
+     */
+    private long timeout = 1_800_000;
+
+    /**
+     * Milliseconds between comments sent to idle subscribers, so proxies keep the connections open and closed ones are
+     * noticed.
+     */
+    private long heartbeatInterval = 15_000;
+
+    /**
+     * Number of events queued for each subscriber. A subscriber whose queue is full catches up from the journal once
+     * it has room again.
+     */
+    private int queueSize = 1_024;
+
+    /**
+     * Number of threads writing the events to the subscribers. A subscriber which stops reading holds one of them until
+     * the write times out.
+     */
+    private int writers = 4;
+}
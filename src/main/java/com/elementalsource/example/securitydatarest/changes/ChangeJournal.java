@@ -0,0 +1,61 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import java.util.Collection;
+import java.util.function.LongFunction;
+
+/**
+ * The latest changes, kept in a ring of fixed size so subscribers can resume from an earlier one.
+ * <p>
+ * Sequences start at the time the journal was created in microseconds, so they keep increasing across restarts, and a
+ * cursor from before a restart is recognized as unknown instead of being resumed from.
+ */
+class ChangeJournal {
+
+    private final SseFrame[] frames;
+    private final long first;
+
+    private long last;
+
+    ChangeJournal(int capacity) {
+
+        this.frames = new SseFrame[capacity];
+        this.last = System.currentTimeMillis() * 1_000;
+        this.first = last + 1;
+    }
+
+    /**
+     * Appends the frame created for the next sequence. It is created under the lock, so frames are appended in the
+     * order of their sequences.
+     */
+    synchronized SseFrame append(LongFunction<SseFrame> frame) {
+
+        SseFrame appended = frame.apply(last + 1);
+        frames[(int) (++last % frames.length)] = appended;
+
+        return appended;
+    }
+
+    synchronized long last() {
+        return last;
+    }
+
+    /**
+     * Copies the frames after the given sequence.
+     *
+     * @return {@literal false} if the frames after the given sequence are not known, as they were overwritten already
+     * or the sequence is not one of this journal.
+     */
+    synchronized boolean after(long sequence, int max, Collection<SseFrame> into) {
+
+        long oldest = Math.max(first, last - frames.length + 1);
+
+        if (sequence < oldest - 1 || sequence > last) {
+            return false;
+        }
+
+        for (long next = sequence + 1; next <= last && next <= sequence + max; next++) {
+            into.add(frames[(int) (next % frames.length)]);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * An event rendered once as a complete frame of the stream, and sent to any number of subscribers as it is.
+ * <p>
+ * The builder of {@link SseEmitter#event()} renders an event again for every subscriber, and {@link SseEmitter} writes
+ * and flushes each of its parts separately. A frame is sent through a plain {@link ResponseBodyEmitter} instead, a
+ * single write and flush.
+ */
+final class SseFrame {
+
+    private static final MediaType TEXT_PLAIN = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    static final SseFrame HEARTBEAT = new SseFrame(null, ":\n\n");
+
+    private final ChangeEvent event;
+    private final String text;
+
+    private SseFrame(ChangeEvent event, String text) {
+
+        this.event = event;
+        this.text = text;
+    }
+
+    /**
+     * @param json the event as JSON, on a single line.
+     */
+    static SseFrame change(ChangeEvent event, String json) {
+        return new SseFrame(event, "id:" + event.getSequence() + "\ndata:" + json + "\n\n");
+    }
+
+    /**
+     * Tells a subscriber that changes after its cursor are no longer known, so it has to read the collections again
+     * and resumes from the given sequence.
+     */
+    static SseFrame reset(long sequence) {
+        return new SseFrame(null, "event:reset\nid:" + sequence + "\ndata:" + sequence + "\n\n");
+    }
+
+    /**
+     * @return the change, {@literal null} for other frames.
+     */
+    ChangeEvent getEvent() {
+        return event;
+    }
+
+    void sendTo(ResponseBodyEmitter emitter) throws IOException {
+        emitter.send(text, TEXT_PLAIN);
+    }
+}
@@ -0,0 +1,89 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import com.elementalsource.example.securitydatarest.security.AuthenticationCache;
+import com.elementalsource.example.securitydatarest.security.TokenProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.UUID;
+import javax.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Lets several instances share a database behind a load balancer, only if {@code app.cluster.enabled} is set.
+ * <p>
+ * Requests carry their credentials or a signed token and no instance keeps sessions, so any instance can serve any
+ * request once all of them sign tokens with the same {@code app.security.token.secret}. What remains per instance are
+ * the caches: every committed change of a cached entity is announced to the other instances through the
+ * {@link ClusterTransport}, which drop what they cached of it.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled")
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfiguration {
+
+    private final ClusterProperties properties;
+
+    @Autowired
+    public ClusterConfiguration(ClusterProperties properties, TokenProperties tokenProperties) {
+
+        Assert.hasText(tokenProperties.getSecret(),
+            "app.security.token.secret must be set, so all instances accept each other's tokens!");
+
+        this.properties = properties;
+    }
+
+    /**
+     * Identifies this instance in the invalidations it sends by the configured node id, or a random one.
+     */
+    @Bean
+    public ClusterTransport clusterTransport(ObjectFactory<JdbcTemplate> jdbcTemplate) {
+
+        String nodeId = properties.getNodeId();
+
+        if (!StringUtils.hasText(nodeId)) {
+            nodeId = UUID.randomUUID().toString();
+        }
+
+        switch (properties.getTransport()) {
+            case LOOPBACK:
+                return new LoopbackTransport(properties.getName(), nodeId);
+            default:
+                return new JdbcTransport(jdbcTemplate.getObject(), nodeId, properties);
+        }
+    }
+
+    /**
+     * Lets one instance at a time migrate the schema of the shared database.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy() {
+        return new ExclusiveMigrationStrategy(properties.getMigrationLockTimeout());
+    }
+
+    @Bean
+    public InvalidationSubscriber invalidationSubscriber(ClusterTransport clusterTransport,
+        ObjectFactory<EntityManagerFactory> entityManagerFactory,
+        ObjectFactory<AuthenticationCache> authenticationCache, MeterRegistry meterRegistry) {
+
+        return new InvalidationSubscriber(clusterTransport, entityManagerFactory, authenticationCache, meterRegistry);
+    }
+
+    /**
+     * Static, as it post-processes the {@link EntityManagerFactory}. The transport is looked up when the first change
+     * is published.
+     */
+    @Bean
+    public static InvalidationPublisher invalidationPublisher(ObjectFactory<ClusterTransport> clusterTransport,
+        ObjectFactory<MeterRegistry> meterRegistry) {
+
+        return new InvalidationPublisher(clusterTransport, meterRegistry);
+    }
+}
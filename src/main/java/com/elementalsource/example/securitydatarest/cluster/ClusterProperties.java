@@ -0,0 +1,64 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of instances sharing a database behind a load balancer, see {@link ClusterConfiguration}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cluster")
+public class ClusterProperties {
+
+    /**
+     * Whether changes are announced to the other instances, so they drop what they cached of the changed entities.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Name of the cluster. Instances using the {@link Transport#LOOPBACK} transport only reach the ones of the same
+     * name in their JVM.
+     */
+    private String name = "securitydatarest";
+
+    /**
+     * Identifies this instance among the others, a random one if empty.
+     */
+    private String nodeId = "";
+
+    /**
+     * How the instances reach each other.
+     */
+    private Transport transport = Transport.JDBC;
+
+    /**
+     * Milliseconds between looking for invalidations of other instances with {@link Transport#JDBC}, which is how
+     * long they may serve an entity changed elsewhere from their caches.
+     */
+    private long pollInterval = 200;
+
+    /**
+     * Milliseconds invalidations are kept in the database with {@link Transport#JDBC}, for instances which were
+     * paused meanwhile.
+     */
+    private long retention = 600_000;
+
+    /**
+     * Milliseconds an instance waits for another one to migrate the schema of the shared database, see
+     * {@link ExclusiveMigrationStrategy}.
+     */
+    private long migrationLockTimeout = 600_000;
+
+    public enum Transport {
+
+        /**
+         * Through the {@code cluster_invalidation} table of the shared database, so no other infrastructure is needed.
+         */
+        JDBC,
+
+        /**
+         * Directly to the instances in the same JVM, for tests.
+         */
+        LOOPBACK
+    }
+}
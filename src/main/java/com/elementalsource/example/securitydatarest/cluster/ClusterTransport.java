@@ -0,0 +1,20 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations between the instances of a cluster. Deliveries may be repeated, but are never lost while the
+ * receiving instance is up.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Delivers an invalidation of the given key to all other instances, with this instance as its origin.
+     */
+    void send(String region, String key);
+
+    /**
+     * Starts delivering the invalidations of the other instances to the given listener.
+     */
+    void listen(Consumer<Invalidation> listener);
+}
@@ -0,0 +1,70 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Migrates the schema while holding a row lock in the shared database, so instances started together migrate one
+ * after another. On its own, Flyway lets each of them apply the migrations the others have not recorded yet, and all
+ * but one fail.
+ * <p>
+ * The lock is a row of the {@code cluster.migration_lock} table, which is created outside of the migrations, as it is
+ * needed before them, and outside of the schema they migrate, which Flyway expects to be empty at first. Waiting for
+ * it uses the lock timeout of H2.
+ */
+class ExclusiveMigrationStrategy implements FlywayMigrationStrategy {
+
+    private final long lockTimeout;
+
+    ExclusiveMigrationStrategy(long lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy#migrate(org.flywaydb.core.Flyway)
+     */
+    @Override
+    public void migrate(Flyway flyway) {
+
+        try (Connection connection = flyway.getDataSource().getConnection();
+            Statement statement = connection.createStatement()) {
+
+            statement.execute("create schema if not exists cluster");
+            statement.execute("create table if not exists cluster.migration_lock (id integer primary key)");
+            statement.execute("merge into cluster.migration_lock key (id) values (1)");
+
+            // the lock timeout is kept by the pooled connection, so it is restored afterwards
+            long defaultLockTimeout = queryForLong(statement, "call lock_timeout()");
+
+            connection.setAutoCommit(false);
+            try {
+                statement.execute("set lock_timeout " + lockTimeout);
+                statement.executeQuery("select id from cluster.migration_lock where id = 1 for update").close();
+
+                // on other connections, which the lock does not hold up
+                flyway.migrate();
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(true);
+                statement.execute("set lock_timeout " + defaultLockTimeout);
+            }
+
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to lock the schema for migration", e);
+        }
+    }
+
+    private static long queryForLong(Statement statement, String sql) throws SQLException {
+
+        try (ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import lombok.Value;
+
+/**
+ * Tells the other instances that something they may have cached changed.
+ */
+@Value
+public class Invalidation {
+
+    /**
+     * Region of the cached authentications, keyed by username.
+     */
+    public static final String AUTHENTICATIONS = "authentications";
+
+    /**
+     * Node id of the instance the change was made on.
+     */
+    String origin;
+
+    /**
+     * Name of the changed entity, or {@link #AUTHENTICATIONS}.
+     */
+    String region;
+
+    /**
+     * Id of the changed entity, or the username of the authentications.
+     */
+    String key;
+}
@@ -0,0 +1,131 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import com.elementalsource.example.securitydatarest.model.UserAccount;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Tells the other instances about every committed change of a cached entity, so they drop it and the cached queries
+ * over its table. Changes of user accounts also drop the authentications the other instances cached for them. Bulk
+ * updates and deletes of JPQL queries bypass the entities and are not announced.
+ * <p>
+ * Registers itself with Hibernate as soon as the {@link EntityManagerFactory} is created. The transport is only looked
+ * up with the first change. Invalidations sent are counted in {@value InvalidationSubscriber#METRIC}.
+ */
+public class InvalidationPublisher implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+    PostCommitDeleteEventListener, BeanPostProcessor {
+
+    private final transient ObjectFactory<ClusterTransport> transportFactory;
+    private final transient ObjectFactory<MeterRegistry> registryFactory;
+
+    private transient volatile ClusterTransport transport;
+    private transient volatile Counter sent;
+
+    public InvalidationPublisher(ObjectFactory<ClusterTransport> transportFactory,
+        ObjectFactory<MeterRegistry> registryFactory) {
+
+        this.transportFactory = transportFactory;
+        this.registryFactory = registryFactory;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessBeforeInitialization(java.lang.Object, java.lang.String)
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessAfterInitialization(java.lang.Object, java.lang.String)
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (bean instanceof EntityManagerFactory) {
+
+            EventListenerRegistry registry = ((EntityManagerFactory) bean).unwrap(SessionFactoryImplementor.class).
+                getServiceRegistry().getService(EventListenerRegistry.class);
+
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        }
+        return bean;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.hibernate.event.spi.PostInsertEventListener#requiresPostCommitHanding(org.hibernate.persister.entity.EntityPersister)
+     */
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return persister.hasCache();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+    private void publish(EntityPersister persister, Object id, Object entity) {
+
+        if (!persister.hasCache()) {
+            return;
+        }
+
+        send(persister.getEntityName(), id.toString());
+
+        if (entity instanceof UserAccount) {
+            send(Invalidation.AUTHENTICATIONS, ((UserAccount) entity).getUsername());
+        }
+    }
+
+    private void send(String region, String key) {
+
+        ClusterTransport transport = this.transport;
+
+        if (transport == null) {
+            this.sent = registryFactory.getObject().counter(InvalidationSubscriber.METRIC, "direction", "sent");
+            transport = transportFactory.getObject();
+            this.transport = transport;
+        }
+
+        transport.send(region, key);
+        sent.increment();
+    }
+}
@@ -0,0 +1,124 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import com.elementalsource.example.securitydatarest.security.AuthenticationCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import javax.persistence.EntityManagerFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.MappingException;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
+import org.hibernate.cache.spi.access.CollectionRegionAccessStrategy;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.RegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.SingleColumnType;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+/**
+ * Drops what this instance cached of the entities other instances changed: the entity, its cached collections and
+ * natural ids, the cached queries over its tables and, for user accounts, the cached authentications. Received
+ * invalidations are counted in {@value #METRIC}.
+ * <p>
+ * The entity is locked and unlocked in the second level cache instead of being evicted, so a load which started
+ * before the invalidation arrived cannot put the stale state back. Listens once all singletons were created, and only
+ * looks up the entity manager factory and the authentication cache with the first invalidation, so it does not create
+ * them at startup with lazy initialization.
+ */
+public class InvalidationSubscriber implements SmartInitializingSingleton {
+
+    static final String METRIC = "cluster.invalidations";
+
+    private static final Log log = LogFactory.getLog(InvalidationSubscriber.class);
+
+    private final ClusterTransport transport;
+    private final ObjectFactory<EntityManagerFactory> entityManagerFactory;
+    private final ObjectFactory<AuthenticationCache> authenticationCache;
+    private final Counter received;
+
+    public InvalidationSubscriber(ClusterTransport transport, ObjectFactory<EntityManagerFactory> entityManagerFactory,
+        ObjectFactory<AuthenticationCache> authenticationCache, MeterRegistry registry) {
+
+        this.transport = transport;
+        this.entityManagerFactory = entityManagerFactory;
+        this.authenticationCache = authenticationCache;
+        this.received = registry.counter(METRIC, "direction", "received");
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.SmartInitializingSingleton#afterSingletonsInstantiated()
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        transport.listen(this::invalidate);
+    }
+
+    void invalidate(Invalidation invalidation) {
+
+        received.increment();
+
+        if (Invalidation.AUTHENTICATIONS.equals(invalidation.getRegion())) {
+            authenticationCache.getObject().evict(invalidation.getKey());
+            return;
+        }
+
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.getObject().
+            unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister;
+
+        try {
+            persister = sessionFactory.getEntityPersister(invalidation.getRegion());
+        } catch (MappingException e) {
+            log.warn("Ignoring invalidation of unknown entity " + invalidation.getRegion());
+            return;
+        }
+
+        Serializable id = (Serializable) ((SingleColumnType<?>) persister.getIdentifierType()).
+            fromStringValue(invalidation.getKey());
+        Serializable[] spaces = persister.getPropertySpaces();
+        UpdateTimestampsCache timestamps = sessionFactory.getUpdateTimestampsCache();
+
+        try (Session session = sessionFactory.openSession()) {
+
+            SessionImplementor implementor = (SessionImplementor) session;
+
+            if (timestamps != null) {
+                timestamps.preInvalidate(spaces, implementor);
+            }
+
+            if (persister.hasCache()) {
+                EntityRegionAccessStrategy access = persister.getCacheAccessStrategy();
+                relock(access, access.generateCacheKey(id, persister, sessionFactory, null), implementor);
+            }
+
+            for (CollectionPersister collection : sessionFactory.getCollectionPersisters().values()) {
+                if (collection.hasCache() && collection.getOwnerEntityPersister() == persister) {
+                    CollectionRegionAccessStrategy access = collection.getCacheAccessStrategy();
+                    relock(access, access.generateCacheKey(id, collection, sessionFactory, null), implementor);
+                }
+            }
+
+            if (persister.hasNaturalIdCache()) {
+                persister.getNaturalIdCacheAccessStrategy().evictAll();
+            }
+
+            if (timestamps != null) {
+                timestamps.invalidate(spaces, implementor);
+            }
+        }
+    }
+
+    private static void relock(RegionAccessStrategy access, Object key, SessionImplementor session) {
+
+        SoftLock lock = access.lockItem(session, key, null);
+        access.unlockItem(session, key, lock);
+    }
+}
@@ -0,0 +1,168 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Exchanges invalidations through the {@code cluster_invalidation} table of the database all instances share.
+ * <p>
+ * Invalidations sent are queued and inserted in batches by a thread of its own, which also polls for the ones of other
+ * instances every {@link ClusterProperties#getPollInterval() poll interval}. Rows are committed out of the order of
+ * their ids, so the thread reads all rows created within a grace period before its previous poll, and skips the ones
+ * it delivered already. Timestamps are taken from the database, so the clocks of the instances do not matter.
+ * Invalidations which cannot be inserted are logged and retried with the next batch.
+ */
+public class JdbcTransport implements ClusterTransport, DisposableBean {
+
+    private static final Log log = LogFactory.getLog(JdbcTransport.class);
+
+    private static final long GRACE = TimeUnit.SECONDS.toMillis(5);
+
+    private static final String INSERT = "insert into cluster_invalidation (origin, region, invalidation_key) "
+        + "values (?, ?, ?)";
+    private static final String SELECT = "select id, origin, region, invalidation_key, created "
+        + "from cluster_invalidation where created >= ? and origin <> ?";
+    private static final String PURGE = "delete from cluster_invalidation where created < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final long pollInterval;
+    private final long retention;
+    private final Queue<Invalidation> outbox = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Long> delivered = new HashMap<>();
+    private final Thread poller;
+
+    private volatile Consumer<Invalidation> listener;
+    private volatile boolean stopping;
+    private long since = Long.MIN_VALUE;
+    private long lastPurge;
+
+    public JdbcTransport(JdbcTemplate jdbcTemplate, String nodeId, ClusterProperties properties) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId;
+        this.pollInterval = TimeUnit.MILLISECONDS.toNanos(properties.getPollInterval());
+        this.retention = properties.getRetention();
+
+        this.poller = new Thread(this::run, "cluster-invalidations");
+        this.poller.setDaemon(true);
+        this.poller.start();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.elementalsource.example.securitydatarest.cluster.ClusterTransport#send(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void send(String region, String key) {
+
+        outbox.add(new Invalidation(nodeId, region, key));
+        LockSupport.unpark(poller);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.elementalsource.example.securitydatarest.cluster.ClusterTransport#listen(java.util.function.Consumer)
+     */
+    @Override
+    public void listen(Consumer<Invalidation> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Inserts what is still queued before returning.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+
+        stopping = true;
+        LockSupport.unpark(poller);
+        poller.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+
+        while (true) {
+
+            // read before flushing, so everything sent before destroy() is inserted
+            boolean stop = stopping;
+
+            try {
+                flush();
+                if (stop) {
+                    return;
+                }
+                poll();
+            } catch (DataAccessException e) {
+                log.warn("Unable to exchange invalidations with the other instances", e);
+            }
+
+            if (outbox.isEmpty()) {
+                LockSupport.parkNanos(this, pollInterval);
+            }
+        }
+    }
+
+    private void flush() {
+
+        List<Object[]> batch = new ArrayList<>();
+        List<Invalidation> sent = new ArrayList<>();
+
+        for (Invalidation invalidation; (invalidation = outbox.poll()) != null; ) {
+            batch.add(new Object[] {invalidation.getOrigin(), invalidation.getRegion(), invalidation.getKey()});
+            sent.add(invalidation);
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch);
+        } catch (DataAccessException e) {
+            outbox.addAll(sent);
+            throw e;
+        }
+    }
+
+    private void poll() {
+
+        long now = jdbcTemplate.queryForObject("select current_timestamp", Timestamp.class).getTime();
+
+        if (since == Long.MIN_VALUE) {
+            this.since = now;
+            this.lastPurge = now;
+            return;
+        }
+
+        Consumer<Invalidation> listener = this.listener;
+
+        jdbcTemplate.query(SELECT, rs -> {
+
+            if (delivered.putIfAbsent(rs.getLong(1), rs.getTimestamp(5).getTime()) == null && listener != null) {
+                listener.accept(new Invalidation(rs.getString(2), rs.getString(3), rs.getString(4)));
+            }
+        }, new Timestamp(since - GRACE), nodeId);
+
+        this.since = now;
+        delivered.values().removeIf(created -> created < now - GRACE);
+
+        if (now - lastPurge > retention / 10) {
+            jdbcTemplate.update(PURGE, new Timestamp(now - retention));
+            this.lastPurge = now;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Delivers invalidations directly to the other instances of the same cluster in the JVM, on the thread sending them.
+ * For tests starting several instances in one JVM.
+ */
+public class LoopbackTransport implements ClusterTransport, DisposableBean {
+
+    private static final Map<String, Set<LoopbackTransport>> CLUSTERS = new ConcurrentHashMap<>();
+
+    private final Set<LoopbackTransport> members;
+    private final String nodeId;
+
+    private volatile Consumer<Invalidation> listener;
+
+    public LoopbackTransport(String cluster, String nodeId) {
+
+        this.nodeId = nodeId;
+        this.members = CLUSTERS.computeIfAbsent(cluster, name -> new CopyOnWriteArraySet<>());
+        this.members.add(this);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.elementalsource.example.securitydatarest.cluster.ClusterTransport#send(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void send(String region, String key) {
+
+        Invalidation invalidation = new Invalidation(nodeId, region, key);
+
+        for (LoopbackTransport member : members) {
+
+            Consumer<Invalidation> listener = member.listener;
+
+            if (member != this && listener != null) {
+                listener.accept(invalidation);
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.elementalsource.example.securitydatarest.cluster.ClusterTransport#listen(java.util.function.Consumer)
+     */
+    @Override
+    public void listen(Consumer<Invalidation> listener) {
+        this.listener = listener;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.DisposableBean#destroy()
+     */
+    @Override
+    public void destroy() {
+        members.remove(this);
+    }
+}
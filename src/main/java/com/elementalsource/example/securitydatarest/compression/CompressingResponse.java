@@ -0,0 +1,364 @@
+package com.elementalsource.example.securitydatarest.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Holds back the body of a response until it outgrows the threshold, then decides whether to compress it.
+ * <p>
+ * The {@code Content-Length} set by the application is dropped, as it would not match a compressed body. Bodies which
+ * stay below the threshold get their actual length instead.
+ * <p>
+ * Compressed bytes reach the container in a single write per write of the application, so non-blocking writers, which
+ * write only while the stream {@link ServletOutputStream#isReady() is ready}, keep to the contract of the container.
+ * A body whose {@link WriteListener} is set before it outgrew the threshold is not compressed.
+ */
+class CompressingResponse extends HttpServletResponseWrapper {
+
+    private enum State {
+        BUFFERING, COMPRESSING, PASSING_THROUGH
+    }
+
+    private final ContentEncoding encoding;
+    private final int threshold;
+    private final Set<String> mimeTypes;
+    private final ByteArrayOutputStream buffer;
+    private final ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+
+    private State state = State.BUFFERING;
+    private DeflaterOutputStream compressed;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    CompressingResponse(HttpServletResponse response, ContentEncoding encoding, int threshold, Set<String> mimeTypes) {
+
+        super(response);
+
+        this.encoding = encoding;
+        this.threshold = threshold;
+        this.mimeTypes = mimeTypes;
+        this.buffer = new ByteArrayOutputStream(Math.min(threshold, 1024));
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called on this response");
+        }
+        return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+
+        if (writer == null) {
+
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called on this response");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        if (state == State.PASSING_THROUGH) {
+            super.setContentLength(len);
+        }
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (state == State.PASSING_THROUGH) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (state == State.PASSING_THROUGH || !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (state == State.PASSING_THROUGH || !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (state == State.PASSING_THROUGH || !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        passThrough();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        passThrough();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        passThrough();
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Clears the headers as well, including the {@code Content-Encoding}, so the body is held back and decided on anew.
+     */
+    @Override
+    public void reset() {
+
+        super.reset();
+        buffer.reset();
+        discardCompressed();
+        compressed = null;
+        state = State.BUFFERING;
+    }
+
+    /**
+     * Keeps the headers, so a compressed body starts over with a compressor of its own.
+     */
+    @Override
+    public void resetBuffer() {
+
+        super.resetBuffer();
+        buffer.reset();
+
+        if (state == State.COMPRESSING) {
+            discardCompressed();
+            try {
+                compressed = encoding.open(deflated);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Flushes what was compressed so far, but keeps holding back bodies below the threshold, as the decision whether to
+     * compress them is not made yet. Bodies which are not compressed anyway, such as event streams, are sent right away.
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+
+        if (writer != null) {
+            writer.flush();
+        }
+        flushStream();
+    }
+
+    /**
+     * Completes the response: sends a body below the threshold as it is, or finishes the compressed one.
+     */
+    void finish() throws IOException {
+
+        if (writer != null) {
+            writer.flush();
+        }
+
+        if (state == State.COMPRESSING) {
+            compressed.finish();
+            drain();
+        } else if (state == State.BUFFERING && buffer.size() > 0) {
+            super.setContentLength(buffer.size());
+            buffer.writeTo(super.getOutputStream());
+        }
+
+        state = State.PASSING_THROUGH;
+    }
+
+    private void flushStream() throws IOException {
+
+        if (state == State.BUFFERING && !isCompressible()) {
+            state = State.PASSING_THROUGH;
+            buffer.writeTo(super.getOutputStream());
+            buffer.reset();
+        }
+
+        if (state == State.COMPRESSING) {
+            compressed.flush();
+            drain();
+        }
+        if (state != State.BUFFERING) {
+            super.flushBuffer();
+        }
+    }
+
+    private void passThrough() {
+        buffer.reset();
+        state = State.PASSING_THROUGH;
+    }
+
+    private ServletOutputStream stream() {
+
+        if (outputStream == null) {
+            outputStream = new ThresholdOutputStream();
+        }
+        return outputStream;
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+
+        switch (state) {
+
+            case COMPRESSING:
+                compressed.write(bytes, offset, length);
+                drain();
+                return;
+
+            case PASSING_THROUGH:
+                super.getOutputStream().write(bytes, offset, length);
+                return;
+
+            default:
+                if (buffer.size() + length <= threshold) {
+                    buffer.write(bytes, offset, length);
+                    return;
+                }
+
+                OutputStream out = decide();
+                buffer.writeTo(out);
+                buffer.reset();
+                out.write(bytes, offset, length);
+                drain();
+        }
+    }
+
+    /**
+     * Releases the compressor, if any, and drops what it compressed.
+     */
+    private void discardCompressed() {
+
+        if (compressed != null) {
+            try {
+                compressed.close();
+            } catch (IOException e) {
+                // only writes to memory
+            }
+        }
+        deflated.reset();
+    }
+
+    /**
+     * Hands what was compressed so far to the container, at once.
+     */
+    private void drain() throws IOException {
+
+        if (state == State.COMPRESSING && deflated.size() > 0) {
+            deflated.writeTo(super.getOutputStream());
+            deflated.reset();
+        }
+    }
+
+    /**
+     * Switches the response to non-blocking writes. What is held back is sent as it is beforehand, while the container
+     * still blocks, as the length of the body is unknown from then on.
+     */
+    private void setWriteListener(WriteListener writeListener) throws IOException {
+
+        if (state == State.BUFFERING) {
+            state = State.PASSING_THROUGH;
+            buffer.writeTo(super.getOutputStream());
+            buffer.reset();
+        }
+        super.getOutputStream().setWriteListener(writeListener);
+    }
+
+    private boolean isReady() throws IOException {
+        return state == State.BUFFERING || super.getOutputStream().isReady();
+    }
+
+    /**
+     * Decides how to write a body which outgrew the threshold.
+     */
+    private OutputStream decide() throws IOException {
+
+        if (!isCompressible()) {
+            state = State.PASSING_THROUGH;
+            return super.getOutputStream();
+        }
+
+        super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+
+        compressed = encoding.open(deflated);
+        state = State.COMPRESSING;
+        return compressed;
+    }
+
+    private boolean isCompressible() {
+
+        String contentType = getContentType();
+
+        if (contentType == null || containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+
+        int semicolon = contentType.indexOf(';');
+        String mimeType = (semicolon < 0 ? contentType : contentType.substring(0, semicolon)).trim().toLowerCase();
+
+        return mimeTypes.contains(mimeType);
+    }
+
+    /**
+     * The stream handed out to the application.
+     */
+    private class ThresholdOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            CompressingResponse.this.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushStream();
+        }
+
+        @Override
+        public boolean isReady() {
+            try {
+                return CompressingResponse.this.isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                CompressingResponse.this.setWriteListener(writeListener);
+            } catch (IOException e) {
+                writeListener.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.elementalsource.example.securitydatarest.compression;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Compresses responses with gzip or deflate, whichever the client accepts, preferring gzip.
+ * <p>
+ * Spring Data REST streams its responses without a {@code Content-Length}, so the container cannot tell how large they
+ * are before they are written. This filter buffers the first {@link CompressionProperties#getMinResponseSize()} bytes
+ * of a response instead: responses which end within them are sent as they are, larger ones are compressed as they are
+ * written, without buffering the rest. Runs ahead of Spring Security, so its responses are compressed as well.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "app.compression", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(CompressionProperties.class)
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final int minResponseSize;
+    private final Set<String> mimeTypes;
+
+    @Autowired
+    public CompressionFilter(CompressionProperties properties) {
+
+        this.minResponseSize = properties.getMinResponseSize();
+        this.mimeTypes = new HashSet<>(properties.getMimeTypes());
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.filter.OncePerRequestFilter#shouldNotFilterAsyncDispatch()
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+
+        CompressingResponse compressingResponse = WebUtils.getNativeResponse(response, CompressingResponse.class);
+
+        if (compressingResponse == null) {
+
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+            if (encoding == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+
+            compressingResponse = new CompressingResponse(response, encoding, minResponseSize, mimeTypes);
+            response = compressingResponse;
+        }
+
+        chain.doFilter(request, response);
+
+        // asynchronous requests are written by a later dispatch, which finishes them
+        if (!isAsyncStarted(request)) {
+            compressingResponse.finish();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.elementalsource.example.securitydatarest.compression;
+
+import java.util.Arrays;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the response compression, see {@link CompressionFilter}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.compression")
+public class CompressionProperties {
+
+    /**
+     * Whether responses are compressed for clients which accept gzip or deflate.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of bytes a response must exceed to be compressed. Smaller ones fit into a packet or two anyway.
+     */
+    private int minResponseSize = 2048;
+
+    /**
+     * Content types which are compressed, without parameters.
+     */
+    private List<String> mimeTypes = Arrays.asList("application/hal+json", "application/json", "application/x-ndjson",
+        "application/schema+json", "text/plain");
+}
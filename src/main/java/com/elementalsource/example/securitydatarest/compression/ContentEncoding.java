@@ -0,0 +1,95 @@
+package com.elementalsource.example.securitydatarest.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.util.StringUtils;
+
+/**
+ * The compressed content encodings of HTTP, see RFC 7230, section 4.2.
+ */
+enum ContentEncoding {
+
+    GZIP("gzip") {
+        @Override
+        DeflaterOutputStream open(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE, true);
+        }
+    },
+
+    DEFLATE("deflate") {
+        @Override
+        DeflaterOutputStream open(OutputStream out) {
+            return new DeflaterOutputStream(out, true);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return the value of the {@code Content-Encoding} header.
+     */
+    String getToken() {
+        return token;
+    }
+
+    /**
+     * Wraps the given stream into one which compresses everything written to it, and compresses what was written so far
+     * on every flush.
+     */
+    abstract DeflaterOutputStream open(OutputStream out) throws IOException;
+
+    /**
+     * Picks the encoding for the given {@code Accept-Encoding} header.
+     *
+     * @return gzip if the client accepts it, deflate if it only accepts that, {@literal null} otherwise.
+     */
+    static ContentEncoding negotiate(String acceptEncoding) {
+
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return null;
+        }
+
+        boolean deflate = false;
+
+        for (String coding : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+
+            String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+            String name = parts[0].toLowerCase();
+
+            if (isRejected(parts)) {
+                continue;
+            }
+            if (name.equals(GZIP.token) || name.equals("*")) {
+                return GZIP;
+            }
+            deflate |= name.equals(DEFLATE.token);
+        }
+
+        return deflate ? DEFLATE : null;
+    }
+
+    private static boolean isRejected(String[] parts) {
+
+        for (int i = 1; i < parts.length; i++) {
+
+            String parameter = StringUtils.trimAllWhitespace(parts[i]);
+
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
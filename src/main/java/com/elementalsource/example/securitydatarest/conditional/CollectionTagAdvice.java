@@ -0,0 +1,120 @@
+package com.elementalsource.example.securitydatarest.conditional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.core.EmbeddedWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Tags the collection resources and search results of versioned entities from the page that is about to be rendered:
+ * the request, the ids and versions of the entities on the page and the total number of entities. A GET whose
+ * {@code If-None-Match} has that tag is answered with 304 instead of rendering the page.
+ * <p>
+ * The tag changes whenever an entity on the page changes, or one is added or removed anywhere, while changes to other
+ * pages leave it alone. Only the page query runs, which the response needs anyway, so unconditional requests cost no
+ * more than without the tag. Pages with projections or anything else than versioned entities are not tagged.
+ */
+@ControllerAdvice
+public class CollectionTagAdvice implements ResponseBodyAdvice<Object> {
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice#supports(org.springframework.core.MethodParameter, java.lang.Class)
+     */
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice#beforeBodyWrite(java.lang.Object, org.springframework.core.MethodParameter, org.springframework.http.MediaType, java.lang.Class, org.springframework.http.server.ServerHttpRequest, org.springframework.http.server.ServerHttpResponse)
+     */
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+        Class<? extends HttpMessageConverter<?>> converterType, ServerHttpRequest request,
+        ServerHttpResponse response) {
+
+        if (!(body instanceof Resources) || request.getMethod() != HttpMethod.GET) {
+            return body;
+        }
+
+        String tag = tag((Resources<?>) body, request);
+
+        if (tag == null) {
+            return body;
+        }
+
+        String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+
+        if (ifNoneMatch == null || !ConditionalRequestFilter.matches(ifNoneMatch, tag)
+            || !(response instanceof ServletServerHttpResponse)) {
+
+            response.getHeaders().setETag(tag);
+            return body;
+        }
+
+        // nothing is written, which would otherwise send the headers
+        HttpServletResponse servletResponse = ((ServletServerHttpResponse) response).getServletResponse();
+        servletResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        servletResponse.setHeader(HttpHeaders.ETAG, tag);
+
+        return null;
+    }
+
+    /**
+     * @return the tag of the page, or {@literal null} if it has elements other than versioned entities.
+     */
+    private static String tag(Resources<?> resources, ServerHttpRequest request) {
+
+        StringBuilder digested = new StringBuilder().
+            append(request.getURI()).append('|').
+            append(request.getHeaders().getFirst(HttpHeaders.ACCEPT)).append('|').
+            append(resources instanceof PagedResources && ((PagedResources<?>) resources).getMetadata() != null
+                ? ((PagedResources<?>) resources).getMetadata().getTotalElements()
+                : resources.getContent().size());
+
+        for (Object element : resources.getContent()) {
+
+            if (element instanceof EmbeddedWrapper && ((EmbeddedWrapper) element).getValue() instanceof Collection
+                && ((Collection<?>) ((EmbeddedWrapper) element).getValue()).isEmpty()) {
+                // the placeholder of an empty page
+                continue;
+            }
+
+            if (!(element instanceof PersistentEntityResource)) {
+                return null;
+            }
+
+            Object entity = ((PersistentEntityResource) element).getContent();
+            PersistentEntity<?, ? extends PersistentProperty<?>> persistentEntity =
+                ((PersistentEntityResource) element).getPersistentEntity();
+
+            if (!persistentEntity.hasVersionProperty() || !persistentEntity.getType().isInstance(entity)) {
+                return null;
+            }
+
+            digested.append('|').
+                append(persistentEntity.getIdentifierAccessor(entity).getIdentifier()).append(':').
+                append(persistentEntity.getPropertyAccessor(entity).getProperty(persistentEntity.getVersionProperty()));
+        }
+
+        return "\"" + DigestUtils.md5DigestAsHex(digested.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,130 @@
+package com.elementalsource.example.securitydatarest.conditional;
+
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Answers conditional GET requests on the employee and item resources from their versions alone.
+ * <p>
+ * Item resources carry the entity version as ETag, see Spring Data REST. If the client already has that version,
+ * this filter answers 304 after looking up the version, without loading the entity. Collection resources are tagged
+ * by the {@link CollectionTagAdvice} instead.
+ * <p>
+ * Runs after the Spring Security filter chain, and reads the versions through the repositories, so both the URL rules
+ * and the method-level security apply. Requests that are denied are passed on unanswered.
+ */
+@Component
+public class ConditionalRequestFilter extends OncePerRequestFilter {
+
+    private static final Pattern RESOURCE = Pattern.compile("/([^/]+)/(\\d+)");
+
+    private final Map<String, Function<Long, Long>> versions = new HashMap<>();
+    private final String basePath;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Autowired
+    public ConditionalRequestFilter(EmployeeRepository employeeRepository, ItemRepository itemRepository,
+        RepositoryRestConfiguration configuration) {
+
+        this.versions.put("employees", employeeRepository::findVersionById);
+        this.versions.put("items", itemRepository::findVersionById);
+
+        this.basePath = StringUtils.trimTrailingCharacter(configuration.getBasePath().toString(), '/');
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.filter.OncePerRequestFilter#shouldNotFilter(javax.servlet.http.HttpServletRequest)
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+
+        String path = urlPathHelper.getPathWithinApplication(request);
+        Matcher matcher = path.startsWith(basePath) ? RESOURCE.matcher(path.substring(basePath.length())) : null;
+        Function<Long, Long> lookup = matcher != null && matcher.matches() ? versions.get(matcher.group(1)) : null;
+
+        if (lookup != null) {
+            try {
+                if (notModified(lookup, Long.valueOf(matcher.group(2)), request, response)) {
+                    return;
+                }
+            } catch (AccessDeniedException | AuthenticationException e) {
+                // leave it to the controller to fail the same way
+            }
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Answers 304 if the client has the current version of the entity. Otherwise, Spring Data REST takes care of the
+     * ETag and Last-Modified headers.
+     */
+    private static boolean notModified(Function<Long, Long> versions, Long id, HttpServletRequest request,
+        HttpServletResponse response) {
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        Long version = versions.apply(id);
+        String tag = "\"" + version + "\"";
+
+        if (version == null || !matches(ifNoneMatch, tag)) {
+            return false;
+        }
+
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        response.setHeader(HttpHeaders.ETAG, tag);
+        return true;
+    }
+
+    /**
+     * @return whether the {@code If-None-Match} header lists the given tag, weak or strong, or {@code *}.
+     */
+    static boolean matches(String ifNoneMatch, String tag) {
+
+        for (String candidate : StringUtils.commaDelimitedListToStringArray(ifNoneMatch)) {
+
+            candidate = candidate.trim();
+
+            if (candidate.equals("*") || candidate.equals(tag) || candidate.equals("W/" + tag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
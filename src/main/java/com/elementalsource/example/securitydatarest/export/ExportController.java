@@ -0,0 +1,41 @@
+package com.elementalsource.example.securitydatarest.export;
+
+import java.io.IOException;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.web.bind.annotation.GetMapping;
+
+/**
+ * Streams full dumps of the repositories as newline-delimited JSON, next to their collection resources.
+ * <p>
+ * Access is governed by the same rules as the collection resources: the URL rules of
+ * {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration} and the method-level security
+ * of the repositories.
+ */
+@RepositoryRestController
+public class ExportController {
+
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private final NdjsonExporter exporter;
+
+    @Autowired
+    public ExportController(NdjsonExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @GetMapping("/employees/export")
+    public void exportEmployees(HttpServletResponse response) throws IOException {
+
+        response.setContentType(NDJSON_VALUE);
+        exporter.exportEmployees(response.getOutputStream());
+    }
+
+    @GetMapping("/items/export")
+    public void exportItems(HttpServletResponse response) throws IOException {
+
+        response.setContentType(NDJSON_VALUE);
+        exporter.exportItems(response.getOutputStream());
+    }
+}
@@ -0,0 +1,105 @@
+package com.elementalsource.example.securitydatarest.export;
+
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes whole tables as newline-delimited JSON, one entity per line.
+ * <p>
+ * Entities are read through a database cursor and detached as soon as they are written, and the output is flushed
+ * every {@link #FLUSH_INTERVAL} lines, so memory use does not depend on the size of the table. They are not put into
+ * the second-level cache either, which would only evict the entities actually in use.
+ */
+@Service
+public class NdjsonExporter {
+
+    static final int FLUSH_INTERVAL = 500;
+
+    private final EmployeeRepository employeeRepository;
+    private final ItemRepository itemRepository;
+    private final ObjectWriter writer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public NdjsonExporter(EmployeeRepository employeeRepository, ItemRepository itemRepository,
+        Jackson2ObjectMapperBuilder objectMapperBuilder) {
+
+        this.employeeRepository = employeeRepository;
+        this.itemRepository = itemRepository;
+        this.writer = objectMapperBuilder.build().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes all employees to the given stream.
+     *
+     * @return the number of employees written.
+     */
+    @Transactional(readOnly = true)
+    public long exportEmployees(OutputStream out) throws IOException {
+
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        try (Stream<?> employees = employeeRepository.streamAll()) {
+            return write(employees, out);
+        }
+    }
+
+    /**
+     * Writes all items to the given stream. Requires the same privileges as reading them through
+     * {@link ItemRepository}.
+     *
+     * @return the number of items written.
+     */
+    @Transactional(readOnly = true)
+    public long exportItems(OutputStream out) throws IOException {
+
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        try (Stream<?> items = itemRepository.streamAll()) {
+            return write(items, out);
+        }
+    }
+
+    private long write(Stream<?> entities, OutputStream out) throws IOException {
+
+        long count = 0;
+
+        try (JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            for (Iterator<?> iterator = entities.iterator(); iterator.hasNext(); ) {
+
+                Object entity = iterator.next();
+
+                writer.writeValue(generator, entity);
+                generator.writeRaw('\n');
+                entityManager.detach(entity);
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+
+        return count;
+    }
+}
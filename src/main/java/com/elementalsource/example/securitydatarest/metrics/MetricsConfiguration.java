@@ -0,0 +1,63 @@
+package com.elementalsource.example.securitydatarest.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.util.List;
+import java.util.ListIterator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurerAdapter;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+
+/**
+ * Sets up the {@link MeterRegistry} and instruments the repositories and the HAL rendering of Spring Data REST.
+ * <p>
+ * Authentication and authorization are timed by
+ * {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration} and
+ * {@link com.elementalsource.example.securitydatarest.security.MethodSecurityConfiguration}. Everything is served in
+ * the Prometheus format by the {@link MetricsController}.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public PrometheusMeterRegistry meterRegistry() {
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    @Bean
+    public RepositoryMetricsAspect repositoryMetricsAspect(MeterRegistry meterRegistry) {
+        return new RepositoryMetricsAspect(meterRegistry);
+    }
+
+    /**
+     * Wraps the HAL converters of Spring Data REST, so the time spent rendering its responses is recorded.
+     */
+    @Bean
+    public RepositoryRestConfigurer serializationMetricsConfigurer(final MeterRegistry meterRegistry) {
+
+        return new RepositoryRestConfigurerAdapter() {
+
+            @Override
+            public void configureHttpMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+
+                for (ListIterator<HttpMessageConverter<?>> iterator = messageConverters.listIterator();
+                    iterator.hasNext(); ) {
+
+                    HttpMessageConverter<?> converter = iterator.next();
+
+                    if (converter instanceof TypeConstrainedMappingJackson2HttpMessageConverter
+                        && converter.getSupportedMediaTypes().contains(MediaTypes.HAL_JSON)) {
+
+                        iterator.set(new TimedHalHttpMessageConverter(
+                            (TypeConstrainedMappingJackson2HttpMessageConverter) converter, meterRegistry));
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.elementalsource.example.securitydatarest.metrics;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves all metrics in the Prometheus text format.
+ * <p>
+ * Restricted to ROLE_ADMIN by the URL rules of
+ * {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration}.
+ */
+@RestController
+public class MetricsController {
+
+    private final PrometheusMeterRegistry registry;
+
+    @Autowired
+    public MetricsController(PrometheusMeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @GetMapping(path = "/metrics", produces = TextFormat.CONTENT_TYPE_004)
+    public String scrape() {
+        return registry.scrape();
+    }
+}
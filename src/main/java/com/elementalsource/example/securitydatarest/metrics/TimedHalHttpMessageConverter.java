@@ -0,0 +1,56 @@
+package com.elementalsource.example.securitydatarest.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.hateoas.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+/**
+ * Replacement for a HAL converter of Spring Data REST which records the time it takes to write a response body as
+ * {@value #METRIC}. As the body is written straight to the response, this includes the time to hand it to the
+ * container.
+ * <p>
+ * Extends rather than wraps the original, as Spring HATEOAS adds a HAL converter of its own unless it finds a
+ * {@link TypeConstrainedMappingJackson2HttpMessageConverter}.
+ */
+class TimedHalHttpMessageConverter extends TypeConstrainedMappingJackson2HttpMessageConverter {
+
+    static final String METRIC = "http.serialization";
+
+    private final Timer timer;
+
+    TimedHalHttpMessageConverter(TypeConstrainedMappingJackson2HttpMessageConverter original,
+        MeterRegistry registry) {
+
+        super(ResourceSupport.class);
+
+        setObjectMapper(original.getObjectMapper());
+        setSupportedMediaTypes(original.getSupportedMediaTypes());
+
+        this.timer = Timer.builder(METRIC).tag("mediaType", MediaTypes.HAL_JSON_VALUE).publishPercentileHistogram().
+            register(registry);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter#writeInternal(java.lang.Object, java.lang.reflect.Type, org.springframework.http.HttpOutputMessage)
+     */
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+        throws IOException, HttpMessageNotWritableException {
+
+        long start = System.nanoTime();
+
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -16,27 +16,62 @@
 package com.elementalsource.example.securitydatarest.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.Date;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Version;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.Filter;
+import org.springframework.data.annotation.LastModifiedDate;
 
 /**
- * Domain object for an employee.
+ * Domain object for an employee. Last name and title are indexed for the searches of
+ * {@link com.elementalsource.example.securitydatarest.repository.EmployeeRepository}. An employee assigned to a user is
+ * only seen by that user and admins, see {@link Owned}.
  *
  * @author Greg Turnquist
  */
 @Data
 @Entity
+@Table(indexes = {
+    @Index(name = "ix_employee_last_name", columnList = "lastName"),
+    @Index(name = "ix_employee_title", columnList = "title"),
+    @Index(name = "ix_employee_owner", columnList = "owner, id")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(LastModifiedListener.class)
+@Filter(name = Owned.FILTER, condition = Owned.CONDITION)
 @RequiredArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class Employee {
+public class Employee implements Timestamped, Owned {
 
     private @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
     Long id;
     private final String firstName, lastName, title;
+    private @Version
+    Long version;
+    private @Column(columnDefinition = "varchar(255) default '' not null")
+    @ColumnTransformer(read = "nullif(owner, '')", write = "coalesce(?, '')")
+    String owner;
+    private @LastModifiedDate
+    @Temporal(TemporalType.TIMESTAMP)
+    Date lastModified;
 
     Employee() {
         this.firstName = null;
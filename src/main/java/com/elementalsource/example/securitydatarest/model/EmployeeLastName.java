@@ -0,0 +1,12 @@
+package com.elementalsource.example.securitydatarest.model;
+
+import org.springframework.data.rest.core.config.Projection;
+
+/**
+ * Only the last name of an employee, selected with {@code ?projection=lastName}.
+ */
+@Projection(name = "lastName", types = Employee.class)
+public interface EmployeeLastName {
+
+    String getLastName();
+}
@@ -0,0 +1,14 @@
+package com.elementalsource.example.securitydatarest.model;
+
+import org.springframework.data.rest.core.config.Projection;
+
+/**
+ * Only the name of an employee, selected with {@code ?projection=name}.
+ */
+@Projection(name = "name", types = Employee.class)
+public interface EmployeeName {
+
+    String getFirstName();
+
+    String getLastName();
+}
@@ -15,27 +15,61 @@
  */
 package com.elementalsource.example.securitydatarest.model;
 
+import java.util.Date;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Version;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.Filter;
+import org.springframework.data.annotation.LastModifiedDate;
 
 /**
- * Domain object for an item managed by the company.
+ * Domain object for an item managed by the company. The description is indexed, which serves both exact and prefix
+ * searches of {@link com.elementalsource.example.securitydatarest.repository.ItemRepository}. An item assigned to a user
+ * is only seen by that user and admins, see {@link Owned}.
  *
  * @author Greg Turnquist
  * @author Oliver Gierke
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "ix_item_description", columnList = "description"),
+    @Index(name = "ix_item_owner", columnList = "owner, id")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(LastModifiedListener.class)
+@Filter(name = Owned.FILTER, condition = Owned.CONDITION)
 @Data
 @RequiredArgsConstructor
-public class Item {
+public class Item implements Timestamped, Owned {
 
     private @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     Long id;
     private final String description;
+    private @Version
+    Long version;
+    private @Column(columnDefinition = "varchar(255) default '' not null")
+    @ColumnTransformer(read = "nullif(owner, '')", write = "coalesce(?, '')")
+    String owner;
+    private @LastModifiedDate
+    @Temporal(TemporalType.TIMESTAMP)
+    Date lastModified;
 
     Item() {
         this.description = null;
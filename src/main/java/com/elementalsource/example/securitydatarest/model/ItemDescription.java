@@ -0,0 +1,13 @@
+package com.elementalsource.example.securitydatarest.model;
+
+import org.springframework.data.rest.core.config.Projection;
+
+/**
+ * Only the description of an item, without its version and modification date, selected with
+ * {@code ?projection=description}.
+ */
+@Projection(name = "description", types = Item.class)
+public interface ItemDescription {
+
+    String getDescription();
+}
@@ -0,0 +1,21 @@
+package com.elementalsource.example.securitydatarest.model;
+
+import java.util.Date;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * Sets the {@code @LastModifiedDate} of {@link Timestamped} entities whenever they are stored.
+ * <p>
+ * Replaces Spring Data's {@code AuditingEntityListener}, which builds a conversion service of its own for every
+ * entity it touches and so dominated the cost of bulk inserts. The annotation stays, as Spring Data REST reads it for
+ * the {@code Last-Modified} header.
+ */
+public class LastModifiedListener {
+
+    @PrePersist
+    @PreUpdate
+    public void touch(Timestamped entity) {
+        entity.setLastModified(new Date());
+    }
+}
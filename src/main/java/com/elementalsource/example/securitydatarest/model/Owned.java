@@ -0,0 +1,26 @@
+package com.elementalsource.example.securitydatarest.model;
+
+/**
+ * An entity which can be assigned to a user, who is then the only one besides the unrestricted ones allowed to see it.
+ * Entities assigned to no one are seen by everyone.
+ * <p>
+ * Visibility is enforced by the Hibernate filter {@value #FILTER}, which adds its condition to the SQL of every query
+ * of the entity. Unassigned rows hold an empty owner rather than {@literal null}, so the condition is a single
+ * {@code in} the index on the owner serves, while the entity still reports {@literal null}.
+ *
+ * @see com.elementalsource.example.securitydatarest.security.OwnerRestriction
+ */
+public interface Owned {
+
+    /**
+     * Name of the filter, and of its parameter, the username of the caller.
+     */
+    String FILTER = "owner";
+
+    String CONDITION = "owner in ('', :owner)";
+
+    /**
+     * @return the username of the user the entity is assigned to, {@literal null} if it is assigned to no one.
+     */
+    String getOwner();
+}
@@ -0,0 +1,11 @@
+package com.elementalsource.example.securitydatarest.model;
+
+import java.util.Date;
+
+/**
+ * An entity which keeps the time it was last stored, set by the {@link LastModifiedListener}.
+ */
+public interface Timestamped {
+
+    void setLastModified(Date lastModified);
+}
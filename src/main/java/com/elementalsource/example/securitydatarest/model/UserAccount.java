@@ -0,0 +1,75 @@
+package com.elementalsource.example.securitydatarest.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import javax.persistence.Cacheable;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Version;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.springframework.data.annotation.LastModifiedDate;
+
+/**
+ * Account of a user who can authenticate against the application. The username is its immutable natural id, backed by
+ * a unique index and the natural id cache, so it is looked up without scanning the table. Roles are given without the
+ * {@code ROLE_} prefix, e.g. {@code USER} or {@code ADMIN}.
+ */
+@Data
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+@EntityListeners(LastModifiedListener.class)
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserAccount implements Timestamped {
+
+    private @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_account_seq")
+    @SequenceGenerator(name = "user_account_seq", sequenceName = "user_account_seq", allocationSize = 50)
+    Long id;
+    private @NaturalId
+    @Column(nullable = false, unique = true)
+    String username;
+    private @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    String password;
+    private boolean enabled = true;
+    private @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "user_account_role", joinColumns = @JoinColumn(name = "user_account_id"),
+        indexes = @Index(name = "ix_user_account_role_user_account", columnList = "user_account_id"))
+    @Column(name = "role", nullable = false)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    Set<String> roles = new HashSet<>();
+    private @Version
+    Long version;
+    private @LastModifiedDate
+    @Temporal(TemporalType.TIMESTAMP)
+    Date lastModified;
+
+    public UserAccount(String username, String password, String... roles) {
+        this.username = username;
+        this.password = password;
+        this.roles.addAll(Arrays.asList(roles));
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * The entities of the application.
+ */
+@FilterDef(name = Owned.FILTER, parameters = @ParamDef(name = Owned.FILTER, type = "string"))
+package com.elementalsource.example.securitydatarest.model;
+
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
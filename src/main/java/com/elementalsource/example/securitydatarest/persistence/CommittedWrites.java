@@ -0,0 +1,106 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Tells the {@link ReplicaRoutingDataSource} which entities were written once their transaction committed, so it only
+ * drops the cached queries of those. Bulk updates and deletes of JPQL queries bypass the entities and are not told.
+ * <p>
+ * Registers itself with Hibernate as soon as the {@link EntityManagerFactory} is created. The data source is only
+ * looked up with the first write.
+ */
+public class CommittedWrites implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+    PostCommitDeleteEventListener, BeanPostProcessor {
+
+    private final transient ObjectFactory<ReplicaRoutingDataSource> dataSourceFactory;
+
+    private transient volatile ReplicaRoutingDataSource dataSource;
+
+    public CommittedWrites(ObjectFactory<ReplicaRoutingDataSource> dataSourceFactory) {
+        this.dataSourceFactory = dataSourceFactory;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessBeforeInitialization(java.lang.Object, java.lang.String)
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessAfterInitialization(java.lang.Object, java.lang.String)
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (bean instanceof EntityManagerFactory) {
+
+            EventListenerRegistry registry = ((EntityManagerFactory) bean).unwrap(SessionFactoryImplementor.class).
+                getServiceRegistry().getService(EventListenerRegistry.class);
+
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        }
+        return bean;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.hibernate.event.spi.PostInsertEventListener#requiresPostCommitHanding(org.hibernate.persister.entity.EntityPersister)
+     */
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        dataSource().committed(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        dataSource().committed(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        dataSource().committed(event.getPersister().getEntityName());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+
+    private ReplicaRoutingDataSource dataSource() {
+
+        ReplicaRoutingDataSource dataSource = this.dataSource;
+
+        if (dataSource == null) {
+            dataSource = dataSourceFactory.getObject();
+            this.dataSource = dataSource;
+        }
+        return dataSource;
+    }
+}
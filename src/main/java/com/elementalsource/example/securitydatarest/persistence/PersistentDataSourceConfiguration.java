@@ -0,0 +1,25 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Replaces the in-memory database with the file-based one configured in the {@code persistent} profile of
+ * {@code application.yml}, pooled by a {@link TimedDataSource}.
+ * <p>
+ * The pool is configured through the same {@code spring.datasource.tomcat} properties Spring Boot uses for its own
+ * Tomcat pool.
+ */
+@Configuration
+@Profile("persistent")
+public class PersistentDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.tomcat")
+    public TimedDataSource dataSource(DataSourceProperties properties) {
+        return (TimedDataSource) properties.initializeDataSourceBuilder().type(TimedDataSource.class).build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposes the state of the connection pool, and of the pools of the replicas if there are any. Wait times are only
+ * available with a {@link TimedDataSource}, i.e. in the {@code persistent} profile.
+ * <p>
+ * Restricted to ROLE_ADMIN by the URL rules of
+ * {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration}.
+ */
+@RestController
+public class PoolStatisticsController {
+
+    private final DataSource dataSource;
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    public PoolStatisticsController(DataSource dataSource,
+        ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+
+        this.dataSource = dataSource;
+        this.replicaRoutingDataSource = replicaRoutingDataSource.getIfAvailable();
+    }
+
+    @GetMapping("/pool/stats")
+    public Map<String, Object> statistics() {
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("maxActive", dataSource.getMaxActive());
+        result.put("size", dataSource.getSize());
+        result.put("active", dataSource.getActive());
+        result.put("idle", dataSource.getIdle());
+        result.put("waiting", dataSource.getWaitCount());
+        result.put("borrowed", dataSource.getBorrowedCount());
+        result.put("created", dataSource.getCreatedCount());
+
+        if (dataSource instanceof TimedDataSource) {
+
+            TimedDataSource timed = (TimedDataSource) dataSource;
+
+            result.put("peakActive", timed.getPeakActive());
+            result.put("failures", timed.getFailureCount());
+            result.put("averageWaitMillis", timed.getAverageWaitMillis());
+            result.put("maxWaitMillis", timed.getMaxWaitMillis());
+        }
+
+        if (replicaRoutingDataSource != null) {
+
+            Map<String, Object> replicas = new LinkedHashMap<>();
+
+            for (ReplicaRoutingDataSource.Replica replica : replicaRoutingDataSource.getReplicas()) {
+
+                Map<String, Object> statistics = new LinkedHashMap<>();
+                statistics.put("healthy", replica.isHealthy());
+                statistics.put("size", replica.getDataSource().getSize());
+                statistics.put("active", replica.getDataSource().getActive());
+                statistics.put("idle", replica.getDataSource().getIdle());
+
+                replicas.put(replica.getName(), statistics);
+            }
+
+            result.put("replicas", replicas);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Serves read-only transactions from the replicas of the database of the {@code persistent} profile, only if
+ * {@code app.replicas.enabled} is set.
+ * <p>
+ * The pool of the primary database remains the {@code dataSource} bean, while JPA, Flyway and the {@code JdbcTemplate}
+ * use the {@link ReplicaRoutingDataSource}, so anything outside of read-only transactions keeps using the primary
+ * database. The replicas are pooled with the settings of the primary database.
+ */
+@Configuration
+@Profile("persistent")
+@ConditionalOnProperty(prefix = "app.replicas", name = "enabled")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfiguration {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(TimedDataSource dataSource,
+        DataSourceProperties dataSourceProperties, ReplicaProperties properties,
+        ObjectFactory<EntityManagerFactory> entityManagerFactory, MeterRegistry meterRegistry) {
+
+        Assert.notEmpty(properties.getDatasources(), "At least one replica must be configured!");
+
+        List<org.apache.tomcat.jdbc.pool.DataSource> replicas = new ArrayList<>();
+
+        for (ReplicaProperties.Replica replica : properties.getDatasources()) {
+
+            org.apache.tomcat.jdbc.pool.DataSource pool = (org.apache.tomcat.jdbc.pool.DataSource) DataSourceBuilder.
+                create(getClass().getClassLoader()).
+                type(org.apache.tomcat.jdbc.pool.DataSource.class).
+                url(replica.getUrl()).
+                username(StringUtils.hasText(replica.getUsername())
+                    ? replica.getUsername()
+                    : dataSourceProperties.determineUsername()).
+                password(StringUtils.hasText(replica.getPassword())
+                    ? replica.getPassword()
+                    : dataSourceProperties.determinePassword()).
+                build();
+
+            pool.setName("replica" + replicas.size());
+            pool.setInitialSize(dataSource.getInitialSize());
+            pool.setMinIdle(dataSource.getMinIdle());
+            pool.setMaxIdle(dataSource.getMaxIdle());
+            pool.setMaxActive(dataSource.getMaxActive());
+            pool.setMaxWait(dataSource.getMaxWait());
+            pool.setTestOnBorrow(dataSource.isTestOnBorrow());
+            pool.setValidationQuery(dataSource.getValidationQuery());
+            pool.setValidationInterval(dataSource.getValidationInterval());
+            pool.setJdbcInterceptors(dataSource.getJdbcInterceptors());
+
+            replicas.add(pool);
+        }
+
+        return new ReplicaRoutingDataSource(dataSource, replicas, properties, entityManagerFactory, meterRegistry);
+    }
+
+    /**
+     * Static, as it post-processes the {@link EntityManagerFactory}. The data source is looked up when the first write
+     * commits.
+     */
+    @Bean
+    public static CommittedWrites committedWrites(ObjectFactory<ReplicaRoutingDataSource> replicaRoutingDataSource) {
+        return new CommittedWrites(replicaRoutingDataSource);
+    }
+
+    /**
+     * Takes connections with the first statement of a transaction, once it is known whether it is read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource routingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,62 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the read replicas, see {@link ReplicaConfiguration}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.replicas")
+public class ReplicaProperties {
+
+    /**
+     * Whether read-only transactions are served by the replicas.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The replicas, pooled like the primary database.
+     */
+    private List<Replica> datasources = new ArrayList<>();
+
+    /**
+     * Whether principals read from the primary database for a while after their own writes, so they do not miss them on
+     * a replica which lags behind.
+     */
+    private boolean readYourWrites = true;
+
+    /**
+     * Milliseconds principals read from the primary database after their last write, longer than the replicas lag
+     * behind.
+     */
+    private long readYourWritesWindow = 5000;
+
+    /**
+     * Milliseconds between checking whether the replicas are reachable.
+     */
+    private long healthCheckInterval = 1000;
+
+    /**
+     * Seconds a replica has to answer a health check.
+     */
+    private int healthCheckTimeout = 1;
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        /**
+         * The user of the primary database if empty.
+         */
+        private String username;
+
+        /**
+         * The password of the primary database if empty.
+         */
+        private String password;
+    }
+}
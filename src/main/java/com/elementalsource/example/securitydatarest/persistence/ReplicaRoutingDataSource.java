@@ -0,0 +1,306 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out connections to the replicas for read-only transactions and to the primary database for everything else.
+ * Connections handed out are counted in {@value #METRIC}, tagged with the {@code target} they were taken from, and the
+ * reachable replicas in {@value #HEALTHY_METRIC}.
+ * <p>
+ * The replicas take turns, skipping the ones a thread of its own found unreachable, and the primary database serves the
+ * reads while none is left. A principal whose write committed recently reads from the primary database, as long as
+ * {@link ReplicaProperties#isReadYourWrites() read-your-writes} is on. Other principals may read from a replica which
+ * did not see a write yet, and the query cache would keep what they read, so the cached queries of an entity type are
+ * dropped once the replicas caught up, the read-your-writes window after the last write of that type, as told by
+ * {@link CommittedWrites}. The cached queries of each type are kept in a region of their own, named after the entity
+ * with {@value #QUERY_REGION_SUFFIX} appended. Transactions take their connection when they
+ * begin, before they are marked read-only, so this data source is only useful behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers that to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    static final String METRIC = "datasource.connections";
+    static final String HEALTHY_METRIC = "datasource.replicas.healthy";
+    static final String PRIMARY = "primary";
+    static final String QUERY_REGION_SUFFIX = ".queries";
+
+    private static final Log log = LogFactory.getLog(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final boolean readYourWrites;
+    private final long readYourWritesWindow;
+    private final long healthCheckInterval;
+    private final int healthCheckTimeout;
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    // when the query regions are due to be dropped
+    private final ConcurrentMap<String, Long> queryEvictions = new ConcurrentHashMap<>();
+    private final ObjectFactory<EntityManagerFactory> entityManagerFactory;
+    private final Counter primaryConnections;
+    private final Thread healthChecker;
+
+    private volatile boolean stopping;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<org.apache.tomcat.jdbc.pool.DataSource> replicas,
+        ReplicaProperties properties, ObjectFactory<EntityManagerFactory> entityManagerFactory,
+        MeterRegistry registry) {
+
+        this.primary = primary;
+        this.entityManagerFactory = entityManagerFactory;
+        this.readYourWrites = properties.isReadYourWrites();
+        this.readYourWritesWindow = TimeUnit.MILLISECONDS.toNanos(properties.getReadYourWritesWindow());
+        this.healthCheckInterval = TimeUnit.MILLISECONDS.toNanos(properties.getHealthCheckInterval());
+        this.healthCheckTimeout = properties.getHealthCheckTimeout();
+        this.primaryConnections = registry.counter(METRIC, "target", PRIMARY);
+
+        List<Replica> targets = new ArrayList<>();
+        for (org.apache.tomcat.jdbc.pool.DataSource replica : replicas) {
+            targets.add(new Replica(replica, registry.counter(METRIC, "target", replica.getName())));
+        }
+        this.replicas = Collections.unmodifiableList(targets);
+
+        registry.gauge(HEALTHY_METRIC, this.replicas, it -> it.stream().filter(Replica::isHealthy).count());
+
+        this.healthChecker = new Thread(this::run, "replica-health");
+        this.healthChecker.setDaemon(true);
+        this.healthChecker.start();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see javax.sql.DataSource#getConnection()
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see javax.sql.DataSource#getConnection(java.lang.String, java.lang.String)
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * @return the replicas, in the order they take turns.
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Closes the pools of the replicas.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+
+        stopping = true;
+        LockSupport.unpark(healthChecker);
+        healthChecker.join(TimeUnit.SECONDS.toMillis(10));
+
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    /**
+     * Drops the cached queries of the given entity once the replicas caught up with the write that just committed.
+     *
+     * @param entityName the name of the entity written, its class name unless mapped otherwise.
+     */
+    void committed(String entityName) {
+        queryEvictions.put(entityName + QUERY_REGION_SUFFIX, System.nanoTime() + readYourWritesWindow);
+    }
+
+    private Connection connect(Connector connector) throws SQLException {
+
+        if (readsFromReplica()) {
+            for (int i = 0; i < replicas.size(); i++) {
+
+                Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+
+                if (replica.healthy) {
+                    try {
+                        Connection connection = connector.connect(replica.dataSource);
+                        replica.connections.increment();
+                        return connection;
+                    } catch (SQLException e) {
+                        replica.failed(e);
+                    }
+                }
+            }
+        }
+
+        Connection connection = connector.connect(primary);
+        primaryConnections.increment();
+        return connection;
+    }
+
+    /**
+     * Decides for read-only transactions, unless the principal wrote recently. Remembers when their writes commit.
+     */
+    private boolean readsFromReplica() {
+
+        String principal = readYourWrites ? principal() : null;
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+
+            if (principal != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                    @Override
+                    public void afterCommit() {
+                        lastWrites.put(principal, System.nanoTime());
+                    }
+                });
+            }
+            return false;
+        }
+
+        Long lastWrite = principal == null ? null : lastWrites.get(principal);
+
+        return lastWrite == null || System.nanoTime() - lastWrite > readYourWritesWindow;
+    }
+
+    private static String principal() {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+            ? null
+            : authentication.getName();
+    }
+
+    private void run() {
+
+        while (!stopping) {
+
+            for (Replica replica : replicas) {
+                replica.check(healthCheckTimeout);
+            }
+
+            long now = System.nanoTime();
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite > readYourWritesWindow);
+
+            evictQueryRegions(now);
+
+            LockSupport.parkNanos(this, healthCheckInterval);
+        }
+    }
+
+    private void evictQueryRegions(long now) {
+
+        Cache cache = null;
+
+        for (Map.Entry<String, Long> eviction : queryEvictions.entrySet()) {
+
+            long due = eviction.getValue();
+
+            if (now - due >= 0 && queryEvictions.remove(eviction.getKey(), due)) {
+                try {
+                    if (cache == null) {
+                        cache = entityManagerFactory.getObject().unwrap(SessionFactory.class).getCache();
+                    }
+                    cache.evictQueryRegion(eviction.getKey());
+                } catch (RuntimeException e) {
+                    log.warn("Unable to drop the cached queries of " + eviction.getKey(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a connection from a data source, with or without credentials.
+     */
+    private interface Connector {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    /**
+     * A replica and whether it was reachable when last used or checked.
+     */
+    public static class Replica {
+
+        private final org.apache.tomcat.jdbc.pool.DataSource dataSource;
+        private final Counter connections;
+
+        private volatile boolean healthy = true;
+
+        Replica(org.apache.tomcat.jdbc.pool.DataSource dataSource, Counter connections) {
+
+            this.dataSource = dataSource;
+            this.connections = connections;
+        }
+
+        public String getName() {
+            return dataSource.getName();
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public org.apache.tomcat.jdbc.pool.DataSource getDataSource() {
+            return dataSource;
+        }
+
+        void check(int timeout) {
+
+            try (Connection connection = dataSource.getConnection()) {
+
+                if (connection.isValid(timeout)) {
+                    if (!healthy) {
+                        log.info("Replica " + getName() + " is reachable again");
+                        this.healthy = true;
+                    }
+                } else {
+                    failed(new SQLException("Connection is not valid"));
+                }
+            } catch (SQLException e) {
+                failed(e);
+            }
+        }
+
+        /**
+         * Takes the replica out of turn until a health check succeeds, and drops its pooled connections, which are
+         * most likely broken as well.
+         */
+        void failed(SQLException e) {
+
+            if (healthy) {
+                log.warn("Replica " + getName() + " is unreachable, reading from the others", e);
+                this.healthy = false;
+            }
+            dataSource.purge();
+        }
+    }
+}
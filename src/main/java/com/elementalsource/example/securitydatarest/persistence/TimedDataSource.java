@@ -0,0 +1,84 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.tomcat.jdbc.pool.DataSource;
+
+/**
+ * Tomcat JDBC pool which also records how long callers wait for a connection, and how many of them give up.
+ * <p>
+ * The pool itself only counts the callers waiting right now, see {@link #getWaitCount()}.
+ */
+public class TimedDataSource extends DataSource {
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator peakActive = new LongAccumulator(Math::max, 0);
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.tomcat.jdbc.pool.DataSourceProxy#getConnection()
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        long start = System.nanoTime();
+
+        try {
+            Connection connection = super.getConnection();
+            acquisitions.increment();
+            peakActive.accumulate(getActive());
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulate(waited);
+        }
+    }
+
+    /**
+     * @return the number of connections handed out by {@link #getConnection()}.
+     */
+    public long getAcquisitionCount() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * @return the number of calls to {@link #getConnection()} that failed, mostly because the pool stayed exhausted
+     * for longer than {@link #getMaxWait()}.
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the average time a call to {@link #getConnection()} took, in milliseconds.
+     */
+    public double getAverageWaitMillis() {
+
+        long calls = acquisitions.sum() + failures.sum();
+        return calls == 0 ? 0 : totalWaitNanos.sum() / (double) calls / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the longest time a call to {@link #getConnection()} took, in milliseconds.
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the highest number of connections that were in use at the same time.
+     */
+    public long getPeakActive() {
+        return peakActive.get();
+    }
+}
@@ -0,0 +1,206 @@
+package com.elementalsource.example.securitydatarest.projection;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.hateoas.Link;
+
+/**
+ * Writes employees and items rendered by Spring Data REST straight to the generator, byte for byte like the serializer
+ * of Spring Data REST it replaces. That one collects the links of every entity anew, wraps entity and links into a
+ * resource of their own and has Jackson introspect both, while this one writes the properties with pre-encoded names and
+ * the links the resource already carries.
+ * <p>
+ * Everything else is handed to the original serializer: other entities, projections, nested and embedded resources,
+ * resources with several links of the same relation, which HAL renders as arrays, and requests for sparse fields.
+ */
+@SuppressWarnings("serial")
+class DirectEntityResourceSerializer extends StdSerializer<PersistentEntityResource> {
+
+    private static final SerializableString LINKS = new SerializedString("_links");
+    private static final SerializableString HREF = new SerializedString("href");
+    private static final SerializableString TEMPLATED = new SerializedString("templated");
+
+    private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializableString LAST_NAME = new SerializedString("lastName");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString OWNER = new SerializedString("owner");
+    private static final SerializableString LAST_MODIFIED = new SerializedString("lastModified");
+
+    private static final Map<Class<?>, PropertiesWriter> WRITERS = new HashMap<>();
+
+    static {
+        WRITERS.put(Employee.class, DirectEntityResourceSerializer::writeEmployee);
+        WRITERS.put(Item.class, DirectEntityResourceSerializer::writeItem);
+    }
+
+    private final JsonSerializer<Object> original;
+    private final Map<String, SerializableString> names = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    DirectEntityResourceSerializer(JsonSerializer<?> original) {
+
+        super(PersistentEntityResource.class);
+        this.original = (JsonSerializer<Object>) original;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.fasterxml.jackson.databind.ser.std.StdSerializer#serialize(java.lang.Object, com.fasterxml.jackson.core.JsonGenerator, com.fasterxml.jackson.databind.SerializerProvider)
+     */
+    @Override
+    public void serialize(PersistentEntityResource resource, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+
+        if (canWrite(resource)) {
+            write(resource, generator, provider);
+        } else {
+            original.serialize(resource, generator, provider);
+        }
+    }
+
+    /**
+     * Whether the resource is rendered directly, or by the serializer of Spring Data REST.
+     */
+    static boolean canWrite(Object resource) {
+
+        if (!(resource instanceof PersistentEntityResource)) {
+            return false;
+        }
+
+        PersistentEntityResource entityResource = (PersistentEntityResource) resource;
+
+        return WRITERS.containsKey(entityResource.getContent().getClass()) && !entityResource.isNested()
+            && !entityResource.getEmbeddeds().iterator().hasNext() && !hasRepeatedRel(entityResource.getLinks())
+            && !SparseFieldsFilter.isActive();
+    }
+
+    /**
+     * Writes a resource {@link #canWrite(Object) which can be written directly}.
+     */
+    void write(PersistentEntityResource resource, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+
+        Object content = resource.getContent();
+
+        generator.writeStartObject();
+        WRITERS.get(content.getClass()).write(content, generator, provider);
+        writeLinks(resource.getLinks(), generator);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the links as HAL does, as long as there is only one link per relation.
+     */
+    void writeLinks(List<Link> links, JsonGenerator generator) throws IOException {
+
+        generator.writeFieldName(LINKS);
+        generator.writeStartObject();
+
+        for (Link link : links) {
+
+            generator.writeFieldName(name(link.getRel()));
+            generator.writeStartObject();
+            generator.writeFieldName(HREF);
+            generator.writeString(link.getHref());
+
+            // only parses the template if there may be one
+            if (link.getHref().indexOf('{') >= 0 && link.isTemplated()) {
+                generator.writeFieldName(TEMPLATED);
+                generator.writeBoolean(true);
+            }
+            generator.writeEndObject();
+        }
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Pre-encodes a name which is not known in advance, like the relation of a link, once.
+     */
+    private SerializableString name(String name) {
+        return names.computeIfAbsent(name, SerializedString::new);
+    }
+
+    private static void writeEmployee(Object content, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+
+        Employee employee = (Employee) content;
+
+        writeString(FIRST_NAME, employee.getFirstName(), generator);
+        writeString(LAST_NAME, employee.getLastName(), generator);
+        writeString(TITLE, employee.getTitle(), generator);
+        writeString(OWNER, employee.getOwner(), generator);
+        writeDate(LAST_MODIFIED, employee.getLastModified(), generator, provider);
+    }
+
+    private static void writeItem(Object content, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+
+        Item item = (Item) content;
+
+        writeString(DESCRIPTION, item.getDescription(), generator);
+        writeString(OWNER, item.getOwner(), generator);
+        writeDate(LAST_MODIFIED, item.getLastModified(), generator, provider);
+    }
+
+    private static void writeString(SerializableString name, String value, JsonGenerator generator)
+        throws IOException {
+
+        generator.writeFieldName(name);
+
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    /**
+     * Writes the date the way the object mapper is configured to, as timestamp or formatted.
+     */
+    private static void writeDate(SerializableString name, Date value, JsonGenerator generator,
+        SerializerProvider provider) throws IOException {
+
+        generator.writeFieldName(name);
+
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            provider.defaultSerializeDateValue(value, generator);
+        }
+    }
+
+    static boolean hasRepeatedRel(List<Link> links) {
+
+        for (int i = 1; i < links.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                if (links.get(i).getRel().equals(links.get(j).getRel())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the properties of an entity, as Jackson would in the order they are declared in.
+     */
+    private interface PropertiesWriter {
+
+        void write(Object content, JsonGenerator generator, SerializerProvider provider) throws IOException;
+    }
+}
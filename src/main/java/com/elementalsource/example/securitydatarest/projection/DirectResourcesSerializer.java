@@ -0,0 +1,137 @@
+package com.elementalsource.example.securitydatarest.projection;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.PagedResources.PageMetadata;
+import org.springframework.hateoas.Resources;
+
+/**
+ * Writes collections of employees and items, pages and search results, straight to the generator, byte for byte like
+ * Spring HATEOAS. That one wraps every element to look up its relation, which costs more than rendering the element, while
+ * this one looks up the relation of the collection once and renders the elements with the
+ * {@link DirectEntityResourceSerializer} the object mapper uses for them.
+ * <p>
+ * Everything else is handed to the original serializer: empty collections, collections of other resources or of more
+ * than one type, and collections with elements the {@link DirectEntityResourceSerializer} does not render itself.
+ */
+@SuppressWarnings({ "serial", "rawtypes" })
+class DirectResourcesSerializer extends StdSerializer<Resources> {
+
+    private static final SerializableString EMBEDDED = new SerializedString("_embedded");
+    private static final SerializableString PAGE = new SerializedString("page");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializableString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializableString NUMBER = new SerializedString("number");
+
+    private final JsonSerializer<Object> original;
+    private final ObjectFactory<ResourceMappings> mappings;
+    private final Map<Class<?>, SerializableString> rels = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    DirectResourcesSerializer(JsonSerializer<?> original, ObjectFactory<ResourceMappings> mappings) {
+
+        super(Resources.class);
+        this.original = (JsonSerializer<Object>) original;
+        this.mappings = mappings;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.fasterxml.jackson.databind.ser.std.StdSerializer#serialize(java.lang.Object, com.fasterxml.jackson.core.JsonGenerator, com.fasterxml.jackson.databind.SerializerProvider)
+     */
+    @Override
+    public void serialize(Resources resources, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+
+        Class<?> type = elementType(resources);
+        JsonSerializer<?> elements = provider.findValueSerializer(PersistentEntityResource.class);
+
+        if (type == null || !(elements instanceof DirectEntityResourceSerializer)) {
+            original.serialize(resources, generator, provider);
+            return;
+        }
+
+        generator.writeStartObject();
+
+        generator.writeFieldName(EMBEDDED);
+        generator.writeStartObject();
+        generator.writeFieldName(rels.computeIfAbsent(type,
+            it -> new SerializedString(mappings.getObject().getMetadataFor(it).getRel())));
+        generator.writeStartArray();
+
+        DirectEntityResourceSerializer entities = (DirectEntityResourceSerializer) elements;
+
+        for (Object element : resources.getContent()) {
+            entities.write((PersistentEntityResource) element, generator, provider);
+        }
+
+        generator.writeEndArray();
+        generator.writeEndObject();
+
+        entities.writeLinks(resources.getLinks(), generator);
+
+        if (resources instanceof PagedResources) {
+
+            PageMetadata page = ((PagedResources) resources).getMetadata();
+
+            generator.writeFieldName(PAGE);
+            generator.writeStartObject();
+            generator.writeFieldName(SIZE);
+            generator.writeNumber(page.getSize());
+            generator.writeFieldName(TOTAL_ELEMENTS);
+            generator.writeNumber(page.getTotalElements());
+            generator.writeFieldName(TOTAL_PAGES);
+            generator.writeNumber(page.getTotalPages());
+            generator.writeFieldName(NUMBER);
+            generator.writeNumber(page.getNumber());
+            generator.writeEndObject();
+        }
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Returns the type of all elements if every element can be written directly, or {@literal null}.
+     */
+    private static Class<?> elementType(Resources resources) {
+
+        Collection<?> content = resources.getContent();
+
+        if (content.isEmpty() || resources.getLinks().isEmpty()
+            || DirectEntityResourceSerializer.hasRepeatedRel(resources.getLinks())
+            || resources instanceof PagedResources && ((PagedResources) resources).getMetadata() == null) {
+            return null;
+        }
+
+        Class<?> type = null;
+
+        for (Object element : content) {
+
+            if (!DirectEntityResourceSerializer.canWrite(element)) {
+                return null;
+            }
+
+            Class<?> elementType = ((PersistentEntityResource) element).getContent().getClass();
+
+            if (type == null) {
+                type = elementType;
+            } else if (type != elementType) {
+                return null;
+            }
+        }
+        return type;
+    }
+}
@@ -0,0 +1,110 @@
+package com.elementalsource.example.securitydatarest.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import javax.persistence.Entity;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurerAdapter;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.Resources;
+
+/**
+ * Lets clients slim down the entities Spring Data REST renders: either with one of the projections next to the
+ * entities, e.g. {@code ?projection=lastName}, or by naming the properties they need, e.g. {@code ?fields=lastName}.
+ */
+@Configuration
+public class ProjectionConfiguration {
+
+    /**
+     * Puts the {@link SparseFieldsFilter} on all entities rendered by Spring Data REST. Other object mappers, like the
+     * one of the NDJSON export, are left alone.
+     */
+    @Bean
+    public RepositoryRestConfigurer sparseFieldsConfigurer() {
+
+        return new RepositoryRestConfigurerAdapter() {
+
+            @Override
+            public void configureJacksonObjectMapper(ObjectMapper objectMapper) {
+
+                objectMapper.registerModule(new SimpleModule("SparseFieldsModule") {
+
+                    @Override
+                    public void setupModule(SetupContext context) {
+
+                        super.setupModule(context);
+                        context.insertAnnotationIntrospector(new EntityFilterIntrospector());
+                    }
+                });
+                objectMapper.setFilterProvider(new SimpleFilterProvider().
+                    addFilter(SparseFieldsFilter.ID, new SparseFieldsFilter()));
+            }
+        };
+    }
+
+    /**
+     * Renders employees and items with the {@link DirectEntityResourceSerializer} and collections of them with the
+     * {@link DirectResourcesSerializer}, unless {@code app.hal.direct-serialization} is turned off. Only applies if null
+     * properties are written, as the entities are by default.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.hal", name = "direct-serialization", matchIfMissing = true)
+    public RepositoryRestConfigurer directSerializationConfigurer(ObjectFactory<ResourceMappings> mappings) {
+
+        return new RepositoryRestConfigurerAdapter() {
+
+            @Override
+            public void configureJacksonObjectMapper(ObjectMapper objectMapper) {
+
+                objectMapper.registerModule(new SimpleModule("DirectSerializationModule").
+                    setSerializerModifier(new BeanSerializerModifier() {
+
+                        @Override
+                        public JsonSerializer<?> modifySerializer(SerializationConfig config,
+                            BeanDescription description, JsonSerializer<?> serializer) {
+
+                            Include inclusion = config.getDefaultPropertyInclusion().getValueInclusion();
+
+                            if (inclusion != Include.ALWAYS && inclusion != Include.USE_DEFAULTS) {
+                                return serializer;
+                            } else if (PersistentEntityResource.class.equals(description.getBeanClass())) {
+                                return new DirectEntityResourceSerializer(serializer);
+                            } else if (Resources.class.equals(description.getBeanClass())
+                                || PagedResources.class.equals(description.getBeanClass())) {
+                                return new DirectResourcesSerializer(serializer, mappings);
+                            }
+                            return serializer;
+                        }
+                    }));
+            }
+        };
+    }
+
+    /**
+     * Assigns the {@link SparseFieldsFilter} to every JPA entity.
+     */
+    @SuppressWarnings("serial")
+    private static class EntityFilterIntrospector extends NopAnnotationIntrospector {
+
+        @Override
+        public Object findFilterId(Annotated annotated) {
+            return annotated instanceof AnnotatedClass && annotated.hasAnnotation(Entity.class)
+                ? SparseFieldsFilter.ID : null;
+        }
+    }
+}
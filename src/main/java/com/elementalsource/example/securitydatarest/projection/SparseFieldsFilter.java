@@ -0,0 +1,89 @@
+package com.elementalsource.example.securitydatarest.projection;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Leaves out the properties of an entity which are not named in the {@code fields} parameter of the current GET
+ * request, e.g. {@code /employees?fields=lastName}. Without the parameter, or outside of a request, every property is
+ * written. Links are not affected.
+ * <p>
+ * The parameter is parsed once per request, however many entities the response holds.
+ */
+class SparseFieldsFilter extends SimpleBeanPropertyFilter {
+
+    static final String ID = "sparseFields";
+    static final String PARAMETER = "fields";
+
+    private static final String ATTRIBUTE = SparseFieldsFilter.class.getName() + ".fields";
+    private static final Set<String> ALL = Collections.unmodifiableSet(new HashSet<>());
+
+    /*
+     * (non-Javadoc)
+     * @see com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter#serializeAsField(java.lang.Object, com.fasterxml.jackson.core.JsonGenerator, com.fasterxml.jackson.databind.SerializerProvider, com.fasterxml.jackson.databind.ser.PropertyWriter)
+     */
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer)
+        throws Exception {
+
+        Set<String> fields = requestedFields();
+
+        if (fields == ALL || fields.contains(writer.getName())) {
+            writer.serializeAsField(pojo, jgen, provider);
+        } else if (!jgen.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, jgen, provider);
+        }
+    }
+
+    /**
+     * Whether the current request names the properties to write, so some may be left out.
+     */
+    static boolean isActive() {
+        return requestedFields() != ALL;
+    }
+
+    private static Set<String> requestedFields() {
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return ALL;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<String> fields = (Set<String>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        if (fields == null) {
+            fields = parse(((ServletRequestAttributes) attributes).getRequest());
+            attributes.setAttribute(ATTRIBUTE, fields, RequestAttributes.SCOPE_REQUEST);
+        }
+        return fields;
+    }
+
+    private static Set<String> parse(HttpServletRequest request) {
+
+        String[] values = request.getParameterValues(PARAMETER);
+
+        // PUT and PATCH render the stored entity to merge the request into it, which must see all of it
+        if (values == null || !HttpMethod.GET.matches(request.getMethod())) {
+            return ALL;
+        }
+
+        Set<String> fields = new HashSet<>();
+        for (String value : values) {
+            fields.addAll(StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(value)));
+        }
+        return fields;
+    }
+}
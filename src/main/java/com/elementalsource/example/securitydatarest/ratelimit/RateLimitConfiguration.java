@@ -0,0 +1,22 @@
+package com.elementalsource.example.securitydatarest.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sets up the {@link RateLimiter}, only if {@code app.rate-limit.enabled} is set. Its filter is added to the security
+ * filter chain by {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfiguration {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new RateLimiter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,111 @@
+package com.elementalsource.example.securitydatarest.ratelimit;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies the limits of the {@link RateLimiter} to the authenticated principal, or to the client's address for
+ * anonymous requests. Requests over a limit are answered with 429 Too Many Requests and a {@code Retry-After} header
+ * in seconds.
+ * <p>
+ * Runs in the Spring Security filter chain once the request is authenticated, and before the URL rules are checked.
+ * Asynchronous requests count as in progress until they complete.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> WRITES = new HashSet<>(Arrays.asList(HttpMethod.POST.name(),
+        HttpMethod.PUT.name(), HttpMethod.PATCH.name(), HttpMethod.DELETE.name()));
+    private static final RequestMatcher EMPLOYEES = new AntPathRequestMatcher("/employees/**");
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean anonymous = authentication == null || authentication instanceof AnonymousAuthenticationToken;
+        Collection<? extends GrantedAuthority> authorities =
+            authentication == null ? Collections.emptyList() : authentication.getAuthorities();
+
+        RateLimiter.Quota quota =
+            rateLimiter.quota(anonymous ? "anonymous:" + request.getRemoteAddr() : authentication.getName());
+        long wait = rateLimiter.tryAcquire(quota, authorities,
+            WRITES.contains(request.getMethod()) && EMPLOYEES.matches(request));
+
+        if (wait > 0) {
+
+            long seconds = TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1);
+
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(quota));
+            } else {
+                quota.release();
+            }
+        }
+    }
+
+    /**
+     * Releases the quota once an asynchronous request completes, which it also does after an error or timeout.
+     */
+    private static class ReleasingListener implements AsyncListener {
+
+        private final RateLimiter.Quota quota;
+
+        ReleasingListener(RateLimiter.Quota quota) {
+            this.quota = quota;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            quota.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {}
+
+        @Override
+        public void onError(AsyncEvent event) {}
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+}
@@ -0,0 +1,58 @@
+package com.elementalsource.example.securitydatarest.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the rate limits and concurrency quotas per principal, see {@link RateLimiter}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether requests are limited at all.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Limits by role, without the {@code ROLE_} prefix. A principal gets the most generous limit of its roles, and one
+     * with none of these roles the strictest. Anonymous requests have the role {@code ANONYMOUS}.
+     */
+    private Map<String, Limit> roles = new LinkedHashMap<>();
+
+    /**
+     * Additional limit of every principal on POST, PUT, PATCH and DELETE requests to {@code /employees/**}.
+     */
+    private Limit employeeWrites = new Limit(5, 20);
+
+    /**
+     * Number of requests a principal may have in progress at the same time.
+     */
+    private int maxConcurrentRequests = 32;
+
+    /**
+     * Number of principals whose limits are tracked before idle ones are dropped.
+     */
+    private int maximumPrincipals = 100_000;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        /**
+         * Sustained rate of requests.
+         */
+        private double requestsPerSecond;
+
+        /**
+         * Number of requests which may be sent at once after a quiet period.
+         */
+        private int burst;
+    }
+}
@@ -0,0 +1,234 @@
+package com.elementalsource.example.securitydatarest.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.Assert;
+
+/**
+ * Rate limits and concurrency quotas per principal.
+ * <p>
+ * Every principal has a token bucket for all of its requests, whose rate depends on its roles, one for its writes to
+ * employees, and a count of its requests in progress. The buckets are kept as the theoretical arrival time of the next
+ * request (GCRA), a single {@link AtomicLong} each, so admitting a request is one compare-and-set per bucket and
+ * threads only contend when they serve the same principal. A write rejected by the rate of the principal gives its
+ * token back to the bucket of the writes. Rejections are counted as {@value #METRIC}, tagged with the
+ * limit that was hit.
+ */
+public class RateLimiter {
+
+    static final String METRIC = "security.rate.limited";
+
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    // a request in progress gives no hint when it completes
+    private static final long CONCURRENCY_WAIT = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentMap<String, Quota> quotas = new ConcurrentHashMap<>();
+    private final Map<String, Rate> rates = new HashMap<>();
+    private final Rate strictest;
+    private final Rate employeeWrites;
+    private final int maxConcurrentRequests;
+    private final int maximumPrincipals;
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+    private final Counter rateLimited;
+    private final Counter writesLimited;
+    private final Counter concurrencyLimited;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry registry) {
+
+        Assert.notEmpty(properties.getRoles(), "At least one role must be limited!");
+
+        properties.getRoles().forEach((role, limit) -> rates.put("ROLE_" + role, new Rate(limit)));
+
+        this.strictest = rates.values().stream().
+            reduce((rate, other) -> other.isStricterThan(rate) ? other : rate).
+            orElseThrow(IllegalStateException::new);
+        this.employeeWrites = new Rate(properties.getEmployeeWrites());
+        this.maxConcurrentRequests = properties.getMaxConcurrentRequests();
+        this.maximumPrincipals = properties.getMaximumPrincipals();
+
+        this.rateLimited = registry.counter(METRIC, "limit", "rate");
+        this.writesLimited = registry.counter(METRIC, "limit", "employee-writes");
+        this.concurrencyLimited = registry.counter(METRIC, "limit", "concurrency");
+    }
+
+    /**
+     * @return the quota of the principal, created on its first request.
+     */
+    public Quota quota(String principal) {
+
+        // ConcurrentHashMap.computeIfAbsent locks the bin even if the key is present on Java 8
+        Quota quota = quotas.get(principal);
+        if (quota != null) {
+            return quota;
+        }
+
+        quota = quotas.computeIfAbsent(principal, key -> new Quota());
+        if (quotas.size() > maximumPrincipals) {
+            sweep();
+        }
+        return quota;
+    }
+
+    /**
+     * Admits a request of the principal owning the quota if none of its limits is exceeded. An admitted request must
+     * be {@link Quota#release() released} once it completes.
+     *
+     * @param authorities of the principal, which select its rate.
+     * @param employeeWrite whether the request writes to employees.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until it would be.
+     */
+    public long tryAcquire(Quota quota, Collection<? extends GrantedAuthority> authorities, boolean employeeWrite) {
+
+        if (quota.inFlight.incrementAndGet() > maxConcurrentRequests) {
+
+            quota.inFlight.decrementAndGet();
+            concurrencyLimited.increment();
+            return CONCURRENCY_WAIT;
+        }
+
+        long now = System.nanoTime();
+        long wait;
+
+        if (employeeWrite && (wait = employeeWrites.acquire(quota.writes, now)) > 0) {
+            writesLimited.increment();
+        } else if ((wait = rate(authorities).acquire(quota.requests, now)) > 0) {
+
+            if (employeeWrite) {
+                employeeWrites.release(quota.writes);
+            }
+            rateLimited.increment();
+        } else {
+            return 0;
+        }
+
+        quota.inFlight.decrementAndGet();
+        return wait;
+    }
+
+    /**
+     * @return the most generous rate of the given authorities, the strictest one if none of them is limited.
+     */
+    private Rate rate(Collection<? extends GrantedAuthority> authorities) {
+
+        Rate rate = null;
+
+        for (GrantedAuthority authority : authorities) {
+
+            Rate candidate = rates.get(authority.getAuthority());
+            if (candidate != null && (rate == null || rate.isStricterThan(candidate))) {
+                rate = candidate;
+            }
+        }
+        return rate == null ? strictest : rate;
+    }
+
+    /**
+     * Drops the quotas of principals which have neither requests in progress nor used up any of their buckets, at most
+     * once a second. A request racing with the sweep may be counted against a dropped quota, which only lets the
+     * principal start over with full buckets.
+     */
+    private void sweep() {
+
+        long now = System.nanoTime();
+        long next = nextSweep.get();
+
+        if (now - next >= 0 && nextSweep.compareAndSet(next, now + SWEEP_INTERVAL)) {
+            quotas.values().removeIf(quota -> quota.isIdle(now));
+        }
+    }
+
+    /**
+     * The buckets and the requests in progress of one principal.
+     */
+    public static final class Quota {
+
+        private final AtomicLong requests;
+        private final AtomicLong writes;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private Quota() {
+
+            long now = System.nanoTime();
+
+            this.requests = new AtomicLong(now);
+            this.writes = new AtomicLong(now);
+        }
+
+        /**
+         * Ends a request admitted by {@link RateLimiter#tryAcquire(Quota, Collection, boolean)}.
+         */
+        public void release() {
+            inFlight.decrementAndGet();
+        }
+
+        private boolean isIdle(long now) {
+            return inFlight.get() == 0 && requests.get() - now <= 0 && writes.get() - now <= 0;
+        }
+    }
+
+    /**
+     * A {@link RateLimitProperties.Limit} in nanoseconds: the interval between requests at the sustained rate, and how
+     * far a bucket may run ahead of the clock.
+     */
+    private static final class Rate {
+
+        private final long interval;
+        private final long tolerance;
+
+        Rate(RateLimitProperties.Limit limit) {
+
+            Assert.isTrue(limit.getRequestsPerSecond() > 0, "Requests per second must be positive!");
+            Assert.isTrue(limit.getBurst() > 0, "Burst must be positive!");
+
+            this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRequestsPerSecond()));
+            this.tolerance = interval * limit.getBurst();
+        }
+
+        /**
+         * @return whether this rate is lower, or as high but with a smaller burst.
+         */
+        boolean isStricterThan(Rate other) {
+            return interval != other.interval ? interval > other.interval : tolerance < other.tolerance;
+        }
+
+        /**
+         * Moves the theoretical arrival time on by one interval, unless that puts it further ahead of {@code now} than
+         * the tolerance.
+         *
+         * @return 0 if the request is admitted, otherwise the nanoseconds until it would be.
+         */
+        long acquire(AtomicLong arrival, long now) {
+
+            while (true) {
+
+                long current = arrival.get();
+                long next = (current - now > 0 ? current : now) + interval;
+                long wait = next - tolerance - now;
+
+                if (wait > 0) {
+                    return wait;
+                }
+                if (arrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Moves the theoretical arrival time back by one interval, for a request admitted by
+         * {@link #acquire(AtomicLong, long)} which is rejected after all.
+         */
+        void release(AtomicLong arrival) {
+            arrival.addAndGet(-interval);
+        }
+    }
+}
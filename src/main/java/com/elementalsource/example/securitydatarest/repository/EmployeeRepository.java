@@ -16,14 +16,91 @@
 package com.elementalsource.example.securitydatarest.repository;
 
 import com.elementalsource.example.securitydatarest.model.Employee;
-import org.springframework.data.repository.CrudRepository;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This repository has no method-level security annotations. That's because it's secured at the URL level inside
- * {@link example.springdata.rest.security.SecurityConfiguration}.
+ * {@link example.springdata.rest.security.SecurityConfiguration}. Which employees users see is restricted by row-level
+ * security, see {@link com.elementalsource.example.securitydatarest.model.Owned}. The query methods run in read-only
+ * transactions, like the ones inherited, so they are served by the replicas if there are any.
  *
  * @author Greg Turnquist
  */
-public interface EmployeeRepository extends CrudRepository<Employee, Long> {
+public interface EmployeeRepository extends PagingAndSortingRepository<Employee, Long> {
 
+    /**
+     * Region of the cached queries, named after the entity, so they are dropped on their own.
+     */
+    String QUERY_CACHE_REGION = "com.elementalsource.example.securitydatarest.model.Employee.queries";
+
+    /**
+     * Pages through all employees. The page is served from the query cache until Employee rows change.
+     *
+     * @see org.springframework.data.repository.PagingAndSortingRepository#findAll(org.springframework.data.domain.Pageable)
+     */
+    @Override
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
+    Page<Employee> findAll(Pageable pageable);
+
+    /**
+     * Keyset pagination: returns the employees following the given id, in id order. Unlike the page number of
+     * {@link #findAll(Pageable)}, the cost of fetching a slice does not grow with its position in the table.
+     *
+     * @param after the id of the last employee of the previous slice, {@literal 0} for the first one.
+     */
+    @Transactional(readOnly = true)
+    @RestResource(path = "seek", rel = "seek")
+    Slice<Employee> findByIdGreaterThanOrderByIdAsc(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Pages through the employees with the given last name, using the index on it.
+     */
+    @Transactional(readOnly = true)
+    @RestResource(path = "lastName", rel = "lastName")
+    Page<Employee> findByLastName(@Param("lastName") String lastName, Pageable pageable);
+
+    /**
+     * Returns the employees whose last name starts with the given prefix, using the index on it. Returns a slice, as
+     * counting all matches of a short prefix could take longer than finding the first ones.
+     */
+    @Transactional(readOnly = true)
+    @RestResource(path = "lastNameStartsWith", rel = "lastNameStartsWith")
+    Slice<Employee> findByLastNameStartingWith(@Param("prefix") String prefix, Pageable pageable);
+
+    /**
+     * Pages through the employees with the given title, using the index on it.
+     */
+    @Transactional(readOnly = true)
+    @RestResource(path = "title", rel = "title")
+    Page<Employee> findByTitle(@Param("title") String title, Pageable pageable);
+
+    /**
+     * Streams all employees in id order, fetching them from the database in chunks. Must be consumed inside a
+     * transaction, which stays open until the stream is closed.
+     */
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    /**
+     * Returns the version of the given employee without loading it, or {@literal null} if there is none.
+     */
+    @Transactional(readOnly = true)
+    @RestResource(exported = false)
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
+    @Query("select e.version from Employee e where e.id = :id")
+    Long findVersionById(@Param("id") Long id);
 }
@@ -16,18 +16,91 @@
 package com.elementalsource.example.securitydatarest.repository;
 
 import com.elementalsource.example.securitydatarest.model.Item;
-import org.springframework.data.repository.CrudRepository;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This repository shows interface and method-level security. The entire repository requires ROLE_USER, while certain
- * operations require ROLE_ADMIN.
+ * operations require ROLE_ADMIN. Which items users see is restricted by row-level security, see
+ * {@link com.elementalsource.example.securitydatarest.model.Owned}. The query methods run in read-only transactions,
+ * like the ones inherited, so they are served by the replicas if there are any.
  *
  * @author Greg Turnquist
  * @author Oliver Gierke
  */
 @PreAuthorize("hasRole('ROLE_USER')")
-public interface ItemRepository extends CrudRepository<Item, Long> {
+public interface ItemRepository extends PagingAndSortingRepository<Item, Long> {
+
+    /**
+     * Region of the cached queries, named after the entity, so they are dropped on their own.
+     */
+    String QUERY_CACHE_REGION = "com.elementalsource.example.securitydatarest.model.Item.queries";
+
+    /**
+     * Pages through all items. The page is served from the query cache until Item rows change.
+     *
+     * @see org.springframework.data.repository.PagingAndSortingRepository#findAll(org.springframework.data.domain.Pageable)
+     */
+    @Override
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
+    Page<Item> findAll(Pageable pageable);
+
+    /**
+     * Keyset pagination: returns the items following the given id, in id order.
+     *
+     * @param after the id of the last item of the previous slice, {@literal 0} for the first one.
+     * @see EmployeeRepository#findByIdGreaterThanOrderByIdAsc(Long, Pageable)
+     */
+    @Transactional(readOnly = true)
+    @RestResource(path = "seek", rel = "seek")
+    Slice<Item> findByIdGreaterThanOrderByIdAsc(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Pages through the items with the given description, using the index on it.
+     */
+    @Transactional(readOnly = true)
+    @RestResource(path = "description", rel = "description")
+    Page<Item> findByDescription(@Param("description") String description, Pageable pageable);
+
+    /**
+     * Returns the items whose description starts with the given prefix, using the index on it.
+     *
+     * @see EmployeeRepository#findByLastNameStartingWith(String, Pageable)
+     */
+    @Transactional(readOnly = true)
+    @RestResource(path = "descriptionStartsWith", rel = "descriptionStartsWith")
+    Slice<Item> findByDescriptionStartingWith(@Param("prefix") String prefix, Pageable pageable);
+
+    /**
+     * Streams all items in id order, fetching them from the database in chunks. Must be consumed inside a
+     * transaction, which stays open until the stream is closed.
+     * @see EmployeeRepository#streamAll()
+     */
+    @RestResource(exported = false)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select i from Item i order by i.id")
+    Stream<Item> streamAll();
+
+    /**
+     * Returns the version of the given item without loading it, or {@literal null} if there is none.
+     */
+    @Transactional(readOnly = true)
+    @RestResource(exported = false)
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
+    @Query("select i.version from Item i where i.id = :id")
+    Long findVersionById(@Param("id") Long id);
 
     /*
      * (non-Javadoc)
@@ -37,6 +110,14 @@ public interface ItemRepository extends CrudRepository<Item, Long> {
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     <S extends Item> S save(S s);
 
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.data.repository.CrudRepository#save(java.lang.Iterable)
+     */
+    @Override
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    <S extends Item> Iterable<S> save(Iterable<S> items);
+
     /*
      * (non-Javadoc)
      * @see org.springframework.data.repository.CrudRepository#delete(java.io.Serializable)
@@ -0,0 +1,24 @@
+package com.elementalsource.example.securitydatarest.repository;
+
+import com.elementalsource.example.securitydatarest.model.UserAccount;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+
+/**
+ * Manages the user accounts at runtime under {@code /users}. Like {@link EmployeeRepository}, it is secured at the URL
+ * level inside {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration}: only admins get
+ * to see or change accounts.
+ */
+@RepositoryRestResource(path = "users", collectionResourceRel = "users")
+public interface UserAccountRepository extends PagingAndSortingRepository<UserAccount, Long> {
+
+    /**
+     * Returns the stored password hash of the given account, or {@literal null} if there is none.
+     */
+    @RestResource(exported = false)
+    @Query("select u.password from UserAccount u where u.id = :id")
+    String findPasswordById(@Param("id") Long id);
+}
@@ -0,0 +1,195 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded, time limited store of successful authentications.
+ * <p>
+ * Entries are keyed on an HMAC of the username and password, computed with a key that is generated on startup and
+ * never leaves the process, so the cache never holds the raw password nor a digest that could be brute forced offline.
+ * Failed authentications are never cached.
+ */
+public class AuthenticationCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maximumSize;
+    private final long timeToLiveMillis;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AuthenticationCache(int maximumSize, long timeToLiveMillis) {
+
+        Assert.isTrue(maximumSize > 0, "Maximum size must be positive!");
+        Assert.isTrue(timeToLiveMillis > 0, "Time to live must be positive!");
+
+        this.maximumSize = maximumSize;
+        this.timeToLiveMillis = timeToLiveMillis;
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    /**
+     * Returns the cached authentication for the given credentials, or {@literal null} if there is none or it expired.
+     */
+    public Entry get(String username, Object credentials) {
+
+        String key = keyOf(username, credentials);
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(key, entry)) {
+                evictions.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Remembers the given successful authentication for the credentials it was obtained with.
+     */
+    public void put(String username, Object credentials, Authentication authentication) {
+
+        if (entries.size() >= maximumSize) {
+            makeRoom();
+        }
+
+        entries.put(keyOf(username, credentials), new Entry(username, authentication.getPrincipal(),
+            authentication.getAuthorities(), System.currentTimeMillis() + timeToLiveMillis));
+    }
+
+    /**
+     * Forgets every cached authentication of the given user, e.g. after its password or roles changed.
+     */
+    public void evict(String username) {
+        entries.values().removeIf(entry -> {
+            boolean matches = entry.username.equals(username);
+            if (matches) {
+                evictions.incrementAndGet();
+            }
+            return matches;
+        });
+    }
+
+    /**
+     * Forgets every cached authentication.
+     */
+    public void clear() {
+        evictions.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private void makeRoom() {
+
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> {
+            boolean expired = entry.isExpired(now);
+            if (expired) {
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() >= maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private String keyOf(String username, Object credentials) {
+
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(String.valueOf(credentials).getBytes(StandardCharsets.UTF_8));
+
+        return Base64.getEncoder().encodeToString(mac.doFinal());
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+        }
+    }
+
+    /**
+     * A cached authentication. Holds the authenticated principal and its authorities, never the credentials.
+     */
+    public static final class Entry {
+
+        private final String username;
+        private final Object principal;
+        private final Collection<? extends GrantedAuthority> authorities;
+        private final long expiresAt;
+
+        Entry(String username, Object principal, Collection<? extends GrantedAuthority> authorities, long expiresAt) {
+            this.username = username;
+            this.principal = principal;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+
+        public Object getPrincipal() {
+            return principal;
+        }
+
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link AuthenticationCache} placed in front of the {@link
+ * org.springframework.security.authentication.AuthenticationManager}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.authentication-cache")
+public class AuthenticationCacheProperties {
+
+    /**
+     * Whether successful authentications are cached at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached credentials.
+     */
+    private int maximumSize = 10_000;
+
+    /**
+     * How long a cached authentication is trusted before the credentials are verified again.
+     */
+    private long timeToLiveSeconds = 300;
+}
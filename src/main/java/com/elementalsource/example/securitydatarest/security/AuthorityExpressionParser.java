@@ -0,0 +1,133 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.BooleanLiteral;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.OpAnd;
+import org.springframework.expression.spel.ast.OpOr;
+import org.springframework.expression.spel.ast.OperatorNot;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.access.expression.SecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Parser for method security expressions which memoizes the outcome of expressions that only depend on the granted
+ * authorities of the caller, such as the {@code hasRole('ROLE_USER')} checks on
+ * {@link com.elementalsource.example.securitydatarest.repository.ItemRepository}.
+ * <p>
+ * Such an expression is evaluated once per distinct set of authorities; any later invocation of the same method by a
+ * caller holding the same authorities reuses the decision. Expressions referring to anything else (method arguments,
+ * the principal, beans, ...) are evaluated on every invocation as before.
+ */
+class AuthorityExpressionParser extends SpelExpressionParser {
+
+    private static final Set<String> AUTHORITY_FUNCTIONS = new HashSet<>(Arrays.asList(
+        "hasRole", "hasAnyRole", "hasAuthority", "hasAnyAuthority", "permitAll", "denyAll"));
+    private static final Set<String> CONSTANT_PROPERTIES = new HashSet<>(Arrays.asList("permitAll", "denyAll"));
+
+    private final SpelParserConfiguration configuration;
+    private final int maximumSize;
+
+    AuthorityExpressionParser(SpelParserConfiguration configuration, int maximumSize) {
+        super(configuration);
+        this.configuration = configuration;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    protected SpelExpression doParseExpression(String expressionString, ParserContext context) throws ParseException {
+
+        SpelExpression expression = super.doParseExpression(expressionString, context);
+
+        if (!dependsOnAuthoritiesOnly(expression.getAST())) {
+            return expression;
+        }
+        return new MemoizingExpression(expressionString, (SpelNodeImpl) expression.getAST(), configuration, maximumSize);
+    }
+
+    private static boolean dependsOnAuthoritiesOnly(SpelNode node) {
+
+        if (node instanceof MethodReference) {
+            if (!AUTHORITY_FUNCTIONS.contains(((MethodReference) node).getName())) {
+                return false;
+            }
+        } else if (node instanceof PropertyOrFieldReference) {
+            if (!CONSTANT_PROPERTIES.contains(((PropertyOrFieldReference) node).getName())) {
+                return false;
+            }
+        } else if (!(node instanceof OpAnd || node instanceof OpOr || node instanceof OperatorNot
+            || node instanceof StringLiteral || node instanceof BooleanLiteral)) {
+            return false;
+        }
+
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (!dependsOnAuthoritiesOnly(node.getChild(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Expression remembering its boolean outcome per set of granted authorities.
+     */
+    static class MemoizingExpression extends SpelExpression {
+
+        private final Map<List<GrantedAuthority>, Boolean> decisions = new ConcurrentHashMap<>();
+        private final int maximumSize;
+
+        MemoizingExpression(String expression, SpelNodeImpl ast, SpelParserConfiguration configuration,
+            int maximumSize) {
+            super(expression, ast, configuration);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getValue(EvaluationContext context, Class<T> expectedResultType) throws EvaluationException {
+
+            Object root = context.getRootObject().getValue();
+
+            if (expectedResultType != Boolean.class || !(root instanceof SecurityExpressionOperations)) {
+                return super.getValue(context, expectedResultType);
+            }
+
+            Authentication authentication = ((SecurityExpressionOperations) root).getAuthentication();
+            Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+            Object key = authorities instanceof List ? authorities : new ArrayList<>(authorities);
+
+            Boolean decision = decisions.get(key);
+            if (decision == null) {
+                decision = super.getValue(context, Boolean.class);
+
+                if (decisions.size() >= maximumSize) {
+                    decisions.clear();
+                }
+                decisions.put(new ArrayList<>(authorities), decision);
+            }
+            return (T) decision;
+        }
+
+        int size() {
+            return decisions.size();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates requests carrying an {@code Authorization: Bearer} header with a token of the {@link TokenService}.
+ * Requests without one are left to the other authentication mechanisms, requests with an invalid or expired one are
+ * answered with 401 Unauthorized.
+ */
+class BearerTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    BearerTokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.web.filter.OncePerRequestFilter#doFilterInternal(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, javax.servlet.FilterChain)
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+
+            try {
+                SecurityContextHolder.getContext().setAuthentication(
+                    tokenService.verify(header.substring(BEARER.length()).trim()));
+            } catch (AuthenticationException e) {
+
+                SecurityContextHolder.clearContext();
+
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
+                return;
+            }
+        }
+
+        chain.doFilter(request, response);
+    }
+}
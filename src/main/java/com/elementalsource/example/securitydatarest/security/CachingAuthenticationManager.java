@@ -0,0 +1,53 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.util.Assert;
+
+/**
+ * {@link AuthenticationManager} that skips the credential verification of the delegate for username and password
+ * pairs which were successfully authenticated recently.
+ *
+ * @see AuthenticationCache
+ */
+public class CachingAuthenticationManager implements AuthenticationManager {
+
+    private final AuthenticationManager delegate;
+    private final AuthenticationCache cache;
+
+    public CachingAuthenticationManager(AuthenticationManager delegate, AuthenticationCache cache) {
+
+        Assert.notNull(delegate, "Delegate must not be null!");
+        Assert.notNull(cache, "Cache must not be null!");
+
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken) || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+
+        AuthenticationCache.Entry entry = cache.get(username, credentials);
+        if (entry != null) {
+            UsernamePasswordAuthenticationToken result =
+                new UsernamePasswordAuthenticationToken(entry.getPrincipal(), null, entry.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            cache.put(username, credentials, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import com.elementalsource.example.securitydatarest.model.UserAccount;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Loads users from the {@link UserAccount} table.
+ * <p>
+ * Accounts are looked up by their natural id, which is answered by the natural id and entity caches when the account
+ * was read before, and by the unique index on the username otherwise, so the cost does not grow with the number of
+ * users. Authority lists are shared between all users with the same roles: there are only a handful of distinct role
+ * sets, however many users there are.
+ */
+@Service
+public class JpaUserDetailsService implements UserDetailsService {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final ConcurrentMap<Set<String>, List<GrantedAuthority>> authorities = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.security.core.userdetails.UserDetailsService#loadUserByUsername(java.lang.String)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+
+        UserAccount account = entityManager.unwrap(Session.class).
+            bySimpleNaturalId(UserAccount.class).
+            load(username);
+
+        if (account == null) {
+            throw new UsernameNotFoundException(username);
+        }
+
+        return new User(account.getUsername(), account.getPassword(), account.isEnabled(), true, true, true,
+            authorities(account.getRoles()));
+    }
+
+    private List<GrantedAuthority> authorities(Set<String> roles) {
+
+        List<GrantedAuthority> result = authorities.get(roles);
+
+        if (result == null) {
+            result = authorities.computeIfAbsent(new HashSet<>(roles), key -> AuthorityUtils.createAuthorityList(
+                key.stream().map(role -> ROLE_PREFIX + role).sorted().toArray(String[]::new)));
+        }
+        return result;
+    }
+}
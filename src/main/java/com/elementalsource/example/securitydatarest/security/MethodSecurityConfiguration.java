@@ -0,0 +1,61 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+
+/**
+ * Enables the method-level security annotations, such as the ones on
+ * {@link com.elementalsource.example.securitydatarest.repository.ItemRepository}.
+ * <p>
+ * Expressions are compiled by SpEL once they are hot, and decisions of expressions depending on the caller's
+ * authorities only are memoized by the {@link AuthorityExpressionParser}. Decisions are timed by the
+ * {@link TimedAccessDecisionManager}.
+ */
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+@EnableConfigurationProperties(MethodSecurityProperties.class)
+public class MethodSecurityConfiguration extends GlobalMethodSecurityConfiguration {
+
+    @Autowired
+    private MethodSecurityProperties properties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration#createExpressionHandler()
+     */
+    @Override
+    protected MethodSecurityExpressionHandler createExpressionHandler() {
+
+        MethodSecurityExpressionHandler handler = super.createExpressionHandler();
+
+        if (properties.isDecisionCacheEnabled() && handler instanceof DefaultMethodSecurityExpressionHandler) {
+
+            SpelParserConfiguration configuration =
+                new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader());
+
+            ((DefaultMethodSecurityExpressionHandler) handler).setExpressionParser(
+                new AuthorityExpressionParser(configuration, properties.getDecisionCacheMaximumSize()));
+        }
+        return handler;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration#accessDecisionManager()
+     */
+    @Override
+    protected AccessDecisionManager accessDecisionManager() {
+        return new TimedAccessDecisionManager(super.accessDecisionManager(), meterRegistry, "method");
+    }
+}
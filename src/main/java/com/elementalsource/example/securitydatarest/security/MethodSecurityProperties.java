@@ -0,0 +1,22 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the method-level security set up by {@link MethodSecurityConfiguration}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.method")
+public class MethodSecurityProperties {
+
+    /**
+     * Whether decisions of expressions depending on authorities only are remembered per set of authorities.
+     */
+    private boolean decisionCacheEnabled = true;
+
+    /**
+     * Maximum number of distinct authority sets remembered per expression.
+     */
+    private int decisionCacheMaximumSize = 1_000;
+}
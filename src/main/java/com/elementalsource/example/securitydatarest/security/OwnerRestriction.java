@@ -0,0 +1,171 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import com.elementalsource.example.securitydatarest.model.Owned;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Enables the {@link Owned#FILTER} on every entity manager as it is created, for the caller at that time. Hibernate adds
+ * the condition of the filter to the SQL of every query of the owned entities, counts included, so the database only
+ * returns the rows the caller may see, and pages and their totals are of those rows. Hibernate does not filter entities
+ * looked up by id, which may come from the second-level cache, so those are checked as they are loaded, and ones the
+ * caller may not see are reported as missing.
+ * <p>
+ * Callers with the unrestricted authority see all rows. Anonymous callers, and code running without authentication,
+ * only see unassigned rows, so code working on all rows, such as the seeding, has to run with the unrestricted
+ * authority. An entity manager lives as long as the request or transaction it was created for, and keeps the
+ * restriction of its caller.
+ * <p>
+ * Wraps the {@link EntityManagerFactory}, and the native one it exposes to the transaction manager and the
+ * open-entity-manager-in-view interceptor, which create their entity managers from that one.
+ */
+public class OwnerRestriction implements BeanPostProcessor, MethodInterceptor, LoadEventListener {
+
+    private static final String[] INTERCEPTED = {"createEntityManager", "getNativeEntityManagerFactory"};
+
+    private final String unrestrictedAuthority;
+    private final Map<EntityManagerFactory, EntityManagerFactory> restricted = new ConcurrentHashMap<>();
+    // the owner of the caller of each restricted session, until it is closed
+    private final Map<Session, String> owners = new ConcurrentHashMap<>();
+
+    public OwnerRestriction(String unrestrictedAuthority) {
+        this.unrestrictedAuthority = unrestrictedAuthority;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessBeforeInitialization(java.lang.Object, java.lang.String)
+     */
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanPostProcessor#postProcessAfterInitialization(java.lang.Object, java.lang.String)
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+        if (!(bean instanceof EntityManagerFactory)) {
+            return bean;
+        }
+
+        EntityManagerFactory entityManagerFactory = (EntityManagerFactory) bean;
+
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry().
+            getService(EventListenerRegistry.class).appendListeners(EventType.LOAD, this);
+
+        return restricted(entityManagerFactory);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.aopalliance.intercept.MethodInterceptor#invoke(org.aopalliance.intercept.MethodInvocation)
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        Object result = invocation.proceed();
+
+        if (result instanceof EntityManager) {
+            restrict((EntityManager) result);
+        } else if (result instanceof EntityManagerFactory) {
+            result = restricted((EntityManagerFactory) result);
+        }
+        return result;
+    }
+
+    /**
+     * Runs after Hibernate looked the entity up, and drops it if the filter of the session would have.
+     *
+     * @see org.hibernate.event.spi.LoadEventListener#onLoad(org.hibernate.event.spi.LoadEvent, org.hibernate.event.spi.LoadEventListener.LoadType)
+     */
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+
+        if (loadType != GET || !(event.getResult() instanceof Owned)) {
+            return;
+        }
+
+        String caller = owners.get(event.getSession());
+        String owner = ((Owned) event.getResult()).getOwner();
+
+        if (caller != null && owner != null && !owner.equals(caller)) {
+            event.setResult(null);
+        }
+    }
+
+    /**
+     * @return the owner of the rows the caller sees besides the unassigned ones, the empty string if it only sees those,
+     * or {@literal null} if it sees all rows.
+     */
+    public String owner(Authentication authentication) {
+
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return "";
+        }
+
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (unrestrictedAuthority.equals(authority.getAuthority())) {
+                return null;
+            }
+        }
+        return authentication.getName();
+    }
+
+    private EntityManagerFactory restricted(EntityManagerFactory entityManagerFactory) {
+
+        return restricted.computeIfAbsent(entityManagerFactory, target -> {
+
+            NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(this);
+            advisor.setMappedNames(INTERCEPTED);
+
+            ProxyFactory proxyFactory = new ProxyFactory(target);
+            proxyFactory.addAdvisor(advisor);
+
+            return (EntityManagerFactory) proxyFactory.getProxy(getClass().getClassLoader());
+        });
+    }
+
+    private void restrict(EntityManager entityManager) {
+
+        String owner = owner(SecurityContextHolder.getContext().getAuthentication());
+
+        if (owner == null) {
+            return;
+        }
+
+        Session session = entityManager.unwrap(Session.class);
+        session.enableFilter(Owned.FILTER).setParameter(Owned.FILTER, owner);
+
+        owners.put(session, owner);
+        session.addEventListeners(new BaseSessionEventListener() {
+
+            @Override
+            public void end() {
+                owners.remove(session);
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Restricts the employees and items users see to the ones assigned to them or no one, unless
+ * {@code app.security.row-level.enabled} is turned off.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.security.row-level", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(RowLevelSecurityProperties.class)
+public class RowLevelSecurityConfiguration {
+
+    /**
+     * Static, as it post-processes the {@link javax.persistence.EntityManagerFactory}.
+     */
+    @Bean
+    public static OwnerRestriction ownerRestriction(RowLevelSecurityProperties properties) {
+        return new OwnerRestriction(properties.getUnrestrictedAuthority());
+    }
+}
@@ -0,0 +1,22 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the row-level security set up by {@link RowLevelSecurityConfiguration}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.row-level")
+public class RowLevelSecurityProperties {
+
+    /**
+     * Whether users only see the employees and items assigned to them or no one.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Authority of the users who see all employees and items.
+     */
+    private String unrestrictedAuthority = "ROLE_ADMIN";
+}
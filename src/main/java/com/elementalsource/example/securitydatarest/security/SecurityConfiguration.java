@@ -1,45 +1,139 @@
 package com.elementalsource.example.securitydatarest.security;
 
+import com.elementalsource.example.securitydatarest.admission.AdmissionFilter;
+import com.elementalsource.example.securitydatarest.admission.AdmissionProperties;
+import com.elementalsource.example.securitydatarest.admission.ConcurrencyLimiter;
+import com.elementalsource.example.securitydatarest.ratelimit.RateLimitFilter;
+import com.elementalsource.example.securitydatarest.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.util.StringUtils;
 
 /**
  * This application is secured at both the URL level for some parts, and the method level for other parts. The URL
- * security is shown inside this code, while method-level annotations are enabled at by
- * {@link EnableGlobalMethodSecurity}.
+ * security is shown inside this code, while method-level annotations are enabled by
+ * {@link MethodSecurityConfiguration}.
  *
  * @author Greg Turnquist
  * @author Oliver Gierke
  */
 @Configuration
-@EnableGlobalMethodSecurity(prePostEnabled = true)
 @EnableWebSecurity
+@EnableConfigurationProperties({AuthenticationCacheProperties.class, TokenProperties.class})
 public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
+    @Autowired
+    private AuthenticationCacheProperties authenticationCacheProperties;
+    @Autowired
+    private TokenProperties tokenProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JpaUserDetailsService userDetailsService;
+    @Autowired(required = false)
+    private RateLimiter rateLimiter;
+    @Autowired(required = false)
+    private ConcurrencyLimiter concurrencyLimiter;
+    @Autowired(required = false)
+    private AdmissionProperties admissionProperties;
+
+    /**
+     * Cache of successful authentications, so HTTP Basic requests do not verify the same credentials over and over.
+     */
+    @Bean
+    public AuthenticationCache authenticationCache() {
+        return new AuthenticationCache(authenticationCacheProperties.getMaximumSize(),
+            TimeUnit.SECONDS.toMillis(authenticationCacheProperties.getTimeToLiveSeconds()));
+    }
+
+    /**
+     * Signs the bearer tokens with the configured secret, or a random one if there is none.
+     */
+    @Bean
+    public TokenService tokenService() {
+
+        byte[] secret;
+
+        if (StringUtils.hasText(tokenProperties.getSecret())) {
+            secret = tokenProperties.getSecret().getBytes(StandardCharsets.UTF_8);
+        } else {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        }
+
+        return new TokenService(secret, TimeUnit.SECONDS.toMillis(tokenProperties.getTimeToLiveSeconds()));
+    }
+
+    /**
+     * Hashes the passwords of the user accounts.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
     /**
-     * This section defines the user accounts which can be used for authentication as well as the roles each user has.
+     * This section defines where the user accounts which can be used for authentication, as well as the roles each user
+     * has, come from: the {@link com.elementalsource.example.securitydatarest.model.UserAccount} table, which admins
+     * manage at /users.
      *
      * @see org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter#configure(org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder)
      */
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
 
-        auth.inMemoryAuthentication().//
-            withUser("greg").password("turnquist").roles("USER").and().//
-            withUser("ollie").password("gierke").roles("USER", "ADMIN");
+        auth.userDetailsService(userDetailsService).//
+            passwordEncoder(passwordEncoder());
+    }
+
+    /**
+     * Puts the {@link AuthenticationCache} in front of the {@link AuthenticationManager} built from the user accounts,
+     * unless it is disabled, and times the result.
+     *
+     * @see org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter#authenticationManager()
+     */
+    @Override
+    protected AuthenticationManager authenticationManager() throws Exception {
+
+        AuthenticationManager authenticationManager = super.authenticationManager();
+
+        if (authenticationCacheProperties.isEnabled()) {
+            authenticationManager = new CachingAuthenticationManager(authenticationManager, authenticationCache());
+        }
+        return new TimedAuthenticationManager(authenticationManager, meterRegistry);
     }
 
     /**
      * This section defines the security policy for the app.
      * <p>
      * <ul>
-     * <li>BASIC authentication is supported (enough for this REST-based demo).</li>
-     * <li>/employees is secured using URL security shown below.</li>
+     * <li>BASIC authentication is supported (enough for this REST-based demo), and issues bearer tokens at
+     * /auth/token which are verified without looking up the user.</li>
+     * <li>No HTTP sessions are created, every request carries its credentials or token.</li>
+     * <li>Authenticated principals and anonymous clients are rate limited if {@code app.rate-limit.enabled} is set,
+     * before any of the rules below is checked.</li>
+     * <li>Requests to the repositories beyond the adaptive concurrency limit are shed if {@code app.admission.enabled}
+     * is set, right after the rate limits.</li>
+     * <li>/employees and /users are secured using URL security shown below.</li>
      * <li>CSRF headers are disabled since we are only testing the REST interface, not a web one.</li>
      * </ul>
      * NOTE: GET is not shown which defaults to permitted.
@@ -49,10 +143,46 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     @Override
     protected void configure(HttpSecurity http) throws Exception {
 
-        http.httpBasic().and().authorizeRequests().//
-            antMatchers(HttpMethod.POST, "/employees").hasRole("ADMIN").//
+        http.httpBasic().and().//
+            addFilterBefore(new BearerTokenAuthenticationFilter(tokenService()), BasicAuthenticationFilter.class).//
+            sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and().//
+            authorizeRequests().//
+            withObjectPostProcessor(timedAccessDecisions()).//
+            antMatchers(HttpMethod.POST, "/auth/token").authenticated().//
+            antMatchers("/cache/**").hasRole("ADMIN").//
+            antMatchers("/metrics").hasRole("ADMIN").//
+            antMatchers("/pool/**").hasRole("ADMIN").//
+            antMatchers("/seeding/**").hasRole("ADMIN").//
+            antMatchers("/users/**").hasRole("ADMIN").//
+            antMatchers(HttpMethod.POST, "/employees/**").hasRole("ADMIN").//
             antMatchers(HttpMethod.PUT, "/employees/**").hasRole("ADMIN").//
             antMatchers(HttpMethod.PATCH, "/employees/**").hasRole("ADMIN").and().//
             csrf().disable();
+
+        if (rateLimiter != null) {
+            http.addFilterAfter(new RateLimitFilter(rateLimiter), AnonymousAuthenticationFilter.class);
+        }
+        if (concurrencyLimiter != null) {
+            // filters at the same position keep the order they are added in
+            http.addFilterAfter(new AdmissionFilter(concurrencyLimiter, admissionProperties),
+                AnonymousAuthenticationFilter.class);
+        }
+    }
+
+    /**
+     * Times the decisions of the URL rules above.
+     */
+    private ObjectPostProcessor<FilterSecurityInterceptor> timedAccessDecisions() {
+
+        return new ObjectPostProcessor<FilterSecurityInterceptor>() {
+
+            @Override
+            public <O extends FilterSecurityInterceptor> O postProcess(O interceptor) {
+
+                interceptor.setAccessDecisionManager(
+                    new TimedAccessDecisionManager(interceptor.getAccessDecisionManager(), meterRegistry, "url"));
+                return interceptor;
+            }
+        };
     }
 }
@@ -0,0 +1,73 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.Assert;
+
+/**
+ * {@link AccessDecisionManager} that records the latency of the delegate as {@value #METRIC}, and counts the denied
+ * decisions as {@value #DENIED_METRIC}. Both are tagged with the layer the decision is made for, {@literal url} or
+ * {@literal method}.
+ */
+public class TimedAccessDecisionManager implements AccessDecisionManager {
+
+    static final String METRIC = "security.authorization";
+    static final String DENIED_METRIC = "security.access.denied";
+
+    private final AccessDecisionManager delegate;
+    private final Timer granted;
+    private final Timer denied;
+    private final Counter deniedCount;
+
+    public TimedAccessDecisionManager(AccessDecisionManager delegate, MeterRegistry registry, String layer) {
+
+        Assert.notNull(delegate, "Delegate must not be null!");
+        Assert.notNull(registry, "Registry must not be null!");
+
+        this.delegate = delegate;
+        this.granted = timer(registry, layer, "granted");
+        this.denied = timer(registry, layer, "denied");
+        this.deniedCount = registry.counter(DENIED_METRIC, "layer", layer);
+    }
+
+    @Override
+    public void decide(Authentication authentication, Object object, Collection<ConfigAttribute> configAttributes)
+        throws AccessDeniedException, InsufficientAuthenticationException {
+
+        long start = System.nanoTime();
+        Timer timer = denied;
+
+        try {
+            delegate.decide(authentication, object, configAttributes);
+            timer = granted;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (timer == denied) {
+                deniedCount.increment();
+            }
+        }
+    }
+
+    @Override
+    public boolean supports(ConfigAttribute attribute) {
+        return delegate.supports(attribute);
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    private static Timer timer(MeterRegistry registry, String layer, String result) {
+        return Timer.builder(METRIC).tags("layer", layer, "result", result).publishPercentileHistogram().
+            register(registry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.util.Assert;
+
+/**
+ * {@link AuthenticationManager} that records the latency of the delegate as {@value #METRIC}, tagged with the
+ * result.
+ */
+public class TimedAuthenticationManager implements AuthenticationManager {
+
+    static final String METRIC = "security.authentication";
+
+    private final AuthenticationManager delegate;
+    private final Timer success;
+    private final Timer failure;
+
+    public TimedAuthenticationManager(AuthenticationManager delegate, MeterRegistry registry) {
+
+        Assert.notNull(delegate, "Delegate must not be null!");
+        Assert.notNull(registry, "Registry must not be null!");
+
+        this.delegate = delegate;
+        this.success = timer(registry, "success");
+        this.failure = timer(registry, "failure");
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+
+        long start = System.nanoTime();
+        Timer timer = failure;
+
+        try {
+            Authentication result = delegate.authenticate(authentication);
+            timer = success;
+            return result;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String result) {
+        return Timer.builder(METRIC).tag("result", result).publishPercentileHistogram().register(registry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Issues tokens of the {@link TokenService} to users who authenticated with their credentials, so further requests
+ * can use {@code Authorization: Bearer} instead of verifying the credentials again.
+ * <p>
+ * Requires authentication through the URL rules of {@link SecurityConfiguration}. A token cannot be used to obtain
+ * another one, so it cannot be renewed past its expiry without the credentials.
+ */
+@RestController
+public class TokenController {
+
+    private final TokenService tokenService;
+
+    @Autowired
+    public TokenController(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @PostMapping("/auth/token")
+    public Map<String, Object> issue(Authentication authentication) {
+
+        if (authentication instanceof PreAuthenticatedAuthenticationToken) {
+            throw new AccessDeniedException("Tokens are only issued for credentials");
+        }
+
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("access_token", tokenService.issue(authentication));
+        token.put("token_type", "Bearer");
+        token.put("expires_in", TimeUnit.MILLISECONDS.toSeconds(tokenService.getTimeToLiveMillis()));
+
+        return token;
+    }
+}
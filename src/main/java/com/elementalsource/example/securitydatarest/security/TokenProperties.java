@@ -0,0 +1,23 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the signed tokens issued by {@link TokenController}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.token")
+public class TokenProperties {
+
+    /**
+     * Key the tokens are signed with. If empty, a random key is generated at startup, so tokens do not survive a
+     * restart and are only accepted by the instance which issued them.
+     */
+    private String secret = "";
+
+    /**
+     * How long a token is valid after it was issued.
+     */
+    private long timeToLiveSeconds = 900;
+}
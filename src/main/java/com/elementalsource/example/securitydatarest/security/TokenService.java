@@ -0,0 +1,122 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.util.StringUtils;
+
+/**
+ * Issues and verifies short-lived tokens carrying the name and authorities of a user, signed with HMAC-SHA256.
+ * <p>
+ * A token is {@code base64url(name LF authorities LF expiry) "." base64url(signature)}. Verifying it takes one HMAC over
+ * the first part, and no lookup of the user. The {@link Mac} instances are kept per thread, and authority lists are
+ * shared between all tokens with the same authorities.
+ */
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final char SEPARATOR = '\n';
+
+    private final SecretKeySpec key;
+    private final long timeToLiveMillis;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+    private final ConcurrentMap<String, List<GrantedAuthority>> authorities = new ConcurrentHashMap<>();
+
+    public TokenService(byte[] secret, long timeToLiveMillis) {
+
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.timeToLiveMillis = timeToLiveMillis;
+
+        newMac();
+    }
+
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    /**
+     * Issues a token for the given authentication, valid from now on for the configured time to live.
+     */
+    public String issue(Authentication authentication) {
+
+        String roles = StringUtils.collectionToCommaDelimitedString(
+            AuthorityUtils.authorityListToSet(authentication.getAuthorities()));
+        String payload = authentication.getName() + SEPARATOR + roles + SEPARATOR
+            + (System.currentTimeMillis() + timeToLiveMillis);
+
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+
+        return encoded + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(encoded));
+    }
+
+    /**
+     * Verifies the signature and expiry of the given token.
+     *
+     * @return an authenticated {@link Authentication} with the name and authorities the token was issued for.
+     * @throws AuthenticationException if the token is malformed, was not signed with our key or has expired.
+     */
+    public Authentication verify(String token) {
+
+        int dot = token.lastIndexOf('.');
+
+        if (dot <= 0) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        String encoded = token.substring(0, dot);
+        byte[] payload;
+
+        try {
+            if (!MessageDigest.isEqual(sign(encoded), Base64.getUrlDecoder().decode(token.substring(dot + 1)))) {
+                throw new BadCredentialsException("Invalid token signature");
+            }
+            payload = Base64.getUrlDecoder().decode(encoded);
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Malformed token", e);
+        }
+
+        String content = new String(payload, StandardCharsets.UTF_8);
+        int first = content.indexOf(SEPARATOR);
+        int second = content.indexOf(SEPARATOR, first + 1);
+
+        if (first < 0 || second < 0) {
+            throw new BadCredentialsException("Malformed token");
+        }
+
+        if (Long.parseLong(content.substring(second + 1)) < System.currentTimeMillis()) {
+            throw new CredentialsExpiredException("Token has expired");
+        }
+
+        return new PreAuthenticatedAuthenticationToken(content.substring(0, first), null,
+            authorities.computeIfAbsent(content.substring(first + 1, second),
+                AuthorityUtils::commaSeparatedStringToAuthorityList));
+    }
+
+    private byte[] sign(String encoded) {
+        return macs.get().doFinal(encoded.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign tokens with " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import com.elementalsource.example.securitydatarest.model.UserAccount;
+import com.elementalsource.example.securitydatarest.repository.UserAccountRepository;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.RepositoryConstraintViolationException;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.HandleBeforeCreate;
+import org.springframework.data.rest.core.annotation.HandleBeforeSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+/**
+ * Keeps the accounts managed through {@code /users} usable for authentication: passwords arrive in plain text and are
+ * hashed before they are stored, updates without a password keep the current one, and cached authentications of an
+ * account are dropped as soon as it changes.
+ */
+@Component
+@RepositoryEventHandler(UserAccount.class)
+public class UserAccountEventHandler {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2a?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    private final UserAccountRepository userAccountRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthenticationCache authenticationCache;
+
+    @Autowired
+    public UserAccountEventHandler(UserAccountRepository userAccountRepository, PasswordEncoder passwordEncoder,
+        AuthenticationCache authenticationCache) {
+
+        this.userAccountRepository = userAccountRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.authenticationCache = authenticationCache;
+    }
+
+    @HandleBeforeCreate
+    public void beforeCreate(UserAccount account) {
+
+        if (!StringUtils.hasText(account.getPassword())) {
+            Errors errors = new BeanPropertyBindingResult(account, "userAccount");
+            errors.rejectValue("password", "required", "A new user account needs a password");
+            throw new RepositoryConstraintViolationException(errors);
+        }
+        account.setPassword(encode(account.getPassword()));
+    }
+
+    @HandleBeforeSave
+    public void beforeSave(UserAccount account) {
+
+        if (StringUtils.hasText(account.getPassword())) {
+            account.setPassword(encode(account.getPassword()));
+        } else {
+            account.setPassword(userAccountRepository.findPasswordById(account.getId()));
+        }
+    }
+
+    @HandleAfterSave
+    @HandleAfterDelete
+    public void afterChange(UserAccount account) {
+        authenticationCache.evict(account.getUsername());
+    }
+
+    private String encode(String password) {
+        return BCRYPT_HASH.matcher(password).matches() ? password : passwordEncoder.encode(password);
+    }
+}
@@ -0,0 +1,24 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+/**
+ * Thrown if a chunk of a fixture is claimed by another instance seeding the same database, see
+ * {@link SeedingService#seedChunk(SeedingProperties.Fixture, int, java.util.List)}.
+ */
+@SuppressWarnings("serial")
+class ChunkClaimedException extends RuntimeException {
+
+    private final boolean seeded;
+
+    ChunkClaimedException(String fixture, int chunk, boolean seeded, Throwable cause) {
+        super("Chunk " + chunk + " of " + fixture + (seeded ? " was seeded" : " is being seeded") + " by another instance",
+            cause);
+        this.seeded = seeded;
+    }
+
+    /**
+     * @return whether the other instance committed the chunk, otherwise it is still writing it and may roll it back.
+     */
+    boolean isSeeded() {
+        return seeded;
+    }
+}
@@ -0,0 +1,146 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.core.io.Resource;
+
+/**
+ * Reads the rows of a fixture one line at a time, so fixtures of any size can be seeded. Blank lines are ignored.
+ * <p>
+ * CSV fixtures start with a header line naming the property of each column. Fields may be quoted with double quotes,
+ * which are escaped by doubling them, but must not span lines. Empty fields are read as {@literal null}.
+ */
+class FixtureReader implements Closeable {
+
+    private final String location;
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private final ObjectMapper objectMapper;
+    private final List<String> header;
+
+    private int lineNumber;
+
+    FixtureReader(Resource resource, Class<?> type, ObjectMapper objectMapper) throws IOException {
+
+        this.location = resource.getDescription();
+        this.reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
+        this.objectReader = objectMapper.readerFor(type).with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.objectMapper = objectMapper;
+
+        if (resource.getFilename() != null && resource.getFilename().endsWith(".csv")) {
+
+            String line = nextLine();
+            if (line == null) {
+                throw new IllegalStateException(location + " has no header line");
+            }
+            this.header = split(line);
+
+        } else {
+            this.header = null;
+        }
+    }
+
+    /**
+     * @return the entity the next row describes, {@literal null} at the end of the fixture.
+     */
+    Object next() throws IOException {
+
+        String line = nextLine();
+
+        if (line == null) {
+            return null;
+        }
+
+        try {
+            return header == null ? objectReader.readValue(line) : objectReader.readValue(toJson(split(line)));
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Cannot read line " + lineNumber + " of " + location, e);
+        }
+    }
+
+    /**
+     * Skips the next row without reading the entity it describes.
+     *
+     * @return whether there was a row to skip.
+     */
+    boolean skip() throws IOException {
+        return nextLine() != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String nextLine() throws IOException {
+
+        for (String line; (line = reader.readLine()) != null; ) {
+
+            lineNumber++;
+
+            if (!line.trim().isEmpty()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private ObjectNode toJson(List<String> fields) {
+
+        if (fields.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields, found " + fields.size());
+        }
+
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < fields.size(); i++) {
+            node.put(header.get(i), fields.get(i).isEmpty() ? null : fields.get(i));
+        }
+        return node;
+    }
+
+    static List<String> split(String line) {
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+
+            char c = line.charAt(i);
+
+            if (quoted && c == '"') {
+                if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append(c);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (quoted) {
+                field.append(c);
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+}
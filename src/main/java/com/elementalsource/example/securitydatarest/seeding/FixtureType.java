@@ -0,0 +1,54 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import com.elementalsource.example.securitydatarest.bulk.BulkService;
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.model.UserAccount;
+import java.util.List;
+
+/**
+ * The entities fixtures can hold, each with the way a chunk of them is written.
+ */
+public enum FixtureType {
+
+    USER_ACCOUNT(UserAccount.class) {
+        @Override
+        @SuppressWarnings("unchecked")
+        int save(BulkService bulkService, List<?> rows) {
+            return bulkService.saveUserAccounts((List<UserAccount>) rows);
+        }
+    },
+
+    EMPLOYEE(Employee.class) {
+        @Override
+        @SuppressWarnings("unchecked")
+        int save(BulkService bulkService, List<?> rows) {
+            return bulkService.saveEmployees((List<Employee>) rows);
+        }
+    },
+
+    ITEM(Item.class) {
+        @Override
+        @SuppressWarnings("unchecked")
+        int save(BulkService bulkService, List<?> rows) {
+            return bulkService.saveItems((List<Item>) rows);
+        }
+    };
+
+    private final Class<?> entityType;
+
+    FixtureType(Class<?> entityType) {
+        this.entityType = entityType;
+    }
+
+    Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Writes the given rows, which are entities of {@link #getEntityType()}.
+     *
+     * @return the number of rows written.
+     */
+    abstract int save(BulkService bulkService, List<?> rows);
+}
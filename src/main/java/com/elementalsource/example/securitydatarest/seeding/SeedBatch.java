@@ -0,0 +1,47 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Record of a chunk of a fixture which was seeded. Stored in the same transaction as the rows of the chunk, so a chunk
+ * is either seeded and recorded or neither.
+ */
+@Data
+@Entity
+@IdClass(SeedBatch.Key.class)
+@NoArgsConstructor
+public class SeedBatch {
+
+    private @Id
+    String fixture;
+    private @Id
+    int chunk;
+    private int rowCount;
+    private @Temporal(TemporalType.TIMESTAMP)
+    Date seeded;
+
+    SeedBatch(String fixture, int chunk, int rowCount) {
+        this.fixture = fixture;
+        this.chunk = chunk;
+        this.rowCount = rowCount;
+        this.seeded = new Date();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String fixture;
+        private int chunk;
+    }
+}
@@ -0,0 +1,221 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the database from the fixtures of {@link SeedingProperties}.
+ * <p>
+ * Each fixture is read as a stream and cut into chunks, which are written in parallel by a pool of
+ * {@link SeedingProperties#getThreads()} threads, one transaction per chunk. The queue of the pool is as short as the
+ * pool itself, and once it is full the reading thread writes the next chunk itself, so only a few chunks are held in
+ * memory at any time. Every chunk runs with a security context of its own, authenticated as the system user, which is
+ * discarded afterwards. Chunks which were seeded before are skipped without being parsed, so restarting after an
+ * interruption continues where the earlier run stopped. Instances started together skip the chunks seeded by each
+ * other, and wait for the ones still being seeded.
+ */
+@Component
+@EnableConfigurationProperties(SeedingProperties.class)
+public class SeedingPipeline {
+
+    private final SeedingService seedingService;
+    private final SeedingProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final Map<String, SeedingProgress> progress = new LinkedHashMap<>();
+
+    @Autowired
+    public SeedingPipeline(SeedingService seedingService, SeedingProperties properties, ResourceLoader resourceLoader,
+        Jackson2ObjectMapperBuilder objectMapperBuilder) {
+
+        this.seedingService = seedingService;
+        this.properties = properties;
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapperBuilder.build();
+    }
+
+    /**
+     * Seeds the configured fixtures.
+     */
+    public void seed() {
+        seed(properties.getFixtures());
+    }
+
+    /**
+     * Seeds the given fixtures, one after another.
+     *
+     * @throws IllegalStateException if a fixture cannot be read or a chunk cannot be written. The chunks written before
+     * stay seeded.
+     */
+    public void seed(List<SeedingProperties.Fixture> fixtures) {
+
+        int threads = properties.getThreads();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads), new CustomizableThreadFactory("seeding-"),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+        try {
+            for (SeedingProperties.Fixture fixture : fixtures) {
+                seed(fixture, executor);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the progress of every fixture seeded so far, in order.
+     */
+    public List<SeedingProgress> getProgress() {
+        synchronized (progress) {
+            return new ArrayList<>(progress.values());
+        }
+    }
+
+    private void seed(SeedingProperties.Fixture fixture, ThreadPoolExecutor executor) {
+
+        SeedingProgress progress = new SeedingProgress(fixture.getLocation());
+        synchronized (this.progress) {
+            this.progress.put(fixture.getLocation(), progress);
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> chunks = new ArrayList<>();
+
+        try (FixtureReader reader = new FixtureReader(resourceLoader.getResource(fixture.getLocation()),
+            fixture.getType().getEntityType(), objectMapper)) {
+
+            Set<Integer> seeded = seedingService.findSeededChunks(fixture.getLocation());
+
+            for (int chunk = 0; failure.get() == null; chunk++) {
+
+                if (seeded.contains(chunk)) {
+                    if (!skip(reader)) {
+                        break;
+                    }
+                    progress.chunkSkipped();
+                    continue;
+                }
+
+                List<Object> rows = read(reader);
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                int number = chunk;
+                chunks.add(executor.submit(asSystem(() -> {
+                    try {
+                        seedChunk(fixture, number, rows, progress);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    }
+                })));
+            }
+
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+
+        // the chunks handed out are finished even after a failure, so none is written once this returns
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+                break;
+            }
+        }
+
+        if (failure.get() != null) {
+            progress.failed(failure.get());
+            throw new IllegalStateException("Seeding " + fixture.getLocation() + " failed", failure.get());
+        }
+
+        progress.done();
+    }
+
+    /**
+     * Writes a chunk unless another instance seeded it. While another instance is writing it, waits for that one to
+     * commit, or to roll back and leave it to this one.
+     */
+    private void seedChunk(SeedingProperties.Fixture fixture, int chunk, List<Object> rows, SeedingProgress progress) {
+
+        while (true) {
+            try {
+                seedingService.seedChunk(fixture, chunk, rows);
+                progress.chunkSeeded(rows.size());
+                return;
+            } catch (ChunkClaimedException e) {
+                if (e.isSeeded()) {
+                    progress.chunkSkipped();
+                    return;
+                }
+                // each attempt waits for the lock timeout of the database, so this does not spin
+            }
+        }
+    }
+
+    /**
+     * @return the rows of the next chunk, empty at the end of the fixture.
+     */
+    private List<Object> read(FixtureReader reader) throws IOException {
+
+        List<Object> rows = new ArrayList<>(properties.getChunkSize());
+
+        for (Object row; rows.size() < properties.getChunkSize() && (row = reader.next()) != null; ) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * @return whether there were rows to skip, i.e. whether the end of the fixture was not reached yet.
+     */
+    private boolean skip(FixtureReader reader) throws IOException {
+
+        int skipped = 0;
+
+        while (skipped < properties.getChunkSize() && reader.skip()) {
+            skipped++;
+        }
+        return skipped > 0;
+    }
+
+    /**
+     * Runs the given task as the system user, with privileges to write all entities.
+     */
+    private static Runnable asSystem(Runnable task) {
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken("system", null,
+            AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")));
+
+        return new DelegatingSecurityContextRunnable(task, context);
+    }
+}
@@ -0,0 +1,94 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the seeding of one fixture, updated by the threads writing its chunks.
+ */
+public class SeedingProgress {
+
+    public enum State {
+        RUNNING, DONE, FAILED
+    }
+
+    private final String fixture;
+    private final long started = System.nanoTime();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicInteger chunks = new AtomicInteger();
+    private final AtomicInteger skippedChunks = new AtomicInteger();
+
+    private volatile State state = State.RUNNING;
+    private volatile long finished;
+    private volatile String failure;
+
+    SeedingProgress(String fixture) {
+        this.fixture = fixture;
+    }
+
+    void chunkSeeded(int rows) {
+        this.rows.addAndGet(rows);
+        this.chunks.incrementAndGet();
+    }
+
+    void chunkSkipped() {
+        skippedChunks.incrementAndGet();
+    }
+
+    void done() {
+        finished = System.nanoTime();
+        state = State.DONE;
+    }
+
+    void failed(Throwable cause) {
+        finished = System.nanoTime();
+        failure = String.valueOf(cause);
+        state = State.FAILED;
+    }
+
+    public String getFixture() {
+        return fixture;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of rows written, not counting the ones of skipped chunks.
+     */
+    public long getRows() {
+        return rows.get();
+    }
+
+    public int getChunks() {
+        return chunks.get();
+    }
+
+    /**
+     * @return the number of chunks which were seeded before, e.g. by an earlier run which was interrupted.
+     */
+    public int getSkippedChunks() {
+        return skippedChunks.get();
+    }
+
+    /**
+     * @return the time spent so far, or in total once done.
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((state == State.RUNNING ? System.nanoTime() : finished) - started);
+    }
+
+    public double getRowsPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0 ? 0 : getRows() * 1000.0 / elapsed;
+    }
+
+    /**
+     * @return the exception which stopped the seeding, {@literal null} unless it {@link State#FAILED}.
+     */
+    public String getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,50 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the seeding of the database from fixtures, see {@link SeedingPipeline}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.seeding")
+public class SeedingProperties {
+
+    /**
+     * Whether the fixtures are seeded on startup.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of threads writing chunks in parallel. More than the maximum of the connection pool only adds waiting.
+     */
+    private int threads = 4;
+
+    /**
+     * Number of rows written and recorded per transaction. Changing it re-seeds fixtures which were seeded in chunks of
+     * another size.
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * The fixtures, seeded one after another in the given order.
+     */
+    private List<Fixture> fixtures = new ArrayList<>();
+
+    @Data
+    public static class Fixture {
+
+        /**
+         * The entity each row becomes.
+         */
+        private FixtureType type;
+
+        /**
+         * Resource holding the rows, CSV with a header line if it ends with {@code .csv} and newline-delimited JSON
+         * otherwise. Identifies the fixture in the {@code seed_batch} table, so it must not change once seeded.
+         */
+        private String location;
+    }
+}
@@ -0,0 +1,49 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import com.elementalsource.example.securitydatarest.startup.StartupProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the configured fixtures on startup, unless {@code app.seeding.enabled} is turned off.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.seeding", name = "enabled", matchIfMissing = true)
+public class SeedingRunner {
+
+    private final SeedingPipeline seedingPipeline;
+    private final StartupProperties startupProperties;
+
+    @Autowired
+    public SeedingRunner(SeedingPipeline seedingPipeline, StartupProperties startupProperties) {
+        this.seedingPipeline = seedingPipeline;
+        this.startupProperties = startupProperties;
+    }
+
+    /**
+     * Seeds once all beans are created, before the server accepts requests. Not in {@code @PostConstruct}, where the
+     * threads of the pipeline would wait for the lock on the singletons, which the startup thread holds meanwhile.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void seed() {
+        if (!startupProperties.isDeferSeeding()) {
+            seedingPipeline.seed();
+        }
+    }
+
+    /**
+     * Seeds on a thread of its own once the application is ready, if {@code app.startup.defer-seeding} is set. Until
+     * it is done, collections come back incomplete and the users of the fixtures cannot log in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedInBackground() {
+        if (startupProperties.isDeferSeeding()) {
+            new SimpleAsyncTaskExecutor("seeding-runner-").execute(seedingPipeline::seed);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import com.elementalsource.example.securitydatarest.bulk.BulkService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.persistence.PessimisticLockException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes the chunks of fixtures and keeps track of the ones which were written, see {@link SeedBatch}.
+ */
+@Service
+public class SeedingService {
+
+    private final BulkService bulkService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public SeedingService(BulkService bulkService) {
+        this.bulkService = bulkService;
+    }
+
+    /**
+     * Not read-only, so it reads from the primary database instead of a replica which may lag behind.
+     *
+     * @return the numbers of the chunks of the given fixture which are already seeded.
+     */
+    @Transactional
+    public Set<Integer> findSeededChunks(String fixture) {
+
+        return new HashSet<>(entityManager.
+            createQuery("select b.chunk from SeedBatch b where b.fixture = :fixture", Integer.class).
+            setParameter("fixture", fixture).
+            getResultList());
+    }
+
+    /**
+     * Writes one chunk of a fixture and records it, in one transaction. Items require the privileges of
+     * {@link com.elementalsource.example.securitydatarest.repository.ItemRepository#save(Iterable)}.
+     * <p>
+     * The chunk is recorded before its rows are written, which claims it: of several instances seeding the same
+     * database at once, only the first one writes it, and the others wait for its transaction to end.
+     * <p>
+     * The rows are not put into the second-level cache, which would only evict the entities actually in use.
+     *
+     * @throws ChunkClaimedException if another instance seeded the chunk, or still holds it once the lock timeout of
+     * the database passed.
+     */
+    @Transactional
+    public void seedChunk(SeedingProperties.Fixture fixture, int chunk, List<?> rows) {
+
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        entityManager.persist(new SeedBatch(fixture.getLocation(), chunk, rows.size()));
+
+        try {
+            entityManager.flush();
+        } catch (PessimisticLockException | LockTimeoutException e) {
+            throw new ChunkClaimedException(fixture.getLocation(), chunk, false, e);
+        } catch (PersistenceException e) {
+            if (e.getCause() instanceof ConstraintViolationException) {
+                throw new ChunkClaimedException(fixture.getLocation(), chunk, true, e);
+            }
+            throw e;
+        }
+
+        fixture.getType().save(bulkService, rows);
+    }
+}
@@ -0,0 +1,28 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposes the progress and throughput of the seeding, per fixture.
+ * <p>
+ * Restricted to ROLE_ADMIN by the URL rules of
+ * {@link com.elementalsource.example.securitydatarest.security.SecurityConfiguration}.
+ */
+@RestController
+public class SeedingStatisticsController {
+
+    private final SeedingPipeline seedingPipeline;
+
+    @Autowired
+    public SeedingStatisticsController(SeedingPipeline seedingPipeline) {
+        this.seedingPipeline = seedingPipeline;
+    }
+
+    @GetMapping("/seeding/stats")
+    public List<SeedingProgress> statistics() {
+        return seedingPipeline.getProgress();
+    }
+}
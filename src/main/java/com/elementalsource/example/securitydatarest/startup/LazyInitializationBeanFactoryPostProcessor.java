@@ -0,0 +1,47 @@
+package com.elementalsource.example.securitydatarest.startup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+
+/**
+ * Marks all singletons lazy, so only the ones the first requests need get created, and only when they arrive.
+ * <p>
+ * Beans which only work when created at startup stay eager: {@link SmartInitializingSingleton}s, which hook into the
+ * end of startup, and {@link RepositoryEventHandler}s, which Spring Data REST only finds when they are created. The
+ * types are looked up without creating any factory beans, as nothing may be instantiated this early.
+ */
+class LazyInitializationBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+    /*
+     * (non-Javadoc)
+     * @see org.springframework.beans.factory.config.BeanFactoryPostProcessor#postProcessBeanFactory(org.springframework.beans.factory.config.ConfigurableListableBeanFactory)
+     */
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+
+        Set<String> eager = new HashSet<>(Arrays.asList(
+            beanFactory.getBeanNamesForType(SmartInitializingSingleton.class, true, false)));
+
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+
+            if (!definition.isAbstract() && definition.isSingleton() && !eager.contains(name)
+                && !isRepositoryEventHandler(definition)) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+
+    private static boolean isRepositoryEventHandler(BeanDefinition definition) {
+        return definition instanceof AnnotatedBeanDefinition
+            && ((AnnotatedBeanDefinition) definition).getMetadata().hasAnnotation(RepositoryEventHandler.class.getName());
+    }
+}
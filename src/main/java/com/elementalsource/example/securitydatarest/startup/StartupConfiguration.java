@@ -0,0 +1,23 @@
+package com.elementalsource.example.securitydatarest.startup;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Makes singletons lazy if {@code app.startup.lazy-initialization} is set.
+ */
+@Configuration
+@EnableConfigurationProperties(StartupProperties.class)
+public class StartupConfiguration {
+
+    /**
+     * Static, as it post-processes the bean definitions before any of them, including this configuration, is created.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.startup", name = "lazy-initialization")
+    public static LazyInitializationBeanFactoryPostProcessor lazyInitializationBeanFactoryPostProcessor() {
+        return new LazyInitializationBeanFactoryPostProcessor();
+    }
+}
@@ -0,0 +1,24 @@
+package com.elementalsource.example.securitydatarest.startup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings trading work at startup for work on first use, turned on together by the {@code fast-start} profile.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.startup")
+public class StartupProperties {
+
+    /**
+     * Whether singletons are created on first use instead of at startup, see
+     * {@link LazyInitializationBeanFactoryPostProcessor}.
+     */
+    private boolean lazyInitialization = false;
+
+    /**
+     * Whether the sample data is stored in the background once the application is ready, instead of before it starts
+     * serving requests.
+     */
+    private boolean deferSeeding = false;
+}
@@ -0,0 +1,22 @@
+-- Schema of the persistent profile, see spring.jpa.hibernate.ddl-auto in application.yml.
+
+create sequence employee_seq start with 1 increment by 50;
+create sequence item_seq start with 1 increment by 50;
+
+create table employee (
+    id            bigint       not null,
+    first_name    varchar(255),
+    last_name     varchar(255),
+    title         varchar(255),
+    version       bigint,
+    last_modified timestamp,
+    primary key (id)
+);
+
+create table item (
+    id            bigint       not null,
+    description   varchar(255),
+    version       bigint,
+    last_modified timestamp,
+    primary key (id)
+);
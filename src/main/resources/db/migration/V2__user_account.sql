@@ -0,0 +1,22 @@
+-- User accounts and their roles, looked up through the unique index on the username.
+
+create sequence user_account_seq start with 1 increment by 50;
+
+create table user_account (
+    id            bigint       not null,
+    username      varchar(255) not null,
+    password      varchar(255),
+    enabled       boolean      not null,
+    version       bigint,
+    last_modified timestamp,
+    primary key (id),
+    constraint uk_user_account_username unique (username)
+);
+
+create table user_account_role (
+    user_account_id bigint       not null,
+    role            varchar(255) not null,
+    constraint fk_user_account_role_user_account foreign key (user_account_id) references user_account (id)
+);
+
+create index ix_user_account_role_user_account on user_account_role (user_account_id);
@@ -0,0 +1,6 @@
+-- Indexes backing the searches of EmployeeRepository and ItemRepository. The one on item.description also serves
+-- prefix searches, which compare like 'prefix%'.
+
+create index ix_employee_last_name on employee (last_name);
+create index ix_employee_title on employee (title);
+create index ix_item_description on item (description);
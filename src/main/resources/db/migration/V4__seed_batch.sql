@@ -0,0 +1,19 @@
+-- Chunks of fixtures already seeded, see SeedingPipeline.
+
+create table seed_batch (
+    fixture   varchar(255) not null,
+    chunk     integer      not null,
+    row_count integer      not null,
+    seeded    timestamp,
+    primary key (fixture, chunk)
+);
+
+-- databases seeded before the fixtures existed already hold their rows, which fit into the first chunk
+
+insert into seed_batch (fixture, chunk, row_count, seeded)
+    select 'classpath:fixtures/user-accounts.ndjson', 0, count(*), current_timestamp() from user_account
+    having count(*) > 0;
+insert into seed_batch (fixture, chunk, row_count, seeded)
+    select 'classpath:fixtures/employees.csv', 0, count(*), current_timestamp() from employee having count(*) > 0;
+insert into seed_batch (fixture, chunk, row_count, seeded)
+    select 'classpath:fixtures/items.ndjson', 0, count(*), current_timestamp() from item having count(*) > 0;
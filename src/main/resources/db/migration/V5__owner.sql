@@ -0,0 +1,8 @@
+-- Users employees and items are assigned to, see Owned. Unassigned rows hold an empty owner rather than null, so what a
+-- user may see is a single "owner in ('', ?)", which the indexes serve in id order.
+
+alter table employee add column owner varchar(255) default '' not null;
+alter table item add column owner varchar(255) default '' not null;
+
+create index ix_employee_owner on employee (owner, id);
+create index ix_item_owner on item (owner, id);
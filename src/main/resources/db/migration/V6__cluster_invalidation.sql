@@ -0,0 +1,13 @@
+-- Changes announced to the other instances sharing the database, see JdbcTransport. Polled by creation time, and purged
+-- once older than the retention.
+
+create table cluster_invalidation (
+    id               bigint       auto_increment not null,
+    origin           varchar(255) not null,
+    region           varchar(255) not null,
+    invalidation_key varchar(255) not null,
+    created          timestamp    default current_timestamp not null,
+    primary key (id)
+);
+
+create index ix_cluster_invalidation_created on cluster_invalidation (created);
@@ -0,0 +1,319 @@
+package com.elementalsource.example.securitydatarest.admission;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.servlet.FilterChain;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the adaptive concurrency limit, against a database of their own. The limit of the application is
+ * fixed by a window no test reaches, while the stress test runs a limiter of its own with the default settings in
+ * front of a backend of fixed capacity.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1",
+    "app.admission.enabled=true",
+    "app.admission.initial-limit=5",
+    "app.admission.min-limit=1",
+    "app.admission.window=3600000"})
+public class AdmissionTests {
+
+    // the backend serves this many requests at once, each taking the service time
+    private static final int CAPACITY = 4;
+    private static final long SERVICE_TIME = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int SERVLET_THREADS = 200;
+    // the requests which take longer are lost to clients which gave up
+    private static final long DEADLINE = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long WARM_UP = TimeUnit.SECONDS.toNanos(1);
+    private static final long OVERLOAD = TimeUnit.SECONDS.toNanos(2);
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private ConcurrencyLimiter limiter;
+    @Autowired
+    private MeterRegistry registry;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void shedsRequestsBeyondTheLimit() throws Exception {
+
+        double rejected = registry.counter(ConcurrencyLimiter.METRIC, "lane", "standard").count();
+        List<ConcurrencyLimiter.Permit> permits = acquire(4, false);
+
+        try {
+            mvc.perform(get("/employees").with(user("merry").roles("USER"))).
+                andExpect(status().isServiceUnavailable()).
+                andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+            mvc.perform(get("/").with(user("merry").roles("USER"))).andExpect(status().isOk());
+        } finally {
+            permits.forEach(ConcurrencyLimiter.Permit::release);
+        }
+
+        assertThat(registry.counter(ConcurrencyLimiter.METRIC, "lane", "standard").count(), is(rejected + 1));
+
+        mvc.perform(get("/employees").with(user("merry").roles("USER"))).andExpect(status().isOk());
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void reservesAShareOfTheLimitForAdmins() throws Exception {
+
+        List<ConcurrencyLimiter.Permit> permits = acquire(4, false);
+
+        try {
+            mvc.perform(get("/employees").with(user("pippin").roles("USER"))).
+                andExpect(status().isServiceUnavailable());
+            mvc.perform(get("/employees").with(user("elrond").roles("USER", "ADMIN"))).
+                andExpect(status().isOk());
+
+            permits.add(limiter.tryAcquire(true));
+
+            mvc.perform(get("/employees").with(user("elrond").roles("USER", "ADMIN"))).
+                andExpect(status().isServiceUnavailable());
+        } finally {
+            permits.forEach(ConcurrencyLimiter.Permit::release);
+        }
+    }
+
+    /**
+     * Offers twice the capacity of the backend after a warm-up at half of it, at a fixed rate like clients which do not
+     * wait for each other, every tenth request from an admin. Without a limit, the requests queue for the threads and
+     * the backend until hardly any completes in time. With the limit, the backend stays busy with requests that do.
+     */
+    @Test
+    public void keepsGoodputAndTailLatencyAtTwiceTheCapacity() throws Exception {
+
+        ConcurrencyLimiter stressed = new ConcurrencyLimiter(new AdmissionProperties(), new SimpleMeterRegistry());
+        AdmissionFilter filter = new AdmissionFilter(stressed, new AdmissionProperties());
+
+        Load unlimited = overload((request, response, chain) -> chain.doFilter(request, response));
+        Load limited = overload(filter::doFilter);
+
+        double capacity = CAPACITY * (double) TimeUnit.SECONDS.toNanos(1) / SERVICE_TIME;
+
+        assertThat("Goodput with the limit " + limited, limited.goodput(), greaterThan(capacity * 0.75));
+        assertThat("Goodput without the limit " + unlimited, unlimited.goodput(), lessThan(limited.goodput() / 2));
+        assertThat("Tail latency with the limit " + limited, limited.percentile(0.99), lessThan(DEADLINE));
+        assertThat("Tail latency without the limit " + unlimited, unlimited.percentile(0.99), greaterThan(DEADLINE));
+        assertThat("Priority lane " + limited, limited.shed(true), lessThan(limited.shed(false) / 2));
+        assertThat(stressed.getLimit(), lessThan(new AdmissionProperties().getInitialLimit()));
+    }
+
+    private List<ConcurrencyLimiter.Permit> acquire(int requests, boolean priority) {
+
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+
+        for (int i = 0; i < requests; i++) {
+            permits.add(limiter.tryAcquire(priority));
+        }
+        assertThat(permits.contains(null), is(false));
+        return permits;
+    }
+
+    private static Load overload(Admission admission) throws Exception {
+
+        Semaphore backend = new Semaphore(CAPACITY, true);
+        FilterChain chain = (request, response) -> {
+
+            backend.acquireUninterruptibly();
+            try {
+                long end = System.nanoTime() + SERVICE_TIME;
+                while (System.nanoTime() - end < 0) {
+                    LockSupport.parkNanos(end - System.nanoTime());
+                }
+            } finally {
+                backend.release();
+            }
+        };
+
+        ExecutorService servletThreads = Executors.newFixedThreadPool(SERVLET_THREADS);
+        List<Future<Outcome>> outcomes = new ArrayList<>();
+
+        try {
+            long start = System.nanoTime();
+
+            offer(servletThreads, admission, chain, start, WARM_UP, CAPACITY / 2, null);
+            offer(servletThreads, admission, chain, start + WARM_UP, OVERLOAD, CAPACITY * 2, outcomes);
+
+            Load load = new Load();
+
+            for (Future<Outcome> outcome : outcomes) {
+                load.add(outcome.get());
+            }
+            return load;
+        } finally {
+            servletThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Submits requests to the servlet threads at the rate the given number of concurrent requests of the service time
+     * would take, from the given time on.
+     */
+    private static void offer(ExecutorService servletThreads, Admission admission, FilterChain chain, long start,
+        long duration, int concurrency, List<Future<Outcome>> outcomes) {
+
+        long interval = SERVICE_TIME / concurrency;
+
+        for (long i = 0, arrival = start; arrival - start < duration; arrival = start + ++i * interval) {
+
+            boolean priority = i % 10 == 0;
+            long scheduled = arrival;
+
+            while (System.nanoTime() - scheduled < 0) {
+                LockSupport.parkNanos(scheduled - System.nanoTime());
+            }
+
+            Future<Outcome> outcome = servletThreads.submit(() -> serve(admission, chain, priority, scheduled));
+
+            if (outcomes != null) {
+                outcomes.add(outcome);
+            }
+        }
+    }
+
+    private static Outcome serve(Admission admission, FilterChain chain, boolean priority, long arrival)
+        throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees");
+        request.setServletPath("/employees");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            priority ? "elrond" : "merry", "N/A", AuthorityUtils.createAuthorityList(
+                priority ? new String[] {"ROLE_USER", "ROLE_ADMIN"} : new String[] {"ROLE_USER"})));
+        try {
+            admission.apply(request, response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        return new Outcome(priority, response.getStatus() == 200, System.nanoTime() - arrival);
+    }
+
+    @FunctionalInterface
+    private interface Admission {
+
+        void apply(MockHttpServletRequest request, MockHttpServletResponse response, FilterChain chain)
+            throws Exception;
+    }
+
+    private static class Outcome {
+
+        private final boolean priority;
+        private final boolean served;
+        private final long latency;
+
+        Outcome(boolean priority, boolean served, long latency) {
+
+            this.priority = priority;
+            this.served = served;
+            this.latency = latency;
+        }
+    }
+
+    /**
+     * The outcomes of the requests offered beyond the capacity.
+     */
+    private static class Load {
+
+        private final List<Long> latencies = new ArrayList<>();
+        private int inTime;
+        private int offered;
+        private int shed;
+        private int priorityOffered;
+        private int priorityShed;
+
+        void add(Outcome outcome) {
+
+            offered++;
+            priorityOffered += outcome.priority ? 1 : 0;
+
+            if (outcome.served) {
+                latencies.add(outcome.latency);
+                inTime += outcome.latency <= DEADLINE ? 1 : 0;
+            } else {
+                shed++;
+                priorityShed += outcome.priority ? 1 : 0;
+            }
+        }
+
+        /**
+         * @return the requests per second served in time.
+         */
+        double goodput() {
+            return inTime * (double) TimeUnit.SECONDS.toNanos(1) / OVERLOAD;
+        }
+
+        /**
+         * @return the latency of the served requests, in nanoseconds, which the given share of them do not exceed.
+         */
+        long percentile(double share) {
+
+            Collections.sort(latencies);
+            return latencies.get((int) Math.ceil(share * latencies.size()) - 1);
+        }
+
+        /**
+         * @return the share of the requests of the given lane which were shed.
+         */
+        double shed(boolean priority) {
+            return priority
+                ? (double) priorityShed / priorityOffered
+                : (double) (shed - priorityShed) / (offered - priorityOffered);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f requests/s in time, p99 %d ms, %d of %d shed, %d of %d from admins",
+                goodput(), TimeUnit.NANOSECONDS.toMillis(percentile(0.99)), shed, offered, priorityShed,
+                priorityOffered);
+        }
+    }
+}
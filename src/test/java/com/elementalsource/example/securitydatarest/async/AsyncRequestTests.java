@@ -0,0 +1,257 @@
+package com.elementalsource.example.securitydatarest.async;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.SecurityDataRestApplication;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the asynchronous execution of repository calls, including a load test with a slow database which
+ * compares it to the synchronous mode.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "app.async.enabled=true")
+public class AsyncRequestTests {
+
+    private static final int SERVLET_THREADS = 4;
+    private static final int CLIENTS = 32;
+    private static final int REQUESTS_PER_CLIENT = 4;
+    private static final long LATENCY_MILLIS = 200;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private MockMvc mvc;
+    private Long itemId;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER");
+        this.itemId = itemRepository.findAll(new PageRequest(0, 1)).getContent().get(0).getId();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void rendersCollectionAfterRepositoryExecutor() throws Exception {
+
+        MvcResult result = mvc.perform(get("/employees?size=2").accept(MediaTypes.HAL_JSON)).
+            andExpect(request().asyncStarted()).
+            andReturn();
+
+        mvc.perform(asyncDispatch(result)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees", hasSize(2))).
+            andExpect(jsonPath("$.page.size", is(2))).
+            andExpect(jsonPath("$._links.profile.href", notNullValue())).
+            andExpect(jsonPath("$._links.search.href", notNullValue()));
+    }
+
+    @Test
+    public void carriesCallerOverToMethodSecurity() throws Exception {
+
+        MvcResult result = mvc.perform(get("/items/" + itemId).with(httpBasic("greg", "turnquist"))).
+            andExpect(request().asyncStarted()).
+            andReturn();
+
+        mvc.perform(asyncDispatch(result)).
+            andExpect(status().isOk()).
+            andExpect(header().string(HttpHeaders.ETAG, "\"0\"")).
+            andExpect(jsonPath("$.description", notNullValue())).
+            andExpect(jsonPath("$._links.self.href", notNullValue()));
+    }
+
+    @Test
+    public void rejectsAnonymousItemRead() throws Exception {
+
+        MvcResult result = mvc.perform(get("/items/" + itemId)).andReturn();
+
+        mvc.perform(asyncDispatch(result)).
+            andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void answersMissingEmployeeWithNotFound() throws Exception {
+
+        MvcResult result = mvc.perform(get("/employees/" + Long.MAX_VALUE)).andReturn();
+
+        mvc.perform(asyncDispatch(result)).
+            andExpect(status().isNotFound());
+    }
+
+    /**
+     * With a slow database, the synchronous mode holds a servlet thread for every repository call, so requests queue
+     * up for the few servlet threads. The asynchronous mode keeps them free and answers faster.
+     */
+    @Test
+    public void keepsServletThreadsFreeUnderLoad() throws Exception {
+
+        LoadResult sync = load(false);
+        LoadResult async = load(true);
+
+        assertThat(sync.statuses, everyItem(is(200)));
+        assertThat(async.statuses, everyItem(is(200)));
+
+        assertThat(sync.peakServletThreads, greaterThan(0));
+        assertThat(async.peakServletThreads, is(0));
+
+        assertThat(async.p99Millis, lessThan(sync.p99Millis));
+    }
+
+    private static LoadResult load(boolean async) throws Exception {
+
+        SlowItemRepository.reset();
+
+        try (ConfigurableApplicationContext application = new SpringApplicationBuilder(
+            SecurityDataRestApplication.class, SlowItemRepository.class).
+            // command line arguments, as they take precedence over application.yml
+            run("--server.port=0",
+                "--server.tomcat.max-threads=" + SERVLET_THREADS,
+                "--spring.datasource.url=jdbc:h2:mem:async-load-" + async + ";DB_CLOSE_DELAY=-1",
+                "--spring.jmx.enabled=false",
+                "--app.async.enabled=" + async,
+                "--app.async.pool-size=" + CLIENTS)) {
+
+            int port = ((EmbeddedWebApplicationContext) application).getEmbeddedServletContainer().getPort();
+            URL url = new URL("http://localhost:" + port + "/items/1");
+            String authorization = "Basic "
+                + Base64.getEncoder().encodeToString("greg:turnquist".getBytes(StandardCharsets.UTF_8));
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            List<Future<long[]>> futures = new ArrayList<>();
+
+            for (int i = 0; i < CLIENTS * REQUESTS_PER_CLIENT; i++) {
+
+                futures.add(clients.submit(() -> {
+
+                    long start = System.nanoTime();
+
+                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                    connection.setRequestProperty(HttpHeaders.AUTHORIZATION, authorization);
+
+                    int status = connection.getResponseCode();
+                    try (InputStream body = connection.getInputStream()) {
+                        while (body.read() != -1) {
+                        }
+                    }
+
+                    return new long[] {status, (System.nanoTime() - start) / 1_000_000};
+                }));
+            }
+
+            LoadResult result = new LoadResult();
+            List<Long> latencies = new ArrayList<>();
+
+            for (Future<long[]> future : futures) {
+                long[] response = future.get();
+                result.statuses.add((int) response[0]);
+                latencies.add(response[1]);
+            }
+
+            clients.shutdown();
+
+            Collections.sort(latencies);
+            result.p99Millis = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+            result.peakServletThreads = SlowItemRepository.peakServletThreads.get();
+
+            return result;
+        }
+    }
+
+    private static class LoadResult {
+
+        private final List<Integer> statuses = new ArrayList<>();
+        private long p99Millis;
+        private int peakServletThreads;
+    }
+
+    /**
+     * Makes {@link ItemRepository#findOne(java.io.Serializable)} as slow as a busy database, and records how many
+     * servlet threads wait for it at the same time.
+     */
+    @Aspect
+    @TestComponent
+    static class SlowItemRepository {
+
+        private static final AtomicInteger servletThreads = new AtomicInteger();
+        private static final AtomicInteger peakServletThreads = new AtomicInteger();
+
+        static void reset() {
+            servletThreads.set(0);
+            peakServletThreads.set(0);
+        }
+
+        @Around("this(com.elementalsource.example.securitydatarest.repository.ItemRepository) && execution(* findOne(..))")
+        public Object slowDown(ProceedingJoinPoint joinPoint) throws Throwable {
+
+            boolean servletThread = Thread.currentThread().getName().startsWith("http-");
+
+            if (servletThread) {
+                peakServletThreads.accumulateAndGet(servletThreads.incrementAndGet(), Math::max);
+            }
+
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+                return joinPoint.proceed();
+            } finally {
+                if (servletThread) {
+                    servletThreads.decrementAndGet();
+                }
+            }
+        }
+    }
+}
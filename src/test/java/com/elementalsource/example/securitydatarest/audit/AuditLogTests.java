@@ -0,0 +1,177 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test cases for the {@link AuditLog}, its {@link RingBuffer} and the backpressure of both.
+ */
+public class AuditLogTests {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 5_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void ringBufferKeepsOrderAndRejectsWhenFull() {
+
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        List<Integer> drained = new ArrayList<>();
+
+        assertThat(buffer.capacity(), is(4));
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i), is(true));
+        }
+        assertThat(buffer.offer(4), is(false));
+
+        assertThat(buffer.drainTo(drained, 2), is(2));
+        assertThat(buffer.offer(4), is(true));
+        assertThat(buffer.offer(5), is(true));
+        assertThat(buffer.offer(6), is(false));
+
+        assertThat(buffer.drainTo(drained, 10), is(4));
+        assertThat(buffer.drainTo(drained, 10), is(0));
+        assertThat(drained.toString(), is("[0, 1, 2, 3, 4, 5]"));
+    }
+
+    @Test
+    public void ringBufferHandsEveryElementToTheConsumerOnce() throws Exception {
+
+        RingBuffer<Integer> buffer = new RingBuffer<>(16);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        List<Future<?>> producers = new ArrayList<>();
+
+        for (int p = 0; p < PRODUCERS; p++) {
+
+            int producer = p;
+            producers.add(executor.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    while (!buffer.offer(producer * EVENTS_PER_PRODUCER + i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        int[] next = new int[PRODUCERS];
+
+        while (drained.size() < PRODUCERS * EVENTS_PER_PRODUCER) {
+
+            int from = drained.size();
+            buffer.drainTo(drained, 8);
+
+            for (int element : drained.subList(from, drained.size())) {
+                // each producer's elements arrive in the order they were offered
+                assertThat(element % EVENTS_PER_PRODUCER, is(next[element / EVENTS_PER_PRODUCER]++));
+            }
+        }
+
+        for (Future<?> producer : producers) {
+            producer.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(buffer.drainTo(drained, 1), is(0));
+    }
+
+    @Test
+    public void blockingWritesEveryEvent() throws Exception {
+
+        File file = folder.newFile("blocking.ndjson");
+
+        record(auditLog(file, AuditProperties.Backpressure.BLOCK));
+
+        assertThat(count("written"), is((double) PRODUCERS * EVENTS_PER_PRODUCER));
+        assertThat(count("dropped"), is(0.0));
+        assertThat(Files.readAllLines(file.toPath()).size(), is(PRODUCERS * EVENTS_PER_PRODUCER));
+    }
+
+    @Test
+    public void droppingCountsEveryEvent() throws Exception {
+
+        File file = folder.newFile("dropping.ndjson");
+
+        record(auditLog(file, AuditProperties.Backpressure.DROP));
+
+        assertThat(count("written") + count("dropped"), is((double) PRODUCERS * EVENTS_PER_PRODUCER));
+        assertThat((double) Files.readAllLines(file.toPath()).size(), is(count("written")));
+    }
+
+    @Test
+    public void appendsToTheFile() throws Exception {
+
+        File file = folder.newFile("appended.ndjson");
+
+        for (int i = 0; i < 2; i++) {
+
+            AuditLog auditLog = auditLog(file, AuditProperties.Backpressure.BLOCK);
+            auditLog.record(new AuditEvent(i, "ollie", AuditEvent.Action.DELETE, "Employee#" + i));
+            auditLog.destroy();
+        }
+
+        List<String> lines = Files.readAllLines(file.toPath());
+
+        assertThat(lines.size(), is(2));
+        assertThat(new ObjectMapper().readTree(lines.get(1)).get("target").asText(), is("Employee#1"));
+        assertThat(new ObjectMapper().readTree(lines.get(1)).get("action").asText(), is("DELETE"));
+    }
+
+    private AuditLog auditLog(File file, AuditProperties.Backpressure backpressure) throws IOException {
+
+        AuditProperties properties = new AuditProperties();
+        properties.setFile(file.getAbsolutePath());
+        properties.setBufferSize(4);
+        properties.setBatchSize(2);
+        properties.setBackpressure(backpressure);
+
+        return new AuditLog(properties, new ObjectMapper().writerFor(AuditEvent.class), registry);
+    }
+
+    /**
+     * Records events from several threads, then closes the log.
+     */
+    private static void record(AuditLog auditLog) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        List<Future<?>> producers = new ArrayList<>();
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            producers.add(executor.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    auditLog.record(new AuditEvent(i, "greg", AuditEvent.Action.SAVE, "Item#" + i));
+                }
+            }));
+        }
+
+        for (Future<?> producer : producers) {
+            producer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        auditLog.destroy();
+    }
+
+    private double count(String result) {
+        return registry.counter(AuditLog.METRIC, "result", result).count();
+    }
+}
@@ -0,0 +1,190 @@
+package com.elementalsource.example.securitydatarest.audit;
+
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for what ends up in the audit log, against a database and a file of their own.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:audit;DB_CLOSE_DELAY=-1",
+    "app.audit.enabled=true",
+    "app.audit.file=${java.io.tmpdir}/audit-tests-${random.uuid}.ndjson",
+    "app.audit.fsync=batch"})
+public class AuditTests {
+
+    private static final String EMPLOYEE = "{\"firstName\":\"Lobelia\",\"lastName\":\"Sackville-Baggins\","
+        + "\"title\":\"collector of spoons\"}";
+    private static final String BULK_EMPLOYEE = "{\"firstName\":\"Odo\",\"lastName\":\"Proudfoot\","
+        + "\"title\":\"guest of the party\"}";
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private AuditProperties properties;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void recordsEmployeeChangesMadeOverHttp() throws Exception {
+
+        String location = mvc.perform(post("/employees").with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content(EMPLOYEE)).
+            andExpect(status().isCreated()).
+            andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        String target = "Employee#" + location.substring(location.lastIndexOf('/') + 1);
+
+        mvc.perform(patch(location).with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("{\"title\":\"owner of Bag End\"}")).
+            andExpect(status().is2xxSuccessful());
+        mvc.perform(delete(location).with(httpBasic("ollie", "gierke"))).
+            andExpect(status().isNoContent());
+
+        awaitEvents("ollie CREATE " + target, "ollie SAVE " + target, "ollie DELETE " + target);
+    }
+
+    @Test
+    public void recordsEmployeesWrittenInBulk() throws Exception {
+
+        mvc.perform(post("/employees/bulk").with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("[" + BULK_EMPLOYEE + "," + BULK_EMPLOYEE + "]")).
+            andExpect(status().isOk());
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+
+        String[] expected = employeeRepository.findByLastName("Proudfoot", new PageRequest(0, 10)).getContent().
+            stream().
+            map(employee -> "ollie CREATE Employee#" + employee.getId()).
+            toArray(String[]::new);
+
+        assertThat(expected.length, is(2));
+        awaitEvents(expected);
+    }
+
+    @Test
+    public void recordsItemRepositoryCalls() throws Exception {
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+
+        Item item = itemRepository.save(new Item("Audited ring"));
+        itemRepository.delete(item.getId());
+
+        awaitEvents("system SAVE Item#" + item.getId(), "system DELETE Item#" + item.getId());
+    }
+
+    @Test
+    public void recordsDeniedAccess() throws Exception {
+
+        mvc.perform(post("/employees").with(httpBasic("greg", "turnquist")).
+            contentType(MediaType.APPLICATION_JSON).
+            content(EMPLOYEE)).
+            andExpect(status().isForbidden());
+
+        SecurityUtils.runAs("greg", "turnquist", "ROLE_USER");
+
+        try {
+            itemRepository.delete(1L);
+            fail("Expected access to be denied");
+        } catch (AccessDeniedException e) {
+            // expected
+        }
+
+        awaitEvents("greg DENIED POST /employees", "greg DENIED ItemRepository.delete");
+    }
+
+    /**
+     * Waits for the writer to append the given events, each as {@code principal action target}.
+     */
+    private void awaitEvents(String... expected) throws IOException, InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<String> events = events();
+
+        while (!events.containsAll(Arrays.asList(expected)) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            events = events();
+        }
+
+        assertThat(events, hasItems(expected));
+    }
+
+    private List<String> events() throws IOException {
+
+        List<String> events = new ArrayList<>();
+        String content = new String(Files.readAllBytes(Paths.get(properties.getFile())), StandardCharsets.UTF_8);
+
+        // the last line may still be written
+        for (String line : content.substring(0, content.lastIndexOf('\n') + 1).split("\n")) {
+
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            JsonNode event = objectMapper.readTree(line);
+            events.add(event.get("principal").asText() + " " + event.get("action").asText() + " "
+                + event.get("target").asText());
+        }
+        return events;
+    }
+}
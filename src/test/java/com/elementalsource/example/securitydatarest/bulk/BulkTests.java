@@ -0,0 +1,196 @@
+package com.elementalsource.example.securitydatarest.bulk;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the bulk endpoints.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class BulkTests {
+
+    private static final String ITEMS = "[{\"description\": \"Glamdring\"}, {\"description\": \"Orcrist\"}]";
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BulkProperties properties;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void insertsEmployeesForAdmin() throws Exception {
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            employees.add(new Employee("Elf", "No. " + i, "archer"));
+        }
+
+        long before = employeeRepository.count();
+
+        mvc.perform(post("/employees/bulk").
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content(new ObjectMapper().writeValueAsString(employees))).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.saved", is(1_000)));
+
+        assertThat(employeeRepository.count(), is(before + 1_000));
+    }
+
+    @Test
+    public void updatesEmployeesByIdWithAndWithoutVersion() throws Exception {
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        Employee versioned = employeeRepository.save(new Employee("Thorin", "Oakenshield", "heir"));
+        Employee unversioned = employeeRepository.save(new Employee("Balin", "Fundinson", "advisor"));
+        long before = employeeRepository.count();
+        SecurityContextHolder.clearContext();
+
+        mvc.perform(post("/employees/bulk").
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("[{\"id\": " + versioned.getId() + ", \"version\": " + versioned.getVersion()
+                + ", \"firstName\": \"Thorin\", \"lastName\": \"Oakenshield\", \"title\": \"king\"}, "
+                + "{\"id\": " + unversioned.getId()
+                + ", \"firstName\": \"Balin\", \"lastName\": \"Fundinson\", \"title\": \"lord of Moria\"}]")).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.saved", is(2)));
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        assertThat(employeeRepository.count(), is(before));
+        assertThat(employeeRepository.findOne(versioned.getId()).getTitle(), is("king"));
+        assertThat(employeeRepository.findOne(unversioned.getId()).getTitle(), is("lord of Moria"));
+    }
+
+    @Test
+    public void rejectsEmployeesWithUnknownId() throws Exception {
+
+        long before = employeeRepository.count();
+
+        mvc.perform(post("/employees/bulk").
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("[{\"firstName\": \"Dwalin\", \"lastName\": \"Fundinson\", \"title\": \"warrior\"}, "
+                + "{\"id\": 999999, \"firstName\": \"Nori\", \"lastName\": \"Unknown\", \"title\": \"thief\"}]")).
+            andExpect(status().isBadRequest()).
+            andExpect(jsonPath("$.unknownId", is(999_999)));
+
+        assertThat(employeeRepository.count(), is(before));
+    }
+
+    @Test
+    public void rejectsEmployeesForUser() throws Exception {
+
+        mvc.perform(post("/employees/bulk").
+            with(httpBasic("greg", "turnquist")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("[]")).
+            andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void rejectsMoreEmployeesThanAllowed() throws Exception {
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i <= properties.getMaxEntities(); i++) {
+            employees.add(new Employee("Orc", "No. " + i, "soldier"));
+        }
+
+        long before = employeeRepository.count();
+
+        mvc.perform(post("/employees/bulk").
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content(new ObjectMapper().writeValueAsString(employees))).
+            andExpect(status().isPayloadTooLarge()).
+            andExpect(jsonPath("$.maxEntities", is(properties.getMaxEntities())));
+
+        assertThat(employeeRepository.count(), is(before));
+    }
+
+    @Test
+    public void insertsItemsForAdmin() throws Exception {
+
+        mvc.perform(post("/items/bulk").
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content(ITEMS)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.saved", is(2)));
+    }
+
+    @Test
+    public void updatesItemsByIdWithAndWithoutVersion() throws Exception {
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        Item versioned = itemRepository.save(new Item("Narsil"));
+        Item unversioned = itemRepository.save(new Item("Arkenstone"));
+        long before = itemRepository.count();
+        SecurityContextHolder.clearContext();
+
+        mvc.perform(post("/items/bulk").
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("[{\"id\": " + versioned.getId() + ", \"version\": " + versioned.getVersion()
+                + ", \"description\": \"Anduril\"}, "
+                + "{\"id\": " + unversioned.getId() + ", \"description\": \"Heart of the Mountain\"}]")).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.saved", is(2)));
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        assertThat(itemRepository.count(), is(before));
+        assertThat(itemRepository.findOne(versioned.getId()).getDescription(), is("Anduril"));
+        assertThat(itemRepository.findOne(unversioned.getId()).getDescription(), is("Heart of the Mountain"));
+    }
+
+    @Test
+    public void rejectsItemsForUser() throws Exception {
+
+        mvc.perform(post("/items/bulk").
+            with(httpBasic("greg", "turnquist")).
+            contentType(MediaType.APPLICATION_JSON).
+            content(ITEMS)).
+            andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,192 @@
+package com.elementalsource.example.securitydatarest.cache;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.util.Collections;
+import java.util.Map;
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the second-level and query caches.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class CacheTests {
+
+    private static final int READS = 5_000;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private MockMvc mvc;
+    private Employee employee;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+        this.employee = employeeRepository.save(new Employee("Bilbo", "Baggins", "burglar"));
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+        employeeRepository.delete(employee.getId());
+    }
+
+    @Test
+    public void servesRepeatedReadsFromCache() throws Exception {
+
+        long hits = employeeRegion().getHitCount();
+
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/employees/{id}", employee.getId()).accept(MediaTypes.HAL_JSON)).
+                andExpect(status().isOk());
+        }
+
+        assertThat(employeeRegion().getHitCount(), greaterThanOrEqualTo(hits + 3));
+    }
+
+    @Test
+    public void readsFasterFromCacheThanFromDatabase() {
+
+        // warm up both paths before measuring
+        read(CacheRetrieveMode.USE, READS);
+        read(CacheRetrieveMode.BYPASS, READS);
+
+        long cached = read(CacheRetrieveMode.USE, READS);
+        long uncached = read(CacheRetrieveMode.BYPASS, READS);
+
+        assertThat(cached, lessThan(uncached));
+    }
+
+    @Test
+    public void servesFreshEntityAfterAdminPut() throws Exception {
+
+        mvc.perform(get("/employees/{id}", employee.getId()).accept(MediaTypes.HAL_JSON)).
+            andExpect(jsonPath("$.title", is("burglar")));
+
+        mvc.perform(put("/employees/{id}", employee.getId()).
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("{\"firstName\": \"Bilbo\", \"lastName\": \"Baggins\", \"title\": \"ring-bearer\"}")).
+            andExpect(status().is2xxSuccessful());
+
+        mvc.perform(get("/employees/{id}", employee.getId()).accept(MediaTypes.HAL_JSON)).
+            andExpect(jsonPath("$.title", is("ring-bearer")));
+    }
+
+    @Test
+    public void servesFreshEntityAfterAdminPatch() throws Exception {
+
+        mvc.perform(get("/employees/{id}", employee.getId()).accept(MediaTypes.HAL_JSON)).
+            andExpect(jsonPath("$.lastName", is("Baggins")));
+
+        mvc.perform(patch("/employees/{id}", employee.getId()).
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("{\"lastName\": \"Underhill\"}")).
+            andExpect(status().is2xxSuccessful());
+
+        mvc.perform(get("/employees/{id}", employee.getId()).accept(MediaTypes.HAL_JSON)).
+            andExpect(jsonPath("$.lastName", is("Underhill")));
+    }
+
+    @Test
+    public void evictsDeletedItem() {
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+
+        Item item = itemRepository.save(new Item("Sting"));
+        assertThat(itemRepository.findOne(item.getId()).getDescription(), is("Sting"));
+
+        itemRepository.delete(item.getId());
+
+        assertThat(itemRepository.findOne(item.getId()), is(nullValue()));
+    }
+
+    @Test
+    public void exposesStatisticsToAdmin() throws Exception {
+
+        mvc.perform(get("/cache/stats").with(httpBasic("ollie", "gierke"))).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.regions['" + Employee.class.getName() + "'].hits", greaterThan(-1))).
+            andExpect(jsonPath("$.queries.misses", greaterThan(-1)));
+    }
+
+    @Test
+    public void hidesStatisticsFromUser() throws Exception {
+
+        mvc.perform(get("/cache/stats").with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isForbidden());
+    }
+
+    private long read(CacheRetrieveMode mode, int times) {
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        Map<String, Object> hints = Collections.singletonMap("javax.persistence.cache.retrieveMode", mode);
+
+        try {
+
+            long start = System.nanoTime();
+
+            for (int i = 0; i < times; i++) {
+                entityManager.find(Employee.class, employee.getId(), hints);
+                entityManager.clear();
+            }
+
+            return System.nanoTime() - start;
+
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private SecondLevelCacheStatistics employeeRegion() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics().
+            getSecondLevelCacheStatistics(Employee.class.getName());
+    }
+}
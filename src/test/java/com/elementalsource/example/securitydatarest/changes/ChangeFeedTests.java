@@ -0,0 +1,511 @@
+package com.elementalsource.example.securitydatarest.changes;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeThat;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.UnixOperatingSystemMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.embedded.LocalServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Test cases for the change feed, against a running server and a database of its own.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = "spring.datasource.url=jdbc:h2:mem:changes;DB_CLOSE_DELAY=-1")
+public class ChangeFeedTests {
+
+    private static final int SUBSCRIBERS = 5_000;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @LocalServerPort
+    private int port;
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void fansOutToThousandsOfIdleSubscribers() throws Exception {
+
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+
+        // a socket on either side of every subscription
+        if (os instanceof UnixOperatingSystemMXBean) {
+            assumeThat(((UnixOperatingSystemMXBean) os).getMaxFileDescriptorCount(), greaterThan(3L * SUBSCRIBERS));
+        }
+
+        try (Subscribers subscribers = new Subscribers(port)) {
+
+            subscribers.open(SUBSCRIBERS, "/changes");
+
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+            assertThat("Threads with " + SUBSCRIBERS + " subscribers", threads, lessThan(SUBSCRIBERS / 10));
+
+            Employee employee = employeeRepository.save(new Employee("Bilbo", "Baggins", "burglar"));
+
+            subscribers.await("the new employee", received(change("Employee", employee.getId(), "CREATED")));
+        }
+    }
+
+    @Test
+    public void streamsUpdatesAndDeletes() throws Exception {
+
+        try (Subscribers subscribers = new Subscribers(port)) {
+
+            subscribers.open(1, "/changes");
+
+            Employee employee = employeeRepository.save(new Employee("Frodo", "Baggins", "ring-bearer"));
+            employee.setLastModified(new Date(0));
+            employee = employeeRepository.save(employee);
+            employeeRepository.delete(employee.getId());
+
+            subscribers.await("the deletion", received(change("Employee", employee.getId(), "DELETED")));
+
+            assertThat(subscribers.get(0).changes().stream().map(change -> change.get("action").asText()).
+                collect(Collectors.toList()), contains("CREATED", "UPDATED", "DELETED"));
+        }
+    }
+
+    @Test
+    public void resumesAfterTheLastEventSeen() throws Exception {
+
+        try (Subscribers first = new Subscribers(port); Subscribers resumed = new Subscribers(port);
+            Subscribers after = new Subscribers(port)) {
+
+            first.open(1, "/changes");
+
+            Employee merry = employeeRepository.save(new Employee("Meriadoc", "Brandybuck", "esquire of Rohan"));
+            Employee pippin = employeeRepository.save(new Employee("Peregrin", "Took", "guard of the Citadel"));
+
+            first.await("both employees", received(change("Employee", pippin.getId(), "CREATED")));
+
+            Event seen = first.get(0).events().stream().
+                filter(change("Employee", merry.getId(), "CREATED")).findFirst().get();
+
+            resumed.open(1, "/changes", "Last-Event-ID: " + seen.id);
+            after.open(1, "/changes?after=" + seen.id);
+
+            for (Subscribers subscribers : new Subscribers[] {resumed, after}) {
+
+                subscribers.await("the employee after the cursor",
+                    received(change("Employee", pippin.getId(), "CREATED")));
+                assertThat(subscribers.get(0).events().size(), is(1));
+            }
+        }
+    }
+
+    @Test
+    public void resetsSubscribersWithUnknownCursors() throws Exception {
+
+        try (Subscribers subscribers = new Subscribers(port)) {
+
+            subscribers.open(1, "/changes", "Last-Event-ID: 1");
+
+            subscribers.await("a reset", received(event -> "reset".equals(event.name)));
+        }
+    }
+
+    @Test
+    public void streamsItemsToUsersOnly() throws Exception {
+
+        try (Subscribers anonymous = new Subscribers(port); Subscribers users = new Subscribers(port)) {
+
+            anonymous.open(1, "/changes");
+            users.open(1, "/changes", "Authorization: Basic "
+                + Base64.getEncoder().encodeToString("greg:turnquist".getBytes(StandardCharsets.UTF_8)));
+
+            SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+
+            Item item = itemRepository.save(new Item("Sting"));
+            Employee employee = employeeRepository.save(new Employee("Gandalf", "the Grey", "wizard"));
+
+            // changes are streamed in order, so once the employee arrived the item would have
+            anonymous.await("the employee", received(change("Employee", employee.getId(), "CREATED")));
+            users.await("the employee", received(change("Employee", employee.getId(), "CREATED")));
+
+            assertThat(anonymous.get(0).events().stream().anyMatch(change("Item", item.getId(), "CREATED")), is(false));
+            assertThat(users.get(0).events().stream().anyMatch(change("Item", item.getId(), "CREATED")), is(true));
+        }
+    }
+
+    @Test
+    public void streamsAssignedEntitiesToTheirOwnersOnly() throws Exception {
+
+        try (Subscribers anonymous = new Subscribers(port); Subscribers greg = new Subscribers(port)) {
+
+            anonymous.open(1, "/changes");
+            greg.open(1, "/changes", "Authorization: Basic "
+                + Base64.getEncoder().encodeToString("greg:turnquist".getBytes(StandardCharsets.UTF_8)));
+
+            Employee gregs = employeeRepository.save(assigned(new Employee("Samwise", "Gamgee", "gardener"), "greg"));
+            Employee ollies = employeeRepository.save(assigned(new Employee("Denethor", "II", "steward"), "ollie"));
+            Employee shared = employeeRepository.save(new Employee("Radagast", "the Brown", "wizard"));
+
+            // changes are streamed in order, so once the unassigned employee arrived the others would have
+            anonymous.await("the unassigned employee", received(change("Employee", shared.getId(), "CREATED")));
+            greg.await("the unassigned employee", received(change("Employee", shared.getId(), "CREATED")));
+
+            assertThat(greg.get(0).events().stream().anyMatch(change("Employee", gregs.getId(), "CREATED")), is(true));
+            assertThat(greg.get(0).events().stream().anyMatch(change("Employee", ollies.getId(), "CREATED")),
+                is(false));
+            assertThat(anonymous.get(0).events().stream().anyMatch(change("Employee", gregs.getId(), "CREATED")),
+                is(false));
+        }
+    }
+
+    @Test
+    public void keepsStreamingWhileASubscriberStopsReading() throws Exception {
+
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setJournalSize(100);
+        properties.setQueueSize(4);
+        properties.setWriters(2);
+
+        ChangeFeed changeFeed = new ChangeFeed(properties, OBJECT_MAPPER.writerFor(ChangeEvent.class),
+            new SimpleMeterRegistry());
+        RecordingEmitter stalled = new RecordingEmitter();
+        RecordingEmitter reading = new RecordingEmitter();
+        List<Long> published = LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+
+        try {
+
+            stalled.stall();
+            changeFeed.subscribe(stalled, null, event -> true);
+            changeFeed.subscribe(reading, null, event -> true);
+
+            published.forEach(id -> changeFeed.publish("Employee", id, null, ChangeEvent.Action.CREATED));
+
+            assertThat(reading.awaitIds(published.size()), is(published));
+
+            stalled.resume();
+
+            assertThat(stalled.awaitIds(published.size()), is(published));
+
+        } finally {
+            stalled.resume();
+            changeFeed.destroy();
+        }
+    }
+
+    private static Employee assigned(Employee employee, String owner) {
+
+        employee.setOwner(owner);
+        return employee;
+    }
+
+    private static Predicate<Event> change(String type, Long id, String action) {
+
+        return event -> {
+
+            JsonNode change = event.change();
+            return change != null && type.equals(change.get("type").asText()) && id == change.get("id").asLong()
+                && action.equals(change.get("action").asText());
+        };
+    }
+
+    private static Predicate<Subscriber> received(Predicate<Event> event) {
+        return subscriber -> subscriber.events().stream().anyMatch(event);
+    }
+
+    /**
+     * Subscriptions on plain non-blocking sockets, all served by one selector on the test thread. The requests are
+     * HTTP/1.0, so the stream is not chunked, and accept gzip, which the stream must not be held back for.
+     */
+    private static class Subscribers implements Closeable {
+
+        // the default accept queue of Tomcat
+        private static final int BATCH = 100;
+
+        private final int port;
+        private final Selector selector;
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+        Subscribers(int port) throws IOException {
+
+            this.port = port;
+            this.selector = Selector.open();
+        }
+
+        void open(int count, String path, String... headers) throws IOException {
+
+            StringBuilder request = new StringBuilder("GET ").append(path).append(" HTTP/1.0\r\n").
+                append("Host: localhost\r\n").
+                append("Accept: text/event-stream\r\n").
+                append("Accept-Encoding: gzip\r\n");
+
+            for (String header : headers) {
+                request.append(header).append("\r\n");
+            }
+            byte[] bytes = request.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII);
+
+            for (int opened = 0; opened < count; ) {
+
+                List<Subscriber> batch = new ArrayList<>();
+
+                for (int i = 0; i < BATCH && opened < count; i++, opened++) {
+
+                    SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+                    channel.write(ByteBuffer.wrap(bytes));
+                    channel.configureBlocking(false);
+
+                    Subscriber subscriber = new Subscriber(channel);
+                    channel.register(selector, SelectionKey.OP_READ, subscriber);
+                    batch.add(subscriber);
+                }
+
+                subscribers.addAll(batch);
+                await(batch, "the response headers", Subscriber::isStreaming);
+            }
+        }
+
+        Subscriber get(int index) {
+            return subscribers.get(index);
+        }
+
+        void await(String description, Predicate<Subscriber> condition) throws IOException {
+            await(subscribers, description, condition);
+        }
+
+        /**
+         * Reads from all subscribers until the given ones meet the condition.
+         */
+        private void await(List<Subscriber> awaited, String description, Predicate<Subscriber> condition)
+            throws IOException {
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            List<Subscriber> pending = new ArrayList<>(awaited);
+
+            while (true) {
+
+                pending.removeIf(condition);
+
+                if (pending.isEmpty()) {
+                    return;
+                }
+                if (System.nanoTime() > deadline) {
+                    fail(pending.size() + " subscribers did not receive " + description + ", e.g. "
+                        + pending.get(0).text());
+                }
+
+                selector.select(100);
+
+                for (SelectionKey key : selector.selectedKeys()) {
+
+                    buffer.clear();
+
+                    if (((SocketChannel) key.channel()).read(buffer) < 0) {
+                        key.cancel();
+                    } else {
+                        ((Subscriber) key.attachment()).received.write(buffer.array(), 0, buffer.position());
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            for (Subscriber subscriber : subscribers) {
+                subscriber.channel.close();
+            }
+            selector.close();
+        }
+    }
+
+    private static class Subscriber {
+
+        private final SocketChannel channel;
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        Subscriber(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        String text() {
+            return new String(received.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        boolean isStreaming() {
+
+            String text = text();
+            int end = text.indexOf("\r\n\r\n");
+
+            if (end < 0) {
+                return false;
+            }
+
+            String headers = text.substring(0, end).toLowerCase();
+
+            assertThat(headers, headers.startsWith("http/1.1 200"), is(true));
+            assertThat(headers, headers.contains("content-type: text/event-stream"), is(true));
+            assertThat(headers, headers.contains("content-encoding"), is(false));
+
+            return true;
+        }
+
+        /**
+         * The complete events received so far, without comments.
+         */
+        List<Event> events() {
+
+            String text = text();
+            int body = text.indexOf("\r\n\r\n");
+            List<Event> events = new ArrayList<>();
+
+            if (body < 0) {
+                return events;
+            }
+
+            for (int start = body + 4, end; (end = text.indexOf("\n\n", start)) >= 0; start = end + 2) {
+
+                Event event = new Event();
+
+                for (String line : text.substring(start, end).split("\n")) {
+
+                    if (line.startsWith("id:")) {
+                        event.id = line.substring(3);
+                    } else if (line.startsWith("event:")) {
+                        event.name = line.substring(6);
+                    } else if (line.startsWith("data:")) {
+                        event.data = line.substring(5);
+                    }
+                }
+
+                if (event.data != null) {
+                    events.add(event);
+                }
+            }
+            return events;
+        }
+
+        List<JsonNode> changes() {
+            return events().stream().map(Event::change).filter(change -> change != null).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Records the frames sent, and blocks the writer like a client which stops reading while stalled.
+     */
+    private static class RecordingEmitter extends ResponseBodyEmitter {
+
+        private final StringBuffer text = new StringBuffer();
+        private volatile CountDownLatch stalled = new CountDownLatch(0);
+
+        void stall() {
+            stalled = new CountDownLatch(1);
+        }
+
+        void resume() {
+            stalled.countDown();
+        }
+
+        @Override
+        public void send(Object object, MediaType mediaType) throws IOException {
+
+            try {
+                stalled.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            text.append(object);
+        }
+
+        /**
+         * @return the ids of the entities changed, once the given number of changes arrived.
+         */
+        List<Long> awaitIds(int count) throws IOException, InterruptedException {
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            List<Long> ids = ids();
+
+            while (ids.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+                ids = ids();
+            }
+            return ids;
+        }
+
+        private List<Long> ids() throws IOException {
+
+            List<Long> ids = new ArrayList<>();
+
+            for (String line : text.toString().split("\n")) {
+                if (line.startsWith("data:{")) {
+                    ids.add(OBJECT_MAPPER.readTree(line.substring(5)).get("id").asLong());
+                }
+            }
+            return ids;
+        }
+    }
+
+    private static class Event {
+
+        private String id;
+        private String name;
+        private String data;
+
+        /**
+         * @return the change, {@literal null} for other events.
+         */
+        JsonNode change() {
+
+            try {
+                return name == null ? OBJECT_MAPPER.readTree(data) : null;
+            } catch (IOException e) {
+                throw new IllegalStateException("Not a change: " + data, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.elementalsource.example.securitydatarest.cluster;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.elementalsource.example.securitydatarest.SecurityDataRestApplication;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Test cases for several instances sharing a database, started in one JVM and exchanging invalidations through the
+ * {@link LoopbackTransport}. Every instance caches entities, queries and authentications, so each assertion on another
+ * instance than the one a change was made on fails without the invalidations. The {@link JdbcTransport} is tested on
+ * their database.
+ */
+public class ClusterTests {
+
+    private static final int NODES = 3;
+
+    // generous for a single slow core, tighten with -Dcluster.minimum-throughput on faster machines
+    private static final double MINIMUM_THROUGHPUT = Double.parseDouble(
+        System.getProperty("cluster.minimum-throughput", "20"));
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static final List<TestRestTemplate> clients = new ArrayList<>();
+
+    @BeforeClass
+    public static void startNodes() {
+
+        for (int i = 0; i < NODES; i++) {
+
+            ConfigurableApplicationContext node = start("cluster", "node" + i);
+            int port = ((EmbeddedWebApplicationContext) node).getEmbeddedServletContainer().getPort();
+
+            nodes.add(node);
+            clients.add(new TestRestTemplate(new RestTemplateBuilder().rootUri("http://localhost:" + port)));
+        }
+    }
+
+    @AfterClass
+    public static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    public void seedsOnceWhenStartedTogether() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<ConfigurableApplicationContext>> started = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            String nodeId = "together" + i;
+            started.add(executor.submit(() -> start("together", nodeId)));
+        }
+
+        List<ConfigurableApplicationContext> together = new ArrayList<>();
+        try {
+            for (Future<ConfigurableApplicationContext> node : started) {
+                together.add(node.get());
+            }
+
+            JdbcTemplate jdbcTemplate = together.get(0).getBean(JdbcTemplate.class);
+
+            // the rows of the fixtures, each written by one of them
+            assertThat(jdbcTemplate.queryForObject("select count(*) from user_account", Long.class), is(2L));
+            assertThat(jdbcTemplate.queryForObject("select count(*) from employee", Long.class), is(3L));
+            assertThat(jdbcTemplate.queryForObject("select count(*) from seed_batch", Long.class), is(3L));
+        } finally {
+            executor.shutdown();
+            together.forEach(ConfigurableApplicationContext::close);
+        }
+    }
+
+    @Test
+    public void acceptsTokensIssuedByOtherNodes() {
+
+        ResponseEntity<String> issued = clients.get(0).withBasicAuth("greg", "turnquist").
+            postForEntity("/auth/token", null, String.class);
+        String token = JsonPath.read(issued.getBody(), "$.access_token");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        headers.setAccept(MediaType.parseMediaTypes(MediaTypes.HAL_JSON_VALUE));
+
+        for (TestRestTemplate client : clients) {
+            assertThat(client.exchange("/items", HttpMethod.GET, new HttpEntity<>(headers), String.class).
+                getStatusCode(), is(HttpStatus.OK));
+        }
+    }
+
+    @Test
+    public void servesChangesMadeOnOtherNodes() {
+
+        String location = create(0, "Bilbo", "Baggins", "burglar");
+
+        for (int i = 0; i < NODES; i++) {
+            assertThat(title(i, location), is("burglar"));
+            assertThat(titles(i), is(titles(0)));
+        }
+
+        patch(1, location, "{\"title\": \"ring-bearer\"}");
+
+        for (int i = 0; i < NODES; i++) {
+            assertThat(title(i, location), is("ring-bearer"));
+            assertThat(titles(i), is(titles(1)));
+        }
+
+        clients.get(2).withBasicAuth("ollie", "gierke").delete(location);
+
+        for (int i = 0; i < NODES; i++) {
+            assertThat(clients.get(i).getForEntity(location, String.class).getStatusCode(), is(HttpStatus.NOT_FOUND));
+            assertThat(titles(i), is(titles(2)));
+        }
+    }
+
+    @Test
+    public void dropsAuthenticationsCachedOnOtherNodes() {
+
+        ResponseEntity<String> created = clients.get(0).withBasicAuth("ollie", "gierke").
+            postForEntity("/users", json("{\"username\": \"sam\", \"password\": \"gamgee\", \"roles\": [\"USER\"]}"),
+                String.class);
+        String location = created.getHeaders().getLocation().getPath();
+
+        for (TestRestTemplate client : clients) {
+            assertThat(items(client, "sam", "gamgee"), is(HttpStatus.OK));
+        }
+
+        clients.get(0).withBasicAuth("ollie", "gierke").
+            exchange(location, HttpMethod.PATCH, json("{\"password\": \"samwise\"}"), String.class);
+
+        for (TestRestTemplate client : clients) {
+            assertThat(items(client, "sam", "gamgee"), is(HttpStatus.UNAUTHORIZED));
+            assertThat(items(client, "sam", "samwise"), is(HttpStatus.OK));
+        }
+
+        clients.get(1).withBasicAuth("ollie", "gierke").delete(location);
+
+        for (TestRestTemplate client : clients) {
+            assertThat(items(client, "sam", "samwise"), is(HttpStatus.UNAUTHORIZED));
+        }
+    }
+
+    @Test
+    public void staysConsistentUnderConcurrentReadsAndWrites() throws Exception {
+
+        List<String> locations = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            locations.add(create(i % NODES, "Hobbit", "No. " + i, "unchanged"));
+        }
+
+        int threads = 6;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> requests = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            requests.add(executor.submit(() -> {
+
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int count = 0;
+
+                for (; System.nanoTime() < deadline; count++) {
+
+                    int node = random.nextInt(NODES);
+                    String location = locations.get(random.nextInt(locations.size()));
+
+                    if (random.nextInt(4) == 0) {
+                        // concurrent updates of the same employee may conflict, the loser keeps what it lost to
+                        clients.get(node).withBasicAuth("ollie", "gierke").exchange(location, HttpMethod.PATCH,
+                            json("{\"title\": \"title " + random.nextInt(1_000_000) + "\"}"), String.class);
+                    } else {
+                        title(node, location);
+                    }
+                }
+                return count;
+            }));
+        }
+
+        int total = 0;
+        for (Future<Integer> count : requests) {
+            total += count.get();
+        }
+        executor.shutdown();
+
+        double throughput = total / 5.0;
+        assertThat("Requests per second across all nodes", throughput, greaterThan(MINIMUM_THROUGHPUT));
+
+        JdbcTemplate jdbcTemplate = nodes.get(0).getBean(JdbcTemplate.class);
+
+        for (String location : locations) {
+
+            String id = location.substring(location.lastIndexOf('/') + 1);
+            String stored = jdbcTemplate.queryForObject("select title from employee where id = ?", String.class, id);
+
+            for (int i = 0; i < NODES; i++) {
+                assertThat("Title of " + location + " on node" + i, title(i, location), is(stored));
+            }
+        }
+
+        for (ConfigurableApplicationContext node : nodes) {
+            assertThat(node.getBean(MeterRegistry.class).counter(InvalidationSubscriber.METRIC, "direction", "received").
+                count(), greaterThan(0.0));
+        }
+    }
+
+    @Test
+    public void exchangesInvalidationsThroughTheDatabase() throws Exception {
+
+        ClusterProperties properties = new ClusterProperties();
+        properties.setPollInterval(50);
+
+        JdbcTemplate jdbcTemplate = nodes.get(0).getBean(JdbcTemplate.class);
+        JdbcTransport sender = new JdbcTransport(jdbcTemplate, "sender", properties);
+        JdbcTransport receiver = new JdbcTransport(jdbcTemplate, "receiver", properties);
+        BlockingQueue<Invalidation> received = new LinkedBlockingQueue<>();
+
+        try {
+            sender.listen(received::add);
+            receiver.listen(received::add);
+
+            sender.send("Item", "42");
+
+            assertThat(received.poll(5, TimeUnit.SECONDS), is(new Invalidation("sender", "Item", "42")));
+            assertThat(received.poll(500, TimeUnit.MILLISECONDS), is(nullValue()));
+        } finally {
+            sender.destroy();
+            receiver.destroy();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String database, String nodeId) {
+
+        return new SpringApplicationBuilder(SecurityDataRestApplication.class).
+            // command line arguments, as they take precedence over application.yml
+            run("--spring.profiles.active=persistent,cluster",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--app.security.token.secret=shared by all nodes",
+                "--app.cluster.name=cluster-tests",
+                "--app.cluster.node-id=" + nodeId,
+                "--app.cluster.transport=loopback");
+    }
+
+    private static String create(int node, String firstName, String lastName, String title) {
+
+        ResponseEntity<String> created = clients.get(node).withBasicAuth("ollie", "gierke").postForEntity("/employees",
+            json("{\"firstName\": \"" + firstName + "\", \"lastName\": \"" + lastName + "\", \"title\": \"" + title
+                + "\"}"), String.class);
+
+        assertThat(created.getStatusCode(), is(HttpStatus.CREATED));
+        return created.getHeaders().getLocation().getPath();
+    }
+
+    private static void patch(int node, String location, String payload) {
+
+        assertThat(clients.get(node).withBasicAuth("ollie", "gierke").
+            exchange(location, HttpMethod.PATCH, json(payload), String.class).getStatusCode().is2xxSuccessful(),
+            is(true));
+    }
+
+    private static String title(int node, String location) {
+        return JsonPath.read(clients.get(node).getForObject(location, String.class), "$.title");
+    }
+
+    private static List<String> titles(int node) {
+        return JsonPath.read(clients.get(node).getForObject("/employees?size=1000", String.class),
+            "$._embedded.employees[*].title");
+    }
+
+    private static HttpStatus items(TestRestTemplate client, String username, String password) {
+        return client.withBasicAuth(username, password).getForEntity("/items", String.class).getStatusCode();
+    }
+
+    private static HttpEntity<String> json(String payload) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        return new HttpEntity<>(payload, headers);
+    }
+}
@@ -0,0 +1,309 @@
+package com.elementalsource.example.securitydatarest.compression;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.embedded.LocalServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.DelegatingServletOutputStream;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Test cases for the compression of responses, against a running server.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = "spring.datasource.url=jdbc:h2:mem:compression;DB_CLOSE_DELAY=-1")
+public class CompressionTests {
+
+    private static final int EMPLOYEES = 500;
+    private static final String COLLECTION = "/employees?size=" + EMPLOYEES;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @LocalServerPort
+    private int port;
+
+    @Before
+    public void setUp() {
+
+        if (employeeRepository.count() < EMPLOYEES) {
+
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < EMPLOYEES; i++) {
+                employees.add(new Employee("Hobbit", "No. " + i, "resident of the Shire"));
+            }
+            employeeRepository.save(employees);
+        }
+    }
+
+    @Test
+    public void compressesLargeResponseWithGzip() throws Exception {
+
+        Response plain = fetch(COLLECTION, null);
+        Response compressed = fetch(COLLECTION, "gzip, deflate");
+
+        assertThat(plain.encoding, is(nullValue()));
+        assertThat(compressed.encoding, is("gzip"));
+        assertThat(compressed.vary, containsString(HttpHeaders.ACCEPT_ENCODING));
+        assertThat(compressed.bytes * 10, lessThan(plain.bytes));
+        assertThat(compressed.decompressed, is(plain.decompressed));
+    }
+
+    @Test
+    public void compressesLargeResponseWithDeflate() throws Exception {
+
+        Response plain = fetch(COLLECTION, null);
+        Response compressed = fetch(COLLECTION, "deflate");
+
+        assertThat(compressed.encoding, is("deflate"));
+        assertThat(compressed.bytes * 10, lessThan(plain.bytes));
+        assertThat(compressed.decompressed, is(plain.decompressed));
+    }
+
+    @Test
+    public void honorsRejectedEncodings() throws Exception {
+
+        assertThat(fetch(COLLECTION, "gzip;q=0, deflate").encoding, is("deflate"));
+        assertThat(fetch(COLLECTION, "identity").encoding, is(nullValue()));
+    }
+
+    @Test
+    public void leavesSmallResponsesUncompressed() throws Exception {
+
+        Response small = fetch("/employees?size=1", "gzip");
+
+        assertThat(small.encoding, is(nullValue()));
+        assertThat(small.contentLength, is(small.bytes));
+    }
+
+    @Test
+    public void compressesStreamedExport() throws Exception {
+
+        Response plain = fetch("/employees/export", null);
+        Response compressed = fetch("/employees/export", "gzip");
+
+        assertThat(compressed.encoding, is("gzip"));
+        assertThat(compressed.bytes, lessThan(plain.bytes));
+        assertThat(compressed.decompressed, is(plain.decompressed));
+    }
+
+    @Test
+    public void handsNonBlockingWritesToTheContainer() throws Exception {
+
+        byte[] body = COLLECTION.concat(" ").concat(COLLECTION).getBytes(StandardCharsets.UTF_8);
+        ContainerResponse container = new ContainerResponse();
+        CompressingResponse response = new CompressingResponse(container, ContentEncoding.GZIP, body.length / 2,
+            Collections.singleton("application/json"));
+        response.setContentType("application/json");
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.setWriteListener(new NoOpWriteListener());
+
+        assertThat(container.listener, is(notNullValue()));
+        assertThat(out.isReady(), is(true));
+
+        int writes = container.writes;
+        out.write(body);
+        assertThat(container.writes - writes, is(lessThanOrEqualTo(1)));
+
+        writes = container.writes;
+        response.finish();
+        assertThat(container.writes - writes, is(lessThanOrEqualTo(1)));
+
+        assertThat(container.getHeader(HttpHeaders.CONTENT_ENCODING), is("gzip"));
+        assertThat(read(new GZIPInputStream(new ByteArrayInputStream(container.getContentAsByteArray()))).length,
+            is(body.length * 2));
+    }
+
+    @Test
+    public void sendsBodyAsItIsOnceWrittenWithoutBlocking() throws Exception {
+
+        byte[] body = COLLECTION.getBytes(StandardCharsets.UTF_8);
+        ContainerResponse container = new ContainerResponse();
+        CompressingResponse response = new CompressingResponse(container, ContentEncoding.GZIP, body.length,
+            Collections.singleton("application/json"));
+        response.setContentType("application/json");
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.setWriteListener(new NoOpWriteListener());
+        out.write(body);
+        response.finish();
+
+        assertThat(container.listener, is(notNullValue()));
+        assertThat(container.getHeader(HttpHeaders.CONTENT_ENCODING), is(nullValue()));
+        assertThat(container.getContentAsString(), is(COLLECTION + COLLECTION));
+    }
+
+    @Test
+    public void decidesAnewAfterReset() throws Exception {
+
+        byte[] body = COLLECTION.getBytes(StandardCharsets.UTF_8);
+        ContainerResponse container = new ContainerResponse();
+        CompressingResponse response = new CompressingResponse(container, ContentEncoding.GZIP, body.length,
+            Collections.singleton("application/json"));
+        response.setContentType("application/json");
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.write(body);
+        assertThat(container.getHeader(HttpHeaders.CONTENT_ENCODING), is("gzip"));
+
+        response.reset();
+        response.setContentType("application/json");
+        out.write(body);
+        response.finish();
+
+        assertThat(container.getHeader(HttpHeaders.CONTENT_ENCODING), is(nullValue()));
+        assertThat(container.getContentAsString(), is(COLLECTION));
+    }
+
+    @Test
+    public void compressesAnewAfterResetBuffer() throws Exception {
+
+        byte[] body = COLLECTION.getBytes(StandardCharsets.UTF_8);
+        ContainerResponse container = new ContainerResponse();
+        CompressingResponse response = new CompressingResponse(container, ContentEncoding.GZIP, body.length,
+            Collections.singleton("application/json"));
+        response.setContentType("application/json");
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(new byte[body.length * 2]);
+
+        response.resetBuffer();
+        out.write(body);
+        out.write(body);
+        response.finish();
+
+        assertThat(container.getHeader(HttpHeaders.CONTENT_ENCODING), is("gzip"));
+        assertThat(new String(read(new GZIPInputStream(new ByteArrayInputStream(container.getContentAsByteArray()))),
+            StandardCharsets.UTF_8), is(COLLECTION + COLLECTION));
+    }
+
+    private Response fetch(String path, String acceptEncoding) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT, MediaTypes.HAL_JSON_VALUE + ", application/x-ndjson");
+        if (acceptEncoding != null) {
+            connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+
+        Response response = new Response();
+        response.encoding = connection.getHeaderField(HttpHeaders.CONTENT_ENCODING);
+        response.vary = connection.getHeaderField(HttpHeaders.VARY);
+        response.contentLength = connection.getContentLength();
+
+        byte[] body = read(connection.getInputStream());
+        response.bytes = body.length;
+
+        if ("gzip".equals(response.encoding)) {
+            body = read(new GZIPInputStream(new ByteArrayInputStream(body)));
+        } else if ("deflate".equals(response.encoding)) {
+            body = read(new InflaterInputStream(new ByteArrayInputStream(body)));
+        }
+        response.decompressed = new String(body, StandardCharsets.UTF_8);
+
+        return response;
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+
+        try (InputStream body = in) {
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read; (read = body.read(buffer)) != -1; ) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Stands in for the response of the servlet container, counting the writes to its stream.
+     */
+    private static class ContainerResponse extends MockHttpServletResponse {
+
+        private final ServletOutputStream stream;
+        private int writes;
+        private WriteListener listener;
+
+        ContainerResponse() {
+
+            ServletOutputStream content = super.getOutputStream();
+
+            this.stream = new DelegatingServletOutputStream(content) {
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    writes++;
+                    content.write(bytes, offset, length);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    listener = writeListener;
+                }
+            };
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return stream;
+        }
+    }
+
+    private static class NoOpWriteListener implements WriteListener {
+
+        @Override
+        public void onWritePossible() {}
+
+        @Override
+        public void onError(Throwable throwable) {}
+    }
+
+    private static class Response {
+
+        private String encoding;
+        private String vary;
+        private int contentLength;
+        private int bytes;
+        private String decompressed;
+    }
+}
@@ -0,0 +1,267 @@
+package com.elementalsource.example.securitydatarest.conditional;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for conditional requests on item and collection resources.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ConditionalRequestTests {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private ConditionalRequestFilter conditionalRequestFilter;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private MockMvc mvc;
+    private final List<Employee> employees = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain, conditionalRequestFilter).build();
+
+        for (int i = 0; i < 100; i++) {
+            employees.add(new Employee("Dunedain", "No. " + i, "ranger"));
+        }
+        employeeRepository.save(employees);
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+        employeeRepository.delete(employeeRepository.findAll(ids()));
+    }
+
+    @Test
+    public void tagsItemWithVersion() throws Exception {
+
+        mvc.perform(get("/employees/{id}", id()).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(header().string(HttpHeaders.ETAG, "\"0\"")).
+            andExpect(header().string(HttpHeaders.LAST_MODIFIED, notNullValue()));
+    }
+
+    @Test
+    public void answersCurrentItemWithNotModified() throws Exception {
+
+        MockHttpServletResponse response = mvc.perform(get("/employees/{id}", id()).
+            accept(MediaTypes.HAL_JSON).
+            header(HttpHeaders.IF_NONE_MATCH, "\"0\"")).
+            andExpect(status().isNotModified()).
+            andExpect(header().string(HttpHeaders.ETAG, "\"0\"")).
+            andReturn().getResponse();
+
+        assertThat(response.getContentLength(), is(0));
+    }
+
+    @Test
+    public void answersUpdatedItemWithNewVersion() throws Exception {
+
+        mvc.perform(patch("/employees/{id}", id()).
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("{\"title\": \"chieftain\"}")).
+            andExpect(status().is2xxSuccessful());
+
+        mvc.perform(get("/employees/{id}", id()).
+            accept(MediaTypes.HAL_JSON).
+            header(HttpHeaders.IF_NONE_MATCH, "\"0\"")).
+            andExpect(status().isOk()).
+            andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    public void rejectsPutOfStaleVersion() throws Exception {
+
+        String ranger = "{\"firstName\": \"Dunedain\", \"lastName\": \"No. 0\", \"title\": \"%s\"}";
+
+        mvc.perform(put("/employees/{id}", id()).
+            with(httpBasic("ollie", "gierke")).
+            header(HttpHeaders.IF_MATCH, "\"0\"").
+            contentType(MediaType.APPLICATION_JSON).
+            content(String.format(ranger, "chieftain"))).
+            andExpect(status().is2xxSuccessful());
+
+        mvc.perform(put("/employees/{id}", id()).
+            with(httpBasic("ollie", "gierke")).
+            header(HttpHeaders.IF_MATCH, "\"0\"").
+            contentType(MediaType.APPLICATION_JSON).
+            content(String.format(ranger, "king"))).
+            andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void answersUnchangedCollectionWithNotModified() throws Exception {
+
+        String tag = mvc.perform(get("/employees?size=10").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/employees?size=10").accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, tag)).
+            andExpect(status().isNotModified());
+
+        mvc.perform(get("/employees?size=20").accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, tag)).
+            andExpect(status().isOk()).
+            andExpect(header().string(HttpHeaders.ETAG, not(tag)));
+    }
+
+    @Test
+    public void retagsCollectionAfterChange() throws Exception {
+
+        String tag = mvc.perform(get("/employees").accept(MediaTypes.HAL_JSON)).
+            andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        employeeRepository.delete(employees.remove(employees.size() - 1));
+
+        mvc.perform(get("/employees").accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, tag)).
+            andExpect(status().isOk()).
+            andExpect(header().string(HttpHeaders.ETAG, not(tag)));
+    }
+
+    @Test
+    public void keepsTagWhileOtherPagesChange() throws Exception {
+
+        String uri = "/employees?size=10&sort=id,desc";
+        String tag = mvc.perform(get(uri).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        retitle(employees.get(0));
+
+        mvc.perform(get(uri).accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, tag)).
+            andExpect(status().isNotModified()).
+            andExpect(header().string(HttpHeaders.ETAG, tag));
+
+        retitle(employees.get(employees.size() - 1));
+
+        mvc.perform(get(uri).accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, tag)).
+            andExpect(status().isOk()).
+            andExpect(header().string(HttpHeaders.ETAG, not(tag)));
+    }
+
+    @Test
+    public void keepsItemResourcesSecured() throws Exception {
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        Item item = itemRepository.save(new Item("Anduril"));
+        SecurityContextHolder.clearContext();
+
+        try {
+            mvc.perform(get("/items/{id}", item.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\"")).
+                andExpect(status().isUnauthorized());
+
+            mvc.perform(get("/items").header(HttpHeaders.IF_NONE_MATCH, "*")).
+                andExpect(status().isUnauthorized());
+
+            mvc.perform(get("/items/{id}", item.getId()).
+                with(httpBasic("greg", "turnquist")).
+                header(HttpHeaders.IF_NONE_MATCH, "\"0\"")).
+                andExpect(status().isNotModified());
+        } finally {
+            SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+            itemRepository.delete(item.getId());
+        }
+    }
+
+    @Test
+    public void savesBytesAndTimeOnNotModified() throws Exception {
+
+        String uri = "/employees?size=100";
+        MockHttpServletResponse full = mvc.perform(get(uri).accept(MediaTypes.HAL_JSON)).andReturn().getResponse();
+        String tag = full.getHeader(HttpHeaders.ETAG);
+
+        RequestBuilder unconditional = get(uri).accept(MediaTypes.HAL_JSON);
+        RequestBuilder conditional = get(uri).accept(MediaTypes.HAL_JSON).header(HttpHeaders.IF_NONE_MATCH, tag);
+
+        // warm up both paths before measuring
+        time(unconditional);
+        time(conditional);
+
+        long fullTime = time(unconditional);
+        long notModifiedTime = time(conditional);
+
+        assertThat(full.getContentAsByteArray().length, greaterThan(10_000));
+        assertThat(mvc.perform(conditional).andReturn().getResponse().getContentAsByteArray().length, is(0));
+        assertThat(notModifiedTime, lessThan(fullTime));
+    }
+
+    private void retitle(Employee employee) throws Exception {
+
+        mvc.perform(patch("/employees/{id}", employee.getId()).
+            with(httpBasic("ollie", "gierke")).
+            contentType(MediaType.APPLICATION_JSON).
+            content("{\"title\": \"chieftain\"}")).
+            andExpect(status().is2xxSuccessful());
+    }
+
+    private long time(RequestBuilder request) throws Exception {
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            mvc.perform(request);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private Long id() {
+        return employees.get(0).getId();
+    }
+
+    private List<Long> ids() {
+
+        List<Long> ids = new ArrayList<>();
+        for (Employee employee : employees) {
+            ids.add(employee.getId());
+        }
+        return ids;
+    }
+}
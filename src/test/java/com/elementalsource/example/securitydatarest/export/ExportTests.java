@@ -0,0 +1,122 @@
+package com.elementalsource.example.securitydatarest.export;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the newline-delimited JSON exports.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ExportTests {
+
+    private static final int EMPLOYEES = 2_000;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mvc;
+    private final List<Employee> employees = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(new Employee("Dwarf", "No. " + i, "miner"));
+        }
+        employeeRepository.save(employees);
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+        employeeRepository.delete(employees);
+    }
+
+    @Test
+    public void exportsOneEmployeePerLine() throws Exception {
+
+        String body = mvc.perform(get("/employees/export")).
+            andExpect(status().isOk()).
+            andExpect(content().contentTypeCompatibleWith(ExportController.NDJSON_VALUE)).
+            andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat((long) lines.length, is(employeeRepository.count()));
+
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : lines) {
+            assertThat(line, startsWith("{"));
+            mapper.readValue(line, Employee.class);
+        }
+    }
+
+    @Test
+    public void leavesSecondLevelCacheAlone() throws Exception {
+
+        entityManagerFactory.getCache().evict(Employee.class);
+
+        mvc.perform(get("/employees/export")).
+            andExpect(status().isOk());
+
+        for (Employee employee : employees) {
+            assertThat(entityManagerFactory.getCache().contains(Employee.class, employee.getId()), is(false));
+        }
+    }
+
+    @Test
+    public void rejectsItemExportForAnonymous() throws Exception {
+
+        mvc.perform(get("/items/export")).
+            andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void exportsItemsForUser() throws Exception {
+
+        String body = mvc.perform(get("/items/export").with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isOk()).
+            andReturn().getResponse().getContentAsString();
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER");
+
+        assertThat((long) body.split("\n").length, is(itemRepository.count()));
+    }
+}
@@ -0,0 +1,216 @@
+package com.elementalsource.example.securitydatarest.metrics;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.repository.Repository;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the metrics of repositories, security and HAL rendering.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class MetricsTests {
+
+    /**
+     * Upper bound for the time the instrumentation may add to a single request.
+     */
+    private static final long BUDGET_NANOS = 50_000;
+
+    private static final int REQUESTS = 500;
+    private static final int CALLS = 200_000;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private PrometheusMeterRegistry registry;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private MockMvc mvc;
+    private Item item;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        this.item = itemRepository.save(new Item("Narsil"));
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        itemRepository.delete(item.getId());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void exposesHotPathTimersForScraping() throws Exception {
+
+        mvc.perform(get("/items/{id}", item.getId()).with(httpBasic("greg", "turnquist")).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk());
+        mvc.perform(get("/items/{id}", item.getId()).with(httpBasic("greg", "wrong"))).
+            andExpect(status().isUnauthorized());
+        mvc.perform(get("/metrics").with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isForbidden());
+
+        mvc.perform(get("/metrics").with(httpBasic("ollie", "gierke"))).
+            andExpect(status().isOk()).
+            andExpect(content().string(containsString(
+                "repository_invocations_seconds_count{method=\"findOne\",repository=\"ItemRepository\",}"))).
+            andExpect(content().string(containsString(
+                "repository_invocations_seconds_bucket{method=\"findOne\",repository=\"ItemRepository\","))).
+            andExpect(content().string(containsString("security_authentication_seconds_count{result=\"success\",}"))).
+            andExpect(content().string(containsString("security_authentication_seconds_count{result=\"failure\",}"))).
+            andExpect(content().string(containsString(
+                "security_authorization_seconds_count{layer=\"method\",result=\"granted\",}"))).
+            andExpect(content().string(containsString(
+                "security_authorization_seconds_count{layer=\"url\",result=\"denied\",}"))).
+            andExpect(content().string(containsString("security_access_denied_total{layer=\"url\",}"))).
+            andExpect(content().string(containsString(
+                "http_serialization_seconds_count{mediaType=\"application/hal+json\",}")));
+    }
+
+    @Test
+    public void countsDeniedAccess() throws Exception {
+
+        double denied = registry.counter("security.access.denied", "layer", "method").count();
+
+        mvc.perform(get("/items/{id}", item.getId()).with(httpBasic("ollie", "gierke"))).
+            andExpect(status().isOk());
+
+        SecurityUtils.runAs("system", "system", "ROLE_GUEST");
+        try {
+            itemRepository.findOne(item.getId());
+        } catch (org.springframework.security.access.AccessDeniedException e) {
+            // expected, counted below
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertThat(registry.counter("security.access.denied", "layer", "method").count(), greaterThan(denied));
+    }
+
+    @Test
+    public void staysWithinOverheadBudget() throws Exception {
+
+        RequestBuilder request = get("/items/{id}", item.getId()).
+            with(httpBasic("greg", "turnquist")).
+            accept(MediaTypes.HAL_JSON);
+
+        // warm up
+        for (int i = 0; i < REQUESTS; i++) {
+            mvc.perform(request);
+        }
+
+        long recordings = recordings();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            mvc.perform(request);
+        }
+
+        long nanosPerRequest = (System.nanoTime() - start) / REQUESTS;
+        long recordingsPerRequest = (recordings() - recordings) / REQUESTS;
+
+        // the repository aspect is the most expensive instrument: proxy dispatch, two map reads and a timer
+        long overheadPerRecording = Math.max(0, nanosPerCall(instrumentedProbe()) - nanosPerCall(new PingingProbe()));
+        long overheadPerRequest = recordingsPerRequest * overheadPerRecording;
+
+        // authentication, method authorization, repository and serialization, no URL rule applies to item reads
+        assertThat(recordingsPerRequest, is(4L));
+        assertThat(overheadPerRequest, lessThan(BUDGET_NANOS));
+        assertThat(overheadPerRequest, lessThan(nanosPerRequest / 20));
+    }
+
+    private long recordings() {
+
+        long count = 0;
+
+        for (Meter meter : registry.getMeters()) {
+            if (meter instanceof Timer) {
+                count += ((Timer) meter).count();
+            }
+        }
+
+        return count;
+    }
+
+    private Probe instrumentedProbe() {
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new PingingProbe());
+        factory.addAspect(new RepositoryMetricsAspect(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+
+        return factory.getProxy();
+    }
+
+    private static long nanosPerCall(Probe probe) {
+
+        long sum = 0;
+
+        for (int round = 0; round < 2; round++) {
+
+            long start = System.nanoTime();
+
+            for (int i = 0; i < CALLS; i++) {
+                sum += probe.ping(i);
+            }
+
+            if (round == 1) {
+                assertThat(sum, greaterThan(0L));
+                return (System.nanoTime() - start) / CALLS;
+            }
+        }
+
+        throw new IllegalStateException();
+    }
+
+    interface Probe extends Repository<Employee, Long> {
+
+        long ping(long value);
+    }
+
+    static class PingingProbe implements Probe {
+
+        @Override
+        public long ping(long value) {
+            return value + 1;
+        }
+    }
+}
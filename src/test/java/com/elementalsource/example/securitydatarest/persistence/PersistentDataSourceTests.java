@@ -0,0 +1,172 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the {@code persistent} profile, including a soak test with far more clients than connections.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"app.datasource.directory=" + PersistentDataSourceTests.DIRECTORY,
+    // a few cores take several seconds to work through 500 queued clients
+    "spring.datasource.tomcat.max-wait=30000"})
+@ActiveProfiles("persistent")
+public class PersistentDataSourceTests {
+
+    static final String DIRECTORY = "./target/persistent-data-source-tests";
+
+    private static final int CLIENTS = 500;
+    private static final int REQUESTS_PER_CLIENT = 4;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private TimedDataSource dataSource;
+
+    private MockMvc mvc;
+
+    @BeforeClass
+    public static void deleteDatabase() {
+        FileSystemUtils.deleteRecursively(new File(DIRECTORY));
+    }
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void createsSchemaThroughMigrations() throws SQLException {
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        assertThat(dataSource.getUrl(), startsWith("jdbc:h2:file:"));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employee", Long.class), is(3L));
+        assertThat(jdbcTemplate.queryForList("select \"version\" from \"schema_version\" where \"success\"",
+            String.class), contains("1", "2", "3", "4", "5", "6"));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from user_account", Long.class), is(2L));
+    }
+
+    @Test
+    public void queuesClientsBeyondPoolSize() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Integer>>> clients = new ArrayList<>();
+
+        long acquisitions = dataSource.getAcquisitionCount();
+        long failures = dataSource.getFailureCount();
+
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(executor.submit(() -> {
+
+                start.await();
+
+                List<Integer> statuses = new ArrayList<>();
+                for (int j = 0; j < REQUESTS_PER_CLIENT; j++) {
+                    statuses.add(mvc.perform(get("/employees/search/seek?after=0").accept(MediaTypes.HAL_JSON)).
+                        andReturn().getResponse().getStatus());
+                }
+                return statuses;
+            }));
+        }
+
+        start.countDown();
+
+        List<Integer> statuses = new ArrayList<>();
+        for (Future<List<Integer>> client : clients) {
+            statuses.addAll(client.get(2, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+
+        // every client gets served, the ones beyond max-active by waiting for a connection instead of failing
+        assertThat(statuses.size(), is(CLIENTS * REQUESTS_PER_CLIENT));
+        assertThat(statuses, everyItem(is(200)));
+        assertThat(dataSource.getAcquisitionCount() - acquisitions, greaterThan((long) CLIENTS));
+        assertThat(dataSource.getPeakActive(), is((long) dataSource.getMaxActive()));
+        assertThat(dataSource.getFailureCount(), is(failures));
+        assertThat(dataSource.getMaxWaitMillis(), greaterThan(0.0));
+
+        mvc.perform(get("/pool/stats").with(httpBasic("ollie", "gierke"))).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.peakActive", is(dataSource.getMaxActive()))).
+            andExpect(jsonPath("$.failures", is((int) failures)));
+    }
+
+    @Test
+    public void failsAfterMaxWaitWhenExhausted() throws SQLException {
+
+        int maxWait = dataSource.getMaxWait();
+        List<Connection> held = new ArrayList<>();
+
+        try {
+            dataSource.setMaxWait(100);
+
+            for (int i = 0; i < dataSource.getMaxActive(); i++) {
+                held.add(dataSource.getConnection());
+            }
+
+            long failures = dataSource.getFailureCount();
+
+            try {
+                dataSource.getConnection().close();
+                fail("Expected the exhausted pool to time out");
+            } catch (SQLException e) {
+                assertThat(dataSource.getFailureCount(), is(failures + 1));
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+            dataSource.setMaxWait(maxWait);
+        }
+    }
+
+    @Test
+    public void hidesPoolStatisticsFromUser() throws Exception {
+
+        mvc.perform(get("/pool/stats").with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,320 @@
+package com.elementalsource.example.securitydatarest.persistence;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import com.elementalsource.example.securitydatarest.SecurityDataRestApplication;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import javax.persistence.EntityManagerFactory;
+import org.h2.Driver;
+import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+/**
+ * Test cases for the {@link ReplicaRoutingDataSource}, with an in-memory primary database and replicas served by H2
+ * TCP servers in this JVM, so they can be stopped. The tests copy the primary database to the replicas whenever they
+ * need them in sync, so the replicas lag behind every write until then.
+ */
+public class ReplicaRoutingTests {
+
+    private static final int REPLICAS = 2;
+    private static final long READ_YOUR_WRITES_WINDOW = 1000;
+
+    private static final List<Server> servers = new ArrayList<>();
+    private static final List<String> ports = new ArrayList<>();
+    private static final List<JdbcTemplate> replicas = new ArrayList<>();
+
+    private static ConfigurableApplicationContext context;
+    private static TestRestTemplate client;
+    private static JdbcTemplate primary;
+    private static ReplicaRoutingDataSource routing;
+    private static MeterRegistry registry;
+
+    private static int lastNames;
+
+    @BeforeClass
+    public static void start() throws Exception {
+
+        List<String> args = new ArrayList<>(Arrays.asList(
+            "--spring.profiles.active=persistent",
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:replica-routing-primary;DB_CLOSE_DELAY=-1",
+            "--app.replicas.enabled=true",
+            "--app.replicas.read-your-writes-window=" + READ_YOUR_WRITES_WINDOW,
+            "--app.replicas.health-check-interval=100"));
+
+        for (int i = 0; i < REPLICAS; i++) {
+
+            ports.add(String.valueOf(freePort()));
+            servers.add(Server.createTcpServer("-tcpPort", ports.get(i)).start());
+            replicas.add(new JdbcTemplate(new SimpleDriverDataSource(new Driver(),
+                "jdbc:h2:mem:replica-routing-" + i + ";DB_CLOSE_DELAY=-1", "sa", "")));
+
+            args.add("--app.replicas.datasources[" + i + "].url=jdbc:h2:tcp://localhost:" + ports.get(i)
+                + "/mem:replica-routing-" + i);
+        }
+
+        // command line arguments, as they take precedence over application.yml
+        context = new SpringApplicationBuilder(SecurityDataRestApplication.class).run(args.toArray(new String[0]));
+
+        int port = ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+
+        client = new TestRestTemplate(new RestTemplateBuilder().rootUri("http://localhost:" + port));
+        primary = new JdbcTemplate(context.getBean(TimedDataSource.class));
+        routing = context.getBean(ReplicaRoutingDataSource.class);
+        registry = context.getBean(MeterRegistry.class);
+
+        replicate();
+    }
+
+    @AfterClass
+    public static void stop() {
+
+        context.close();
+        servers.forEach(Server::stop);
+    }
+
+    @Test
+    public void readsFromAllReplicas() {
+
+        double primaryConnections = connections(ReplicaRoutingDataSource.PRIMARY);
+        double replica0Connections = connections("replica0");
+        double replica1Connections = connections("replica1");
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(search("greg", "turnquist", "Baggins").size(), is(2));
+        }
+
+        assertThat(connections(ReplicaRoutingDataSource.PRIMARY), is(primaryConnections));
+        assertThat(connections("replica0"), greaterThan(replica0Connections));
+        assertThat(connections("replica1"), greaterThan(replica1Connections));
+    }
+
+    @Test
+    public void writesToPrimary() {
+
+        String lastName = create();
+
+        assertThat(count(primary, lastName), is(1L));
+        for (JdbcTemplate replica : replicas) {
+            assertThat(count(replica, lastName), is(0L));
+        }
+        assertThat(search("greg", "turnquist", lastName).size(), is(0));
+
+        replicate();
+
+        assertThat(search("greg", "turnquist", lastName).size(), is(1));
+    }
+
+    @Test
+    public void readsOwnWritesFromPrimary() throws InterruptedException {
+
+        String lastName = create();
+
+        assertThat(search("ollie", "gierke", lastName).size(), is(1));
+        assertThat(search("greg", "turnquist", lastName).size(), is(0));
+
+        Thread.sleep(READ_YOUR_WRITES_WINDOW + 100);
+
+        assertThat(search("ollie", "gierke", lastName).size(), is(0));
+    }
+
+    @Test
+    public void dropsQueriesCachedFromLaggingReplicas() throws InterruptedException {
+
+        String lastName = create();
+
+        // cached by the query cache, although the replicas did not see the new employee yet
+        assertThat(lastNames("greg", "turnquist"), not(hasItem(lastName)));
+
+        replicate();
+
+        awaitTrue(() -> lastNames("greg", "turnquist").contains(lastName));
+    }
+
+    @Test
+    public void keepsQueriesCachedOfOtherEntities() throws InterruptedException {
+
+        // until the cached queries of earlier writes are dropped
+        Thread.sleep(READ_YOUR_WRITES_WINDOW + 300);
+
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).
+            getStatistics();
+
+        lastNames("greg", "turnquist");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> created = client.withBasicAuth("ollie", "gierke").postForEntity("/items",
+            new HttpEntity<>("{\"description\": \"Replicated item\"}", headers), String.class);
+        assertThat(created.getStatusCode(), is(HttpStatus.CREATED));
+
+        Thread.sleep(READ_YOUR_WRITES_WINDOW + 300);
+
+        long hits = statistics.getQueryCacheHitCount();
+
+        lastNames("greg", "turnquist");
+
+        assertThat(statistics.getQueryCacheHitCount(), greaterThan(hits));
+    }
+
+    @Test
+    public void takesConnectionsWithCredentials() throws Exception {
+
+        double primaryConnections = connections(ReplicaRoutingDataSource.PRIMARY);
+
+        try (Connection connection = routing.getConnection("sa", "")) {
+            assertThat(connection.isValid(1), is(true));
+        }
+
+        assertThat(connections(ReplicaRoutingDataSource.PRIMARY), greaterThan(primaryConnections));
+    }
+
+    @Test
+    public void skipsUnreachableReplicas() throws Exception {
+
+        try {
+            servers.get(0).stop();
+            awaitTrue(() -> !routing.getReplicas().get(0).isHealthy());
+
+            double replica0Connections = connections("replica0");
+            double replica1Connections = connections("replica1");
+
+            for (int i = 0; i < 4; i++) {
+                assertThat(search("greg", "turnquist", "Baggins").size(), is(2));
+            }
+
+            assertThat(connections("replica0"), is(replica0Connections));
+            assertThat(connections("replica1"), greaterThan(replica1Connections));
+
+            ResponseEntity<String> statistics = client.withBasicAuth("ollie", "gierke").
+                getForEntity("/pool/stats", String.class);
+            assertThat(JsonPath.read(statistics.getBody(), "$.replicas.replica0.healthy"), is(false));
+            assertThat(JsonPath.read(statistics.getBody(), "$.replicas.replica1.healthy"), is(true));
+
+            servers.get(1).stop();
+            awaitTrue(() -> !routing.getReplicas().get(1).isHealthy());
+
+            double primaryConnections = connections(ReplicaRoutingDataSource.PRIMARY);
+
+            assertThat(search("greg", "turnquist", "Baggins").size(), is(2));
+            assertThat(connections(ReplicaRoutingDataSource.PRIMARY), greaterThan(primaryConnections));
+        } finally {
+            for (int i = 0; i < REPLICAS; i++) {
+                if (!servers.get(i).isRunning(false)) {
+                    servers.set(i, Server.createTcpServer("-tcpPort", ports.get(i)).start());
+                }
+            }
+        }
+
+        awaitTrue(() -> routing.getReplicas().stream().allMatch(ReplicaRoutingDataSource.Replica::isHealthy));
+
+        double replica0Connections = connections("replica0");
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(search("greg", "turnquist", "Baggins").size(), is(2));
+        }
+
+        assertThat(connections("replica0"), greaterThan(replica0Connections));
+    }
+
+    /**
+     * Copies the primary database to every replica.
+     */
+    private static void replicate() {
+
+        List<String> script = primary.queryForList("script", String.class);
+
+        for (JdbcTemplate replica : replicas) {
+            replica.execute("drop all objects");
+            script.forEach(replica::execute);
+        }
+    }
+
+    private static String create() {
+
+        String lastName = "Replicated No. " + ++lastNames;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> created = client.withBasicAuth("ollie", "gierke").postForEntity("/employees",
+            new HttpEntity<>("{\"firstName\": \"Hobbit\", \"lastName\": \"" + lastName + "\", \"title\": \"none\"}",
+                headers), String.class);
+
+        assertThat(created.getStatusCode(), is(HttpStatus.CREATED));
+        return lastName;
+    }
+
+    private static List<Object> search(String username, String password, String lastName) {
+
+        ResponseEntity<String> response = client.withBasicAuth(username, password).
+            getForEntity("/employees/search/lastName?lastName={lastName}", String.class, lastName);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        return JsonPath.read(response.getBody(), "$.._embedded.employees[*]");
+    }
+
+    private static List<String> lastNames(String username, String password) {
+
+        ResponseEntity<String> response = client.withBasicAuth(username, password).
+            getForEntity("/employees?size=1000", String.class);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        return JsonPath.read(response.getBody(), "$._embedded.employees[*].lastName");
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate, String lastName) {
+        return jdbcTemplate.queryForObject("select count(*) from employee where last_name = ?", Long.class, lastName);
+    }
+
+    private static double connections(String target) {
+        return registry.counter(ReplicaRoutingDataSource.METRIC, "target", target).count();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (!condition.getAsBoolean()) {
+            assertThat("Condition met within 10 seconds", System.nanoTime() < deadline, is(true));
+            Thread.sleep(50);
+        }
+    }
+
+    private static int freePort() throws IOException {
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.elementalsource.example.securitydatarest.projection;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.jayway.jsonpath.JsonPath;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.core.support.SelfLinkProvider;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Test cases for the {@link DirectEntityResourceSerializer} and the {@link DirectResourcesSerializer}. Requests naming every property as sparse fields are
+ * rendered by the serializer of Spring Data REST, so their responses are what the direct serializer has to match.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class DirectSerializationTests {
+
+    private static final String ALL_EMPLOYEE_FIELDS = "fields=firstName,lastName,title,owner,lastModified";
+    private static final String ALL_ITEM_FIELDS = "fields=description,owner,lastModified";
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    @Qualifier("halObjectMapper")
+    private ObjectMapper halObjectMapper;
+    @Autowired
+    private PersistentEntities entities;
+    @Autowired
+    private ResourceMappings mappings;
+    @Autowired
+    private RepositoryEntityLinks links;
+    @Autowired
+    private SelfLinkProvider selfLinks;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void rendersEntitiesAndCollectionsDirectly() throws Exception {
+        assertThat(halObjectMapper.getSerializerProviderInstance().findValueSerializer(PersistentEntityResource.class),
+            is(instanceOf(DirectEntityResourceSerializer.class)));
+        assertThat(halObjectMapper.getSerializerProviderInstance().findValueSerializer(PagedResources.class),
+            is(instanceOf(DirectResourcesSerializer.class)));
+    }
+
+    @Test
+    public void rendersEmployeesLikeSpringDataRest() throws Exception {
+
+        String collection = render("/employees?size=1000", "&" + ALL_EMPLOYEE_FIELDS);
+        String self = JsonPath.read(collection, "$._embedded.employees[0]._links.self.href");
+
+        render(self, "?" + ALL_EMPLOYEE_FIELDS);
+    }
+
+    @Test
+    public void rendersItemsLikeSpringDataRest() throws Exception {
+
+        String collection = render("/items?size=1000", "&" + ALL_ITEM_FIELDS);
+        String self = JsonPath.read(collection, "$._embedded.items[0]._links.self.href");
+
+        render(self, "?" + ALL_ITEM_FIELDS);
+    }
+
+    @Test
+    public void rendersSearchResultsLikeSpringDataRest() throws Exception {
+
+        assertThat(JsonPath.read(render("/employees/search/lastName?lastName=Baggins", "&" + ALL_EMPLOYEE_FIELDS),
+            "$._embedded.employees.length()"), is(2));
+        assertThat(JsonPath.read(render("/employees/search/lastNameStartsWith?prefix=B", "&" + ALL_EMPLOYEE_FIELDS),
+            "$._embedded.employees.length()"), is(2));
+    }
+
+    /**
+     * Every property Jackson finds on an exported entity, filled in, has to be written directly just like Spring Data
+     * REST writes it, so a property added to an entity but not to its writer fails here.
+     */
+    @Test
+    public void rendersEveryPropertyOfEveryExportedEntityLikeSpringDataRest() throws Exception {
+
+        for (PersistentEntity<?, ?> entity : entities) {
+
+            Class<?> type = entity.getType();
+
+            if (!mappings.exportsMappingFor(type)) {
+                continue;
+            }
+
+            Object content = filled(type);
+
+            // links are built from the current request
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+            PersistentEntityResource resource = PersistentEntityResource.build(content, entity).
+                withLink(links.linkToSingleResource(type, entity.getIdentifierAccessor(content).getIdentifier()).
+                    withSelfRel()).
+                withLink(selfLinks.createSelfLinkFor(content)).
+                build();
+
+            Map<String, Object> direct = serialize(resource, null);
+            Map<String, Object> original = serialize(resource, halObjectMapper.getSerializationConfig().
+                introspect(halObjectMapper.constructType(type)).findProperties().stream().
+                map(BeanPropertyDefinition::getName).
+                collect(Collectors.joining(",")));
+
+            assertThat(type.getSimpleName(), new ArrayList<>(direct.keySet()), is(new ArrayList<>(original.keySet())));
+            for (String field : original.keySet()) {
+                assertThat(type.getSimpleName() + "." + field, direct.get(field), is(original.get(field)));
+            }
+        }
+    }
+
+    /**
+     * @return an entity whose identifier, strings and dates are all set, to tell its properties apart.
+     */
+    private static Object filled(Class<?> type) throws Exception {
+
+        Object entity = BeanUtils.instantiateClass(type.getDeclaredConstructor());
+
+        ReflectionUtils.doWithFields(type, field -> {
+
+            ReflectionUtils.makeAccessible(field);
+
+            if (field.getType() == String.class) {
+                field.set(entity, "the " + field.getName());
+            } else if (field.getType() == Date.class) {
+                field.set(entity, new Date(1_500_000_000_000L));
+            } else if (field.getType() == Long.class) {
+                field.set(entity, 42L);
+            }
+        }, field -> !Modifier.isStatic(field.getModifiers()));
+
+        return entity;
+    }
+
+    /**
+     * Renders the resource in a GET request with the given sparse fields, which hand it to Spring Data REST.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> serialize(PersistentEntityResource resource, String fields) throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+
+        if (fields != null) {
+            request.setParameter(SparseFieldsFilter.PARAMETER, fields);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        return halObjectMapper.readValue(halObjectMapper.writeValueAsString(resource), Map.class);
+    }
+
+    /**
+     * Renders the resource directly and through Spring Data REST, and asserts both are identical.
+     *
+     * @return the directly rendered resource.
+     */
+    private String render(String uri, String allFields) throws Exception {
+
+        String direct = mvc.perform(get(uri).with(httpBasic("greg", "turnquist")).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String original = mvc.perform(get(uri + allFields).with(httpBasic("greg", "turnquist")).
+            accept(MediaTypes.HAL_JSON)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        // links to the collection itself carry the parameters of the request
+        assertThat(direct, is(original.replace(allFields.replace(",", "%2C"), "").replace(allFields, "")));
+        return direct;
+    }
+}
@@ -0,0 +1,110 @@
+package com.elementalsource.example.securitydatarest.projection;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for projections and sparse fields.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ProjectionTests {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void rendersProjection() throws Exception {
+
+        mvc.perform(get("/employees?projection=lastName").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees[0].lastName", notNullValue())).
+            andExpect(jsonPath("$._embedded.employees[0]", not(hasKey("firstName")))).
+            andExpect(jsonPath("$._embedded.employees[0]", not(hasKey("title")))).
+            andExpect(jsonPath("$._embedded.employees[0]._links.self.href", notNullValue()));
+    }
+
+    @Test
+    public void rendersOnlyRequestedFields() throws Exception {
+
+        mvc.perform(get("/employees?fields=lastName,title").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees[0].lastName", notNullValue())).
+            andExpect(jsonPath("$._embedded.employees[0].title", notNullValue())).
+            andExpect(jsonPath("$._embedded.employees[0]", not(hasKey("firstName")))).
+            andExpect(jsonPath("$._embedded.employees[0]", not(hasKey("version")))).
+            andExpect(jsonPath("$._embedded.employees[0]._links.self.href", notNullValue())).
+            andExpect(jsonPath("$.page.totalElements", notNullValue()));
+    }
+
+    @Test
+    public void rendersOnlyRequestedFieldsOfItem() throws Exception {
+
+        String items = mvc.perform(get("/items").with(httpBasic("greg", "turnquist")).accept(MediaTypes.HAL_JSON)).
+            andReturn().getResponse().getContentAsString();
+        String self = JsonPath.read(items, "$._embedded.items[0]._links.self.href");
+
+        mvc.perform(get(self + "?fields=description").with(httpBasic("greg", "turnquist")).
+            accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.description", notNullValue())).
+            andExpect(jsonPath("$", not(hasKey("lastModified"))));
+    }
+
+    @Test
+    public void rendersAllFieldsWithoutParameter() throws Exception {
+
+        mvc.perform(get("/employees").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees[0].firstName", notNullValue())).
+            andExpect(jsonPath("$._embedded.employees[0].lastName", notNullValue())).
+            andExpect(jsonPath("$._embedded.employees[0].title", notNullValue()));
+    }
+
+    @Test
+    public void slimsDownCollection() throws Exception {
+
+        int full = mvc.perform(get("/employees").accept(MediaTypes.HAL_JSON)).
+            andReturn().getResponse().getContentAsByteArray().length;
+        int projected = mvc.perform(get("/employees?projection=lastName").accept(MediaTypes.HAL_JSON)).
+            andReturn().getResponse().getContentAsByteArray().length;
+        int sparse = mvc.perform(get("/employees?fields=lastName").accept(MediaTypes.HAL_JSON)).
+            andReturn().getResponse().getContentAsByteArray().length;
+
+        assertThat(projected, lessThan(full));
+        assertThat(sparse, lessThan(full));
+    }
+}
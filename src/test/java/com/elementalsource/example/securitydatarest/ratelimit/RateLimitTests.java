@@ -0,0 +1,178 @@
+package com.elementalsource.example.securitydatarest.ratelimit;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import java.util.Collection;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the rate limits and concurrency quotas, against a database of their own. The rates are low enough
+ * that no bucket refills while a test runs, and every test uses principals of its own.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:ratelimit;DB_CLOSE_DELAY=-1",
+    "app.rate-limit.enabled=true",
+    "app.rate-limit.roles.ANONYMOUS.requests-per-second=0.1",
+    "app.rate-limit.roles.ANONYMOUS.burst=2",
+    "app.rate-limit.roles.USER.requests-per-second=0.1",
+    "app.rate-limit.roles.USER.burst=3",
+    "app.rate-limit.roles.ADMIN.requests-per-second=0.1",
+    "app.rate-limit.roles.ADMIN.burst=5",
+    "app.rate-limit.employee-writes.requests-per-second=0.05",
+    "app.rate-limit.employee-writes.burst=2",
+    "app.rate-limit.max-concurrent-requests=2"})
+public class RateLimitTests {
+
+    private static final String EMPLOYEE = "{\"firstName\":\"Bilbo\",\"lastName\":\"Baggins\",\"title\":\"burglar\"}";
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void limitsEachPrincipalAfterItsBurst() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/employees").with(user("merry").roles("USER"))).andExpect(status().isOk());
+        }
+
+        mvc.perform(get("/employees").with(user("merry").roles("USER"))).
+            andExpect(status().isTooManyRequests()).
+            andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+        mvc.perform(get("/employees").with(user("pippin").roles("USER"))).andExpect(status().isOk());
+    }
+
+    @Test
+    public void givesPrincipalsTheMostGenerousLimitOfTheirRoles() throws Exception {
+
+        for (int i = 0; i < 5; i++) {
+            mvc.perform(get("/employees").with(user("elrond").roles("USER", "ADMIN"))).andExpect(status().isOk());
+        }
+
+        mvc.perform(get("/employees").with(user("elrond").roles("USER", "ADMIN"))).
+            andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void limitsPrincipalsWithoutLimitedRolesLikeTheStrictestRole() throws Exception {
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get("/employees").with(user("gollum").roles("CREATURE"))).andExpect(status().isOk());
+        }
+
+        mvc.perform(get("/employees").with(user("gollum").roles("CREATURE"))).
+            andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void limitsWritesToEmployeesMoreStrictly() throws Exception {
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(createEmployee("denethor")).andExpect(status().isCreated());
+        }
+
+        mvc.perform(createEmployee("denethor")).
+            andExpect(status().isTooManyRequests()).
+            andExpect(header().string(HttpHeaders.RETRY_AFTER, "20"));
+
+        mvc.perform(get("/employees").with(user("denethor").roles("USER", "ADMIN"))).andExpect(status().isOk());
+    }
+
+    @Test
+    public void keepsWriteQuotaOfWritesRejectedByTheRate() {
+
+        Collection<GrantedAuthority> user = AuthorityUtils.createAuthorityList("ROLE_USER");
+        Collection<GrantedAuthority> admin = AuthorityUtils.createAuthorityList("ROLE_ADMIN");
+        RateLimiter.Quota quota = rateLimiter.quota("boromir");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(quota, user, false), is(0L));
+            quota.release();
+        }
+
+        assertThat(rateLimiter.tryAcquire(quota, user, true), greaterThan(0L));
+
+        // the larger burst of the admins leaves room for both writes of the burst
+        for (int i = 0; i < 2; i++) {
+            assertThat(rateLimiter.tryAcquire(quota, admin, true), is(0L));
+            quota.release();
+        }
+    }
+
+    @Test
+    public void limitsAnonymousClientsByAddress() throws Exception {
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(anonymous("10.0.0.1")).andExpect(status().isOk());
+        }
+
+        mvc.perform(anonymous("10.0.0.1")).andExpect(status().isTooManyRequests());
+        mvc.perform(anonymous("10.0.0.2")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void limitsConcurrentRequests() {
+
+        Collection<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("ROLE_USER");
+        RateLimiter.Quota quota = rateLimiter.quota("treebeard");
+
+        assertThat(rateLimiter.tryAcquire(quota, authorities, false), is(0L));
+        assertThat(rateLimiter.tryAcquire(quota, authorities, false), is(0L));
+        assertThat(rateLimiter.tryAcquire(quota, authorities, false), greaterThan(0L));
+
+        quota.release();
+
+        assertThat(rateLimiter.tryAcquire(quota, authorities, false), is(0L));
+    }
+
+    private static RequestBuilder createEmployee(String username) {
+
+        return post("/employees").with(user(username).roles("USER", "ADMIN")).
+            contentType(MediaType.APPLICATION_JSON).
+            content(EMPLOYEE);
+    }
+
+    private static RequestBuilder anonymous(String address) {
+
+        return get("/employees").with(request -> {
+            request.setRemoteAddr(address);
+            return request;
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package com.elementalsource.example.securitydatarest.repository;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for paged and keyset-paged access to the repositories.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class PagingTests {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private MockMvc mvc;
+    private final List<Employee> employees = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        for (int i = 0; i < 30; i++) {
+            employees.add(employeeRepository.save(new Employee("Hobbit", "No. " + i, "burglar")));
+        }
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+        employeeRepository.delete(employees);
+    }
+
+    @Test
+    public void pagesCollectionResource() throws Exception {
+
+        mvc.perform(get("/employees?size=5&page=1").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees", hasSize(5))).
+            andExpect(jsonPath("$.page.size", is(5))).
+            andExpect(jsonPath("$.page.number", is(1)));
+    }
+
+    @Test
+    public void capsPageSize() throws Exception {
+
+        mvc.perform(get("/employees?size=100000").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.page.size", is(1000)));
+    }
+
+    @Test
+    public void seeksPastGivenId() throws Exception {
+
+        Long first = employees.get(0).getId();
+
+        mvc.perform(get("/employees/search/seek").
+            param("after", String.valueOf(first)).
+            param("size", "3").
+            accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees[*].lastName", contains("No. 1", "No. 2", "No. 3")));
+    }
+
+    @Test
+    public void walksTableWithKeyset() {
+
+        int seen = 0;
+        long after = 0;
+        Slice<Employee> slice;
+
+        do {
+            slice = employeeRepository.findByIdGreaterThanOrderByIdAsc(after, new PageRequest(0, 7));
+            for (Employee employee : slice) {
+                after = employee.getId();
+                seen++;
+            }
+        } while (slice.hasNext());
+
+        assertThat((long) seen, is(employeeRepository.count()));
+    }
+
+    @Test(expected = AuthenticationCredentialsNotFoundException.class)
+    public void keepsMethodSecurityOnItemSeek() {
+        itemRepository.findByIdGreaterThanOrderByIdAsc(0L, new PageRequest(0, 10));
+    }
+
+    @Test
+    public void seeksItemsForUser() {
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER");
+
+        itemRepository.findByIdGreaterThanOrderByIdAsc(0L, new PageRequest(0, 10));
+        itemRepository.findAll(new PageRequest(0, 10));
+    }
+}
@@ -0,0 +1,150 @@
+package com.elementalsource.example.securitydatarest.repository;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the search resources of the repositories and the indexes behind them.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SearchTests {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private MockMvc mvc;
+    private List<Employee> employees;
+    private List<Item> items;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        this.employees = toList(employeeRepository.save(Arrays.asList(
+            new Employee("Peregrin", "Took", "Guard of the Citadel"),
+            new Employee("Belladonna", "Took", "adventuress"),
+            new Employee("Fredegar", "Tookbank-Bolger", "conspirator"))));
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        this.items = toList(itemRepository.save(Arrays.asList(
+            new Item("Phial of Galadriel"), new Item("Phial of Elendil's star"), new Item("Mithril coat"))));
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+
+        employeeRepository.delete(employees);
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        items.forEach(item -> itemRepository.delete(item.getId()));
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void findsEmployeesByLastName() throws Exception {
+
+        mvc.perform(get("/employees/search/lastName?lastName=Took").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees", hasSize(2))).
+            andExpect(jsonPath("$.page.totalElements", is(2)));
+    }
+
+    @Test
+    public void findsEmployeesByLastNamePrefix() throws Exception {
+
+        mvc.perform(get("/employees/search/lastNameStartsWith?prefix=Took").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees", hasSize(3)));
+    }
+
+    @Test
+    public void findsEmployeesByTitle() throws Exception {
+
+        mvc.perform(get("/employees/search/title?title=adventuress").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.employees", hasSize(1))).
+            andExpect(jsonPath("$._embedded.employees[0].firstName", is("Belladonna")));
+    }
+
+    @Test
+    public void findsItemsByDescription() throws Exception {
+
+        mvc.perform(get("/items/search/description?description=Mithril coat").with(httpBasic("greg", "turnquist")).
+            accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.items", hasSize(1)));
+
+        mvc.perform(get("/items/search/descriptionStartsWith?prefix=Phial of").with(httpBasic("greg", "turnquist")).
+            accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.items", hasSize(2)));
+    }
+
+    @Test
+    public void keepsMethodSecurityOnItemSearches() throws Exception {
+
+        mvc.perform(get("/items/search/description?description=Mithril coat")).
+            andExpect(status().isUnauthorized());
+        mvc.perform(get("/items/search/descriptionStartsWith?prefix=Phial")).
+            andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void searchesThroughIndexes() {
+
+        assertThat(plan("select * from employee where last_name = 'Baggins'"), containsString("IX_EMPLOYEE_LAST_NAME"));
+        assertThat(plan("select * from employee where title = 'thief'"), containsString("IX_EMPLOYEE_TITLE"));
+        assertThat(plan("select * from item where description = 'Sting'"), containsString("IX_ITEM_DESCRIPTION"));
+        assertThat(plan("select * from item where description like 'the%'"), containsString("IX_ITEM_DESCRIPTION"));
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+
+    private String plan(String query) {
+        return jdbcTemplate.queryForObject("explain " + query, String.class).toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,78 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import com.elementalsource.example.securitydatarest.security.AuthorityExpressionParser.MemoizingExpression;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+/**
+ * Test cases for {@link AuthorityExpressionParser}.
+ */
+public class AuthorityExpressionParserTests {
+
+    private final AuthorityExpressionParser parser =
+        new AuthorityExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, null), 2);
+
+    private final DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+
+    @Test
+    public void memoizesAuthorityOnlyExpressions() {
+
+        assertThat(parser.parseExpression("hasRole('ROLE_USER')"), is(instanceOf(MemoizingExpression.class)));
+        assertThat(parser.parseExpression("hasAnyRole('USER', 'ADMIN') and !denyAll"),
+            is(instanceOf(MemoizingExpression.class)));
+    }
+
+    @Test
+    public void evaluatesOtherExpressionsEveryTime() {
+
+        assertThat(parser.parseExpression("hasRole('ROLE_USER') and #id == 1"),
+            is(not(instanceOf(MemoizingExpression.class))));
+        assertThat(parser.parseExpression("principal.username == 'greg'"),
+            is(not(instanceOf(MemoizingExpression.class))));
+        assertThat(parser.parseExpression("@itemRepository != null"),
+            is(not(instanceOf(MemoizingExpression.class))));
+    }
+
+    @Test
+    public void remembersDecisionPerAuthoritySet() {
+
+        Expression expression = parser.parseExpression("hasRole('ROLE_ADMIN')");
+
+        Authentication user = authentication("ROLE_USER");
+        Authentication admin = authentication("ROLE_USER", "ROLE_ADMIN");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(evaluate(expression, user), is(false));
+            assertThat(evaluate(expression, admin), is(true));
+        }
+
+        assertThat(((MemoizingExpression) expression).size(), is(2));
+    }
+
+    private boolean evaluate(Expression expression, Authentication authentication) {
+
+        MethodInvocation invocation = new SimpleMethodInvocation(new Object(), Object.class.getMethods()[0]);
+        EvaluationContext context = handler.createEvaluationContext(authentication, invocation);
+
+        return ExpressionUtils.evaluateAsBoolean(expression, context);
+    }
+
+    private static Authentication authentication(String... roles) {
+        return new UsernamePasswordAuthenticationToken("system", "system", AuthorityUtils.createAuthorityList(roles));
+    }
+}
@@ -0,0 +1,124 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Test cases for {@link CachingAuthenticationManager} and the {@link AuthenticationCache} behind it.
+ */
+public class CachingAuthenticationManagerTests {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private final AuthenticationManager delegate = authentication -> {
+
+        verifications.incrementAndGet();
+
+        if (!"turnquist".equals(authentication.getCredentials())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        return new UsernamePasswordAuthenticationToken(authentication.getName(), null,
+            AuthorityUtils.createAuthorityList("ROLE_USER"));
+    };
+
+    private AuthenticationCache cache;
+    private CachingAuthenticationManager manager;
+
+    @Before
+    public void setUp() {
+        this.cache = new AuthenticationCache(2, 60_000);
+        this.manager = new CachingAuthenticationManager(delegate, cache);
+    }
+
+    @Test
+    public void verifiesCredentialsOnlyOnce() {
+
+        Authentication first = manager.authenticate(token("greg", "turnquist"));
+        Authentication second = manager.authenticate(token("greg", "turnquist"));
+
+        assertThat(verifications.get(), is(1));
+        assertThat(second.getName(), is(first.getName()));
+        assertThat(second.getAuthorities(), is(first.getAuthorities()));
+        assertThat(second.isAuthenticated(), is(true));
+        assertThat(second.getCredentials(), is(nullValue()));
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(1L));
+    }
+
+    @Test
+    public void neverCachesFailedAuthentications() {
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                manager.authenticate(token("greg", "wrong"));
+                fail("Expected bad credentials");
+            } catch (BadCredentialsException e) {
+                // expected
+            }
+        }
+
+        assertThat(verifications.get(), is(2));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void doesNotMatchOtherPasswords() {
+
+        manager.authenticate(token("greg", "turnquist"));
+
+        try {
+            manager.authenticate(token("greg", "wrong"));
+            fail("Expected bad credentials");
+        } catch (BadCredentialsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void verifiesAgainAfterEviction() {
+
+        manager.authenticate(token("greg", "turnquist"));
+        cache.evict("greg");
+        manager.authenticate(token("greg", "turnquist"));
+
+        assertThat(verifications.get(), is(2));
+        assertThat(cache.getEvictions(), is(1L));
+    }
+
+    @Test
+    public void verifiesAgainAfterExpiry() throws InterruptedException {
+
+        this.manager = new CachingAuthenticationManager(delegate, new AuthenticationCache(2, 1));
+
+        manager.authenticate(token("greg", "turnquist"));
+        Thread.sleep(5);
+        manager.authenticate(token("greg", "turnquist"));
+
+        assertThat(verifications.get(), is(2));
+    }
+
+    @Test
+    public void staysWithinMaximumSize() {
+
+        manager.authenticate(token("greg", "turnquist"));
+        manager.authenticate(token("ollie", "turnquist"));
+        manager.authenticate(token("oliver", "turnquist"));
+
+        assertThat(cache.size(), is(2));
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+}
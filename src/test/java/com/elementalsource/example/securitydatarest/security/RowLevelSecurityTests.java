@@ -0,0 +1,199 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.Employee;
+import com.elementalsource.example.securitydatarest.model.Item;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import com.elementalsource.example.securitydatarest.repository.ItemRepository;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the row-level security of employees and items, see
+ * {@link com.elementalsource.example.securitydatarest.model.Owned}.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:row-level-security;DB_CLOSE_DELAY=-1")
+public class RowLevelSecurityTests {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private MockMvc mvc;
+    private Item gregs, ollies, frodos, shared;
+    private Employee assigned;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        this.gregs = itemRepository.save(item("Sting's scabbard", "greg"));
+        this.ollies = itemRepository.save(item("Narsil", "ollie"));
+        this.frodos = itemRepository.save(item("Mithril coat", "frodo"));
+        this.shared = itemRepository.save(item("Red Book of Westmarch", null));
+
+        Employee employee = new Employee("Samwise", "Gamgee", "gardener");
+        employee.setOwner("greg");
+        this.assigned = employeeRepository.save(employee);
+        SecurityContextHolder.clearContext();
+    }
+
+    @After
+    public void tearDown() {
+
+        SecurityUtils.runAs("system", "system", "ROLE_USER", "ROLE_ADMIN");
+        for (Item item : new Item[] {gregs, ollies, frodos, shared}) {
+            itemRepository.delete(item.getId());
+        }
+        employeeRepository.delete(assigned.getId());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void usersOnlySeeTheirOwnAndUnassignedItems() {
+
+        SecurityUtils.runAs("greg", "turnquist", "ROLE_USER");
+
+        Page<Item> page = itemRepository.findAll(new PageRequest(0, 1_000));
+
+        assertThat(descriptions(page.getContent()), hasItems("Sting's scabbard", "Red Book of Westmarch", "Sting"));
+        assertThat(descriptions(page.getContent()), not(hasItems("Narsil")));
+        assertThat(descriptions(page.getContent()), not(hasItems("Mithril coat")));
+        assertThat(page.getTotalElements(), is((long) page.getContent().size()));
+        assertThat(itemRepository.count(), is(page.getTotalElements()));
+        assertThat(itemRepository.findOne(frodos.getId()), is(nullValue()));
+        assertThat(itemRepository.exists(frodos.getId()), is(false));
+        assertThat(itemRepository.findVersionById(frodos.getId()), is(nullValue()));
+    }
+
+    @Test
+    public void adminsSeeAllItems() {
+
+        SecurityUtils.runAs("ollie", "gierke", "ROLE_USER", "ROLE_ADMIN");
+
+        List<Item> items = itemRepository.findAll(new PageRequest(0, 1_000)).getContent();
+
+        assertThat(descriptions(items), hasItems("Sting's scabbard", "Narsil", "Mithril coat", "Red Book of Westmarch"));
+        assertThat(itemRepository.findOne(frodos.getId()).getOwner(), is("frodo"));
+        assertThat(itemRepository.findOne(shared.getId()).getOwner(), is(nullValue()));
+    }
+
+    @Test
+    public void pagesOnlyThroughVisibleItems() throws Exception {
+
+        SecurityUtils.runAs("greg", "turnquist", "ROLE_USER");
+        long visible = itemRepository.count();
+        SecurityContextHolder.clearContext();
+
+        mvc.perform(get("/items?size=1").with(httpBasic("greg", "turnquist")).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.page.totalElements", is((int) visible))).
+            andExpect(jsonPath("$.page.totalPages", is((int) visible)));
+
+        mvc.perform(get("/items/{id}", gregs.getId()).with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.owner", is("greg")));
+        mvc.perform(get("/items/{id}", ollies.getId()).with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isNotFound());
+        mvc.perform(get("/items/{id}", gregs.getId()).with(httpBasic("ollie", "gierke"))).
+            andExpect(status().isOk());
+    }
+
+    @Test
+    public void hidesAssignedEmployeesFromOthers() throws Exception {
+
+        mvc.perform(get("/employees/{id}", assigned.getId())).
+            andExpect(status().isNotFound());
+        mvc.perform(get("/employees/{id}", assigned.getId()).with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.owner", is("greg")));
+
+        SecurityUtils.runAs("greg", "turnquist", "ROLE_USER");
+        long visibleToGreg = employeeRepository.count();
+        SecurityContextHolder.clearContext();
+
+        mvc.perform(get("/employees").accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.page.totalElements", is((int) visibleToGreg - 1)));
+    }
+
+    @Test
+    public void restrictsCodeRunningWithoutAuthenticationToUnassignedRows() {
+
+        SecurityUtils.runAs("greg", "turnquist", "ROLE_USER");
+        long visibleToGreg = employeeRepository.count();
+        SecurityContextHolder.clearContext();
+
+        assertThat(employeeRepository.findOne(assigned.getId()), is(nullValue()));
+        assertThat(employeeRepository.count(), is(visibleToGreg - 1));
+    }
+
+    @Test
+    public void storesUnassignedRowsWithAnEmptyOwner() {
+
+        assertThat(jdbcTemplate.queryForObject("select owner from item where id = ?", String.class, shared.getId()),
+            is(""));
+        assertThat(jdbcTemplate.queryForObject("select owner from item where id = ?", String.class, gregs.getId()),
+            is("greg"));
+    }
+
+    @Test
+    public void restrictsThroughTheOwnerIndexes() {
+
+        assertThat(plan("select count(*) from item where owner in ('', 'greg')"), containsString("IX_ITEM_OWNER"));
+        assertThat(plan("select count(*) from employee where owner in ('', 'greg')"),
+            containsString("IX_EMPLOYEE_OWNER"));
+    }
+
+    private static Item item(String description, String owner) {
+
+        Item item = new Item(description);
+        item.setOwner(owner);
+        return item;
+    }
+
+    private static List<String> descriptions(List<Item> items) {
+        return items.stream().map(Item::getDescription).collect(Collectors.toList());
+    }
+
+    private String plan(String query) {
+        return jdbcTemplate.queryForObject("explain " + query, String.class).toUpperCase(Locale.ROOT);
+    }
+}
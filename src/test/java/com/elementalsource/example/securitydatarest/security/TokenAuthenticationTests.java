@@ -0,0 +1,154 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.jayway.jsonpath.JsonPath;
+import java.nio.charset.StandardCharsets;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the bearer tokens issued at {@code /auth/token}.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class TokenAuthenticationTests {
+
+    private static final String PAYLOAD = "{\"firstName\": \"Radagast\", \"lastName\": \"the Brown\", "
+        + "\"title\": \"Wizard\"}";
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private TokenService tokenService;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void issuesTokenForCredentials() throws Exception {
+
+        mvc.perform(post("/auth/token").with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.token_type", is("Bearer"))).
+            andExpect(jsonPath("$.expires_in", is(900)));
+    }
+
+    @Test
+    public void rejectsAnonymousTokenRequest() throws Exception {
+
+        mvc.perform(post("/auth/token")).
+            andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void doesNotRenewTokenWithToken() throws Exception {
+
+        mvc.perform(post("/auth/token").header(HttpHeaders.AUTHORIZATION, bearer("greg", "turnquist"))).
+            andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void authenticatesWithTokenWithoutSession() throws Exception {
+
+        MvcResult result = mvc.perform(get("/items").
+            header(HttpHeaders.AUTHORIZATION, bearer("greg", "turnquist")).
+            accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andReturn();
+
+        assertThat(result.getRequest().getSession(false), is(nullValue()));
+    }
+
+    @Test
+    public void carriesRolesInToken() throws Exception {
+
+        mvc.perform(post("/employees").
+            header(HttpHeaders.AUTHORIZATION, bearer("greg", "turnquist")).
+            content(PAYLOAD).
+            contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isForbidden());
+
+        mvc.perform(post("/employees").
+            header(HttpHeaders.AUTHORIZATION, bearer("ollie", "gierke")).
+            content(PAYLOAD).
+            contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isCreated());
+    }
+
+    @Test
+    public void rejectsTamperedToken() throws Exception {
+
+        // signed for greg, claiming to be somebody else
+        String token = bearer("greg", "turnquist");
+        int start = "Bearer ".length();
+        String tampered = token.substring(0, start) + (token.charAt(start) == 'a' ? 'b' : 'a')
+            + token.substring(start + 1);
+
+        mvc.perform(get("/items").header(HttpHeaders.AUTHORIZATION, tampered)).
+            andExpect(status().isUnauthorized()).
+            andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+
+    @Test(expected = CredentialsExpiredException.class)
+    public void rejectsExpiredToken() {
+
+        TokenService expired = new TokenService("secret".getBytes(StandardCharsets.UTF_8), -1);
+
+        expired.verify(expired.issue(new TestingAuthenticationToken("greg", null, "ROLE_USER")));
+    }
+
+    @Test
+    public void verifiesTokenWithoutUserLookup() {
+
+        Authentication authentication = tokenService.verify(tokenService.issue(
+            new TestingAuthenticationToken("somebody", null, "ROLE_USER", "ROLE_ADMIN")));
+
+        assertThat(authentication.getName(), is("somebody"));
+        assertThat(authentication.isAuthenticated(), is(true));
+        assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities()),
+            is(AuthorityUtils.authorityListToSet(AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"))));
+    }
+
+    private String bearer(String username, String password) throws Exception {
+
+        String body = mvc.perform(post("/auth/token").with(httpBasic(username, password))).
+            andReturn().getResponse().getContentAsString();
+
+        return "Bearer " + JsonPath.read(body, "$.access_token");
+    }
+}
@@ -0,0 +1,170 @@
+package com.elementalsource.example.securitydatarest.security;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.model.UserAccount;
+import com.elementalsource.example.securitydatarest.repository.UserAccountRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the user accounts stored in the database and managed at {@code /users}.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UserAccountTests {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private JpaUserDetailsService userDetailsService;
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void loadsSeededUsers() {
+
+        UserDetails ollie = userDetailsService.loadUserByUsername("ollie");
+
+        assertThat(passwordEncoder.matches("gierke", ollie.getPassword()), is(true));
+        assertThat(AuthorityUtils.authorityListToSet(ollie.getAuthorities()),
+            is(AuthorityUtils.authorityListToSet(AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"))));
+    }
+
+    @Test(expected = UsernameNotFoundException.class)
+    public void rejectsUnknownUser() {
+        userDetailsService.loadUserByUsername("sauron");
+    }
+
+    @Test
+    public void onlyAdminsManageUsers() throws Exception {
+
+        mvc.perform(get("/users").with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isForbidden());
+
+        mvc.perform(get("/users").with(httpBasic("ollie", "gierke")).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$._embedded.users[0].username").exists()).
+            andExpect(jsonPath("$._embedded.users[0]", not(hasKey("password"))));
+    }
+
+    @Test
+    public void createdUserAuthenticatesWithHashedPassword() throws Exception {
+
+        mvc.perform(post("/users").with(httpBasic("ollie", "gierke")).
+            content("{\"username\": \"frodo\", \"password\": \"baggins\", \"roles\": [\"USER\"]}").
+            contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isCreated());
+
+        UserDetails frodo = userDetailsService.loadUserByUsername("frodo");
+        assertThat(frodo.getPassword().equals("baggins"), is(false));
+        assertThat(passwordEncoder.matches("baggins", frodo.getPassword()), is(true));
+
+        mvc.perform(get("/items").with(httpBasic("frodo", "baggins")).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk());
+    }
+
+    @Test
+    public void rejectsUserWithoutPassword() throws Exception {
+
+        mvc.perform(post("/users").with(httpBasic("ollie", "gierke")).
+            content("{\"username\": \"gollum\", \"roles\": [\"USER\"]}").
+            contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void keepsPasswordOnReplaceWithoutPassword() throws Exception {
+
+        UserAccount pippin = userAccountRepository.save(new UserAccount("pippin", passwordEncoder.encode("took"), "USER"));
+
+        mvc.perform(put("/users/" + pippin.getId()).with(httpBasic("ollie", "gierke")).
+            content("{\"username\": \"pippin\", \"enabled\": true, \"roles\": [\"USER\"]}").
+            contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().is2xxSuccessful());
+
+        mvc.perform(get("/items").with(httpBasic("pippin", "took")).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk());
+    }
+
+    @Test
+    public void changesTakeEffectDespiteAuthenticationCache() throws Exception {
+
+        UserAccount merry = userAccountRepository.save(
+            new UserAccount("merry", passwordEncoder.encode("brandybuck"), "USER"));
+        String location = "/users/" + merry.getId();
+
+        String payload = "{\"firstName\": \"Pippin\", \"lastName\": \"Took\", \"title\": \"Guard of the Citadel\"}";
+
+        mvc.perform(post("/employees").with(httpBasic("merry", "brandybuck")).
+            content(payload).contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isForbidden());
+
+        // new roles, same password
+        mvc.perform(patch(location).with(httpBasic("ollie", "gierke")).
+            content("{\"roles\": [\"USER\", \"ADMIN\"]}").
+            contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().is2xxSuccessful());
+
+        mvc.perform(post("/employees").with(httpBasic("merry", "brandybuck")).
+            content(payload).contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isCreated());
+
+        // new password
+        mvc.perform(patch(location).with(httpBasic("ollie", "gierke")).
+            content("{\"password\": \"meriadoc\"}").
+            contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().is2xxSuccessful());
+
+        mvc.perform(get("/items").with(httpBasic("merry", "brandybuck"))).
+            andExpect(status().isUnauthorized());
+        mvc.perform(get("/items").with(httpBasic("merry", "meriadoc")).accept(MediaTypes.HAL_JSON)).
+            andExpect(status().isOk());
+
+        mvc.perform(delete(location).with(httpBasic("ollie", "gierke"))).
+            andExpect(status().isNoContent());
+
+        mvc.perform(get("/items").with(httpBasic("merry", "meriadoc"))).
+            andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,179 @@
+package com.elementalsource.example.securitydatarest.seeding;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import com.elementalsource.example.securitydatarest.security.SecurityUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Test cases for the seeding of fixtures, against a database of their own.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:seeding;DB_CLOSE_DELAY=-1",
+    "app.seeding.chunk-size=100"})
+public class SeedingTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterChainProxy filterChain;
+    @Autowired
+    private SeedingPipeline seedingPipeline;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+
+        this.mvc = webAppContextSetup(context).addFilters(filterChain).build();
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void seedsFixturesOnStartup() {
+
+        assertThat(count("select count(*) from user_account"), is(2L));
+        assertThat(count("select count(*) from employee where last_name = 'Baggins'"), is(2L));
+        assertThat(count("select count(*) from item where description = 'the one ring'"), is(1L));
+        assertThat(count("select count(*) from seed_batch where fixture like 'classpath:fixtures/%'"), is(3L));
+    }
+
+    @Test
+    public void seedsLargeFixtureInChunksOnlyOnce() throws IOException {
+
+        File csv = folder.newFile("employees.csv");
+        try (PrintWriter out = new PrintWriter(csv, StandardCharsets.UTF_8.name())) {
+
+            out.println("firstName,lastName,title");
+            for (int i = 0; i < 10_050; i++) {
+                out.println("Hobbit,\"No. " + i + ", the \"\"Seeded\"\"\",seeded in chunks");
+            }
+        }
+        List<SeedingProperties.Fixture> fixtures = fixtures(FixtureType.EMPLOYEE, csv);
+
+        seedingPipeline.seed(fixtures);
+
+        assertThat(count("select count(*) from employee where title = 'seeded in chunks'"), is(10_050L));
+        assertThat(count("select count(*) from employee where last_name = 'No. 7, the \"Seeded\"'"), is(1L));
+        assertThat(count("select count(*) from employee where last_modified is null"), is(0L));
+        assertThat(progress(csv).getState(), is(SeedingProgress.State.DONE));
+        assertThat(progress(csv).getRows(), is(10_050L));
+        assertThat(progress(csv).getChunks(), is(101));
+        assertThat(progress(csv).getRowsPerSecond(), greaterThan(0.0));
+
+        seedingPipeline.seed(fixtures);
+
+        assertThat(count("select count(*) from employee where title = 'seeded in chunks'"), is(10_050L));
+        assertThat(progress(csv).getRows(), is(0L));
+        assertThat(progress(csv).getSkippedChunks(), is(101));
+    }
+
+    @Test
+    public void seedsItemsAsSystemWithoutTouchingCallersContext() throws IOException {
+
+        File ndjson = folder.newFile("items.ndjson");
+        try (PrintWriter out = new PrintWriter(ndjson, StandardCharsets.UTF_8.name())) {
+            for (int i = 0; i < 2_000; i++) {
+                out.println("{\"description\":\"Seeded item " + i + "\"}");
+            }
+        }
+
+        SecurityUtils.runAs("greg", "turnquist", "ROLE_USER");
+
+        seedingPipeline.seed(fixtures(FixtureType.ITEM, ndjson));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName(), is("greg"));
+        assertThat(count("select count(*) from item where description like 'Seeded item %'"), is(2_000L));
+    }
+
+    @Test
+    public void reportsMalformedRows() throws IOException {
+
+        File csv = folder.newFile("malformed.csv");
+        try (PrintWriter out = new PrintWriter(csv, StandardCharsets.UTF_8.name())) {
+
+            out.println("firstName,lastName,title");
+            for (int i = 0; i < 150; i++) {
+                out.println("Orc,No. " + i + ",malformed");
+            }
+            out.println("Orc,without a title");
+        }
+
+        try {
+            seedingPipeline.seed(fixtures(FixtureType.EMPLOYEE, csv));
+            fail("Expected the malformed row to be reported");
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), containsString("line 152"));
+        }
+
+        assertThat(progress(csv).getState(), is(SeedingProgress.State.FAILED));
+        assertThat(count("select count(*) from employee where title = 'malformed'"), is(100L));
+    }
+
+    @Test
+    public void exposesProgressToAdmin() throws Exception {
+
+        mvc.perform(get("/seeding/stats").with(httpBasic("ollie", "gierke"))).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$[0].fixture", is("classpath:fixtures/user-accounts.ndjson"))).
+            andExpect(jsonPath("$[0].state", is("DONE"))).
+            andExpect(jsonPath("$[0].rows", is(2)));
+
+        mvc.perform(get("/seeding/stats").with(httpBasic("greg", "turnquist"))).
+            andExpect(status().isForbidden());
+    }
+
+    private static List<SeedingProperties.Fixture> fixtures(FixtureType type, File file) {
+
+        SeedingProperties.Fixture fixture = new SeedingProperties.Fixture();
+        fixture.setType(type);
+        fixture.setLocation(file.toURI().toString());
+
+        return Collections.singletonList(fixture);
+    }
+
+    private SeedingProgress progress(File file) {
+
+        return seedingPipeline.getProgress().stream().
+            filter(progress -> progress.getFixture().equals(file.toURI().toString())).
+            findFirst().
+            orElseThrow(IllegalStateException::new);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
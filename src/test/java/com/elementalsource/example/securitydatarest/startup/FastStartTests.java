@@ -0,0 +1,96 @@
+package com.elementalsource.example.securitydatarest.startup;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.elementalsource.example.securitydatarest.SecurityDataRestApplication;
+import com.elementalsource.example.securitydatarest.repository.EmployeeRepository;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Test cases for the {@code fast-start} profile, including the time from starting the application to its first
+ * successful response.
+ */
+public class FastStartTests {
+
+    // generous, as the time depends on the machine and its load; tighter ones are given with -Dstartup.budget-millis
+    private static final long BUDGET_MILLIS = Long.getLong("startup.budget-millis", 60_000);
+
+    @Test
+    public void servesFirstRequestWithinBudget() throws Exception {
+
+        long start = System.nanoTime();
+
+        try (ConfigurableApplicationContext application = start("fast-start-budget")) {
+
+            int status = get(application, "/employees");
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(status, is(200));
+            assertThat("First 200 after " + millis + " ms", millis, lessThan(BUDGET_MILLIS));
+        }
+    }
+
+    @Test
+    public void createsBeansOnFirstUse() throws Exception {
+
+        try (ConfigurableApplicationContext application = start("fast-start-lazy")) {
+
+            assertThat(application.getBeanFactory().containsSingleton("tokenController"), is(false));
+            assertThat(application.getBeanFactory().containsSingleton("userAccountEventHandler"), is(true));
+
+            assertThat(get(application, "/employees"), is(200));
+            assertThat(application.getBeanFactory().containsSingleton("employeeRepository"), is(true));
+            assertThat(application.getBeanFactory().containsSingleton("tokenController"), is(false));
+        }
+    }
+
+    @Test
+    public void seedsInBackground() throws Exception {
+
+        try (ConfigurableApplicationContext application = start("fast-start-seeding")) {
+
+            EmployeeRepository employeeRepository = application.getBean(EmployeeRepository.class);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+            while (employeeRepository.count() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertThat(employeeRepository.count(), is(3L));
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String database) {
+
+        return new SpringApplicationBuilder(SecurityDataRestApplication.class).
+            // command line arguments, as they take precedence over application.yml
+            run("--spring.profiles.active=fast-start",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+    }
+
+    private static int get(ConfigurableApplicationContext application, String path) throws IOException {
+
+        int port = ((EmbeddedWebApplicationContext) application).getEmbeddedServletContainer().getPort();
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT, MediaTypes.HAL_JSON_VALUE);
+
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}